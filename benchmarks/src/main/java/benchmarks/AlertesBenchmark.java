@@ -0,0 +1,38 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import model.Produits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StockController.getProduitsEnAlerte et les requêtes de l'index des alertes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", "--add-modules=jdk.incubator.vector"})
+public class AlertesBenchmark {
+
+    @Benchmark
+    public List<Produits> getProduitsEnAlerte(CatalogueSynthetique c) {
+        return c.controller.getProduitsEnAlerte();
+    }
+
+    @Benchmark
+    public List<Produits> getProduitsPlusCritiques(CatalogueSynthetique c) {
+        return c.controller.getProduitsPlusCritiques(10);
+    }
+
+    @Benchmark
+    public int getNombreCritiques(CatalogueSynthetique c) {
+        return c.controller.getNombreCritiques();
+    }
+}
@@ -0,0 +1,86 @@
+package benchmarks;
+
+import controller.StockController;
+import java.util.SplittableRandom;
+import model.Catalogue;
+import model.CatalogueColonnes;
+import model.CatalogueHorsTas;
+import model.CatalogueObjets;
+import model.StockModel;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Catalogue synthétique partagé par les benchmarks
+ * Taille et stockage sont paramétrés ; le contenu est tiré d'une graine
+ * fixe (environ 1 produit sur 4 en alerte) pour des mesures reproductibles.
+ */
+@State(Scope.Benchmark)
+public class CatalogueSynthetique {
+    static final long GRAINE = 20240611L;
+    static final int ECHANTILLON = 1 << 10;     // clés de recherche tournantes
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int taille;
+
+    @Param({"objets", "colonnes", "horsTas"})
+    public String stockage;
+
+    public StockModel model;
+    public StockController controller;
+
+    /** Identifiants et noms existants, parcourus en boucle par les benchmarks */
+    public long[] ids;
+    public String[] noms;
+    public String[] nomsAbsents;
+
+    @Setup(Level.Trial)
+    public void construire() {
+        Catalogue catalogue;
+        switch (stockage) {
+            case "colonnes":
+                catalogue = new CatalogueColonnes();
+                break;
+            case "horsTas":
+                catalogue = new CatalogueHorsTas(taille);
+                break;
+            default:
+                catalogue = new CatalogueObjets();
+                break;
+        }
+        catalogue.reserverCapacite(taille);
+        SplittableRandom alea = new SplittableRandom(GRAINE);
+        ids = new long[ECHANTILLON];
+        noms = new String[ECHANTILLON];
+        int pas = Math.max(1, taille / ECHANTILLON);
+        for (int i = 0; i < taille; i++) {
+            double prixachat = 1 + alea.nextDouble(500);
+            int seuil = alea.nextInt(10, 100);
+            // Un quart des produits sous leur seuil
+            int quantite = alea.nextInt(4) == 0 ? alea.nextInt(seuil + 1) : alea.nextInt(seuil + 1, 1000);
+            String nom = "Produit-" + i;
+            int s = catalogue.ajouter(nom, prixachat, prixachat * (1.1 + alea.nextDouble()), quantite, seuil,
+                                      alea.nextDouble(0.1, 20), alea.nextInt(1, 500));
+            if (i % pas == 0 && i / pas < ECHANTILLON) {
+                ids[i / pas] = catalogue.getId(s);
+                noms[i / pas] = nom;
+            }
+        }
+        int n = Math.min(ECHANTILLON, taille);
+        if (n < ECHANTILLON) {
+            for (int k = n; k < ECHANTILLON; k++) {
+                ids[k] = ids[k % n];
+                noms[k] = noms[k % n];
+            }
+        }
+        nomsAbsents = new String[ECHANTILLON];
+        for (int k = 0; k < ECHANTILLON; k++) {
+            nomsAbsents[k] = "Absent-" + k;
+        }
+        model = new StockModel(catalogue, false);
+        controller = new StockController(model);
+    }
+}
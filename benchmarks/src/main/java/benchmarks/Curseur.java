@@ -0,0 +1,17 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Position tournante dans l'échantillon de clés, propre à chaque thread
+ */
+@State(Scope.Thread)
+public class Curseur {
+    private int position;
+
+    int suivant() {
+        position = (position + 1) & (CatalogueSynthetique.ECHANTILLON - 1);
+        return position;
+    }
+}
@@ -0,0 +1,37 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import model.Produits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StockModel.getProduitParNom : nom présent et nom absent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", "--add-modules=jdk.incubator.vector"})
+public class RechercheNomBenchmark {
+
+    @Benchmark
+    public Produits getProduitParNom(CatalogueSynthetique c, Curseur curseur) {
+        return c.model.getProduitParNom(c.noms[curseur.suivant()]);
+    }
+
+    @Benchmark
+    public Produits getProduitParNomAbsent(CatalogueSynthetique c, Curseur curseur) {
+        return c.model.getProduitParNom(c.nomsAbsents[curseur.suivant()]);
+    }
+
+    @Benchmark
+    public boolean produitExiste(CatalogueSynthetique c, Curseur curseur) {
+        return c.controller.produitExiste(c.noms[curseur.suivant()]);
+    }
+}
@@ -0,0 +1,54 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import model.Produits;
+import model.RecommandationsLot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Produits.recommanderReapprovisionnement : par produit (avec et sans allocation) et en lot
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", "--add-modules=jdk.incubator.vector"})
+public class RecommandationBenchmark {
+
+    @State(Scope.Thread)
+    public static class Resultat {
+        final Produits.Recommendation recommandation = new Produits.Recommendation();
+    }
+
+    @Benchmark
+    public Produits.Recommendation recommanderReapprovisionnement(CatalogueSynthetique c, Curseur curseur) {
+        Produits p = c.model.getProduitParId(c.ids[curseur.suivant()]);
+        return p.recommanderReapprovisionnement(p.getDemandeEstimee());
+    }
+
+    @Benchmark
+    public String recommanderAvecMessage(CatalogueSynthetique c, Curseur curseur) {
+        Produits p = c.model.getProduitParId(c.ids[curseur.suivant()]);
+        return p.recommanderReapprovisionnement(p.getDemandeEstimee()).getMessage();
+    }
+
+    @Benchmark
+    public int recommanderSansAllocation(CatalogueSynthetique c, Curseur curseur, Resultat r) {
+        Produits p = c.model.getProduitParId(c.ids[curseur.suivant()]);
+        return p.recommanderReapprovisionnement(p.getDemandeEstimee(), r.recommandation).reorderQty;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public RecommandationsLot recommanderCatalogue(CatalogueSynthetique c) {
+        return c.controller.getRecommandationsCatalogue();
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import model.Produits;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * StockController.getValeurTotaleStock et les agrégats du tableau de bord
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx12g", "--add-modules=jdk.incubator.vector"})
+public class ValeurStockBenchmark {
+
+    /**
+     * Modifie une quantité avant chaque appel : l'instantané publié est périmé
+     * et getInstantane() mesure bien une reconstruction, pas le cache
+     */
+    @State(Scope.Thread)
+    public static class Modification {
+        @Setup(Level.Invocation)
+        public void modifier(CatalogueSynthetique c, Curseur curseur) {
+            Produits p = c.model.getProduitParId(c.ids[curseur.suivant()]);
+            p.setQuantite(p.getQuantite() ^ 1);
+        }
+    }
+
+    @Benchmark
+    public double getValeurTotaleStock(CatalogueSynthetique c) {
+        return c.controller.getValeurTotaleStock();
+    }
+
+    @Benchmark
+    public int getNombreAlertes(CatalogueSynthetique c) {
+        return c.controller.getNombreAlertes();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double valeurInstantane(CatalogueSynthetique c, Modification m) {
+        return c.controller.getInstantane().getValeurTotale();
+    }
+}
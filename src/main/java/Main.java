@@ -3,11 +3,20 @@
  * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
  */
 import controller.StockController;
+import model.Catalogue;
+import model.CatalogueColonnes;
+import model.CatalogueHorsTas;
+import model.CatalogueObjets;
+import model.JournalMouvements;
 import model.StockModel;
 import view.MainFrame;
 import javax.swing.*;
 // Modern Look and Feel using built-in Nimbus
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
 
 /**
  * Classe principale - Point d'entrée de l'application
@@ -66,8 +75,54 @@ public class Main {
             // Show splash screen
             showSplashScreen();
             
-            // Create model
-            StockModel model = new StockModel();
+            // Create model (-Dcatalogue=colonnes|horstas selects the storage backend)
+            String catalogue = System.getProperty("catalogue", "objets");
+            Supplier<Catalogue> stockage = switch (catalogue) {
+                case "colonnes" -> CatalogueColonnes::new;
+                case "horstas" -> CatalogueHorsTas::new;
+                default -> CatalogueObjets::new;
+            };
+            StockModel charge;
+            boolean fichierCharge = true;
+            try {
+                charge = creerModele(stockage.get());
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                if (!confirmerDemarrageSansDonnees(e)) {
+                    System.exit(1);
+                    return;
+                }
+                // Same backend, sample products; the files are left untouched
+                charge = new StockModel(stockage.get());
+                fichierCharge = false;
+            }
+            StockModel model = charge;
+            String fichier = fichierCharge ? System.getProperty("fichier") : null;
+            JournalMouvements journal = model.getJournal();
+            if (journal != null) {
+                // Bound the ledger entries lost on a crash to about one second
+                journal.forcerPeriodiquement(1000);
+            }
+            if (fichier != null || journal != null) {
+                // Save the catalogue on exit so the next start loads it directly,
+                // then flush and close the ledger
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        if (fichier != null) {
+                            model.sauvegarder(Path.of(fichier));
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                    try {
+                        if (journal != null) {
+                            journal.close();
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }));
+            }
             
             // Create controller
             StockController controller = new StockController(model);
@@ -81,6 +136,49 @@ public class Main {
         });
     }
     
+    /**
+     * -Dfichier=path: load a binary catalogue file (see FichierCatalogue),
+     * saved again on exit
+     * -Djournal=path: rebuild the model from the movement ledger if it exists,
+     * otherwise start from the sample products and record them in a new ledger
+     * With both flags, the file holds the state and the ledger is appended to
+     * (a new ledger starts with the loaded products)
+     * @throws IOException if an existing file or ledger cannot be read
+     */
+    private static StockModel creerModele(Catalogue stockage) throws IOException {
+        String instantane = System.getProperty("fichier");
+        String journal = System.getProperty("journal");
+        Path fichier = journal != null ? Path.of(journal) : null;
+        StockModel model;
+        if (instantane != null && Files.exists(Path.of(instantane))) {
+            model = StockModel.depuisFichier(Path.of(instantane), stockage);
+        } else if (fichier != null && Files.exists(fichier)) {
+            return StockModel.depuisJournal(fichier, stockage);
+        } else {
+            model = new StockModel(stockage);
+        }
+        if (fichier != null) {
+            boolean nouveau = !Files.exists(fichier);
+            model.setJournal(new JournalMouvements(fichier));
+            if (nouveau) {
+                model.journaliserCatalogue();
+            }
+        }
+        return model;
+    }
+
+    /**
+     * Reports a load failure; the user either quits or starts on sample data
+     * without saving over the unreadable file
+     */
+    private static boolean confirmerDemarrageSansDonnees(Exception e) {
+        int choix = JOptionPane.showConfirmDialog(null,
+                "Impossible de charger les données du stock :\n" + e.getMessage()
+                + "\n\nDémarrer avec les produits d'exemple ? Le fichier existant ne sera pas modifié.",
+                "Erreur de chargement", JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE);
+        return choix == JOptionPane.YES_OPTION;
+    }
+
     private static void showSplashScreen() {
         JWindow splash = new JWindow();
         splash.setSize(400, 250);
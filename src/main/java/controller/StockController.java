@@ -5,8 +5,23 @@
 package controller;
 
 
+import model.AgregatsStock;
+import model.AnalyseSensibilite;
+import model.BacktestPrevisions;
+import model.BalayageScenarios;
+import model.HistoriqueVentes;
+import model.ImportCsv;
+import model.InstantaneCatalogue;
+import model.PrevisionDemande;
 import model.Produits;
+import model.RecommandationsLot;
+import model.SeriesTemporelles;
+import model.SimulationMonteCarlo;
+import model.SimulationStock;
 import model.StockModel;
+import model.StockSecurite;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -20,19 +35,59 @@ public class StockController {
         this.model = model;
     }
 
+    /**
+     * Liste cohérente des produits pour l'affichage (copies issues de l'instantané courant)
+     * Les modifications passent par les méthodes du contrôleur, jamais par ces copies.
+     */
     public List<Produits> getProduits() {
-        return model.getProduits();
+        return model.getInstantane().getProduits();
+    }
+
+    /**
+     * Instantané immuable et versionné du catalogue
+     */
+    public InstantaneCatalogue getInstantane() {
+        return model.getInstantane();
+    }
+
+    /**
+     * Importe un fichier CSV de produits (appelé hors de l'EDT pour les gros fichiers)
+     */
+    public ImportCsv.Rapport importerCsv(Path fichier, ImportCsv.Progression progression) throws IOException {
+        return model.importerCsv(fichier, progression);
+    }
+
+    /**
+     * Sauvegarde le catalogue dans un fichier binaire rechargeable au démarrage
+     */
+    public void sauvegarderCatalogue(Path fichier) throws IOException {
+        model.sauvegarder(fichier);
     }
 
     public Produits getProduit(int index) {
         return model.getProduit(index);
     }
 
+    /**
+     * Obtient l'identifiant stable du produit affiché à un index
+     */
+    public long getId(int index) {
+        return model.getId(index);
+    }
+
+    public Produits getProduitParId(long id) {
+        return model.getProduitParId(id);
+    }
+
     /**
      * Calcule une recommandation pour un produit donné
      */
     public Produits.Recommendation getRecommandation(int productIndex, int demande) {
-        Produits p = model.getProduit(productIndex);
+        return getRecommandationParId(model.getId(productIndex), demande);
+    }
+
+    public Produits.Recommendation getRecommandationParId(long id, int demande) {
+        Produits p = model.getProduitParId(id);
         if (p != null) {
             return p.recommanderReapprovisionnement(demande);
         }
@@ -40,20 +95,200 @@ public class StockController {
     }
 
     /**
-     * Simule l'application d'une recommandation (mise à jour du stock)
+     * Calcule une recommandation dans un résultat réutilisable (sans allocation)
+     * @return resultat, ou null si le produit n'existe pas
      */
-    public void appliquerReapprovisionnement(int productIndex, int quantiteCommande) {
-        Produits p = model.getProduit(productIndex);
+    public Produits.Recommendation getRecommandationParId(long id, int demande, Produits.Recommendation resultat) {
+        Produits p = model.getProduitParId(id);
         if (p != null) {
-            p.setQuantite(p.getQuantite() + quantiteCommande);
+            return p.recommanderReapprovisionnement(demande, resultat);
         }
+        return null;
+    }
+
+    /**
+     * Recommandations de tout le catalogue en un appel (tableaux primitifs, calcul parallèle)
+     */
+    public RecommandationsLot getRecommandationsCatalogue() {
+        return model.recommanderTout();
+    }
+
+    /**
+     * Recommandations des produits en alerte uniquement
+     */
+    public RecommandationsLot getRecommandationsEnAlerte() {
+        return model.recommanderEnAlerte();
+    }
+
+    /**
+     * Simulation Monte Carlo d'une période de demande pour un produit (calcul parallèle)
+     * @return null si la progression a interrompu la simulation
+     */
+    public SimulationMonteCarlo.Resultat simulerMonteCarlo(Produits p, SimulationMonteCarlo.LoiDemande loi,
+                                                          long essais, long graine,
+                                                          SimulationMonteCarlo.Progression progression) {
+        return SimulationMonteCarlo.simuler(p, loi, essais, graine, progression);
+    }
+
+    /**
+     * Simulation jour par jour du stock d'un produit (trajectoire et coûts)
+     * @return null si la progression a interrompu la simulation
+     */
+    public SimulationStock.Trajectoire simulerStock(Produits p, SimulationStock.Parametres parametres,
+                                                    SimulationStock.Progression progression) {
+        return SimulationStock.simuler(p, parametres, progression);
+    }
+
+    /**
+     * Simulation jour par jour de tout le catalogue, en parallèle (totaux par produit)
+     * @return null si la progression a interrompu la simulation
+     */
+    public SimulationStock.ResultatLot simulerStockCatalogue(SimulationStock.Parametres parametres,
+                                                             SimulationStock.Progression progression) {
+        return SimulationStock.simulerLot(model.getInstantane(), parametres, progression);
+    }
+
+    /**
+     * Prépare le balayage d'une grille de scénarios (demande, prix d'achat, stockage, seuil)
+     */
+    public BalayageScenarios creerBalayage(Produits p, BalayageScenarios.Axe demandes, BalayageScenarios.Axe prixachats,
+                                           BalayageScenarios.Axe prixstocks, BalayageScenarios.Axe seuils) {
+        return new BalayageScenarios(p, demandes, prixachats, prixstocks, seuils);
+    }
+
+    /**
+     * Demande prévue (lissage ou Holt) pour la prochaine période, -1 sans vente observée
+     */
+    public int getDemandePrevue(long id, PrevisionDemande.Methode methode) {
+        return model.getDemandePrevue(id, methode);
+    }
+
+    /**
+     * Recommandation calculée avec la demande prévue au lieu de la demande saisie
+     */
+    public Produits.Recommendation getRecommandationPrevueParId(long id, PrevisionDemande.Methode methode) {
+        return model.recommanderSelonPrevision(id, methode);
+    }
+
+    /**
+     * Historique journalier des ventes d'un journal de mouvements
+     */
+    public HistoriqueVentes chargerHistorique(Path journal) throws IOException {
+        return HistoriqueVentes.depuisJournal(journal);
+    }
+
+    /**
+     * Évalue les modèles de prévision (naïf, moyenne mobile, lissage, Holt, Croston) produit par produit
+     * @return null si la progression a interrompu l'évaluation
+     */
+    public BacktestPrevisions.Resultat evaluerPrevisions(HistoriqueVentes historique,
+                                                         BacktestPrevisions.Progression progression) {
+        return model.evaluerPrevisions(historique, BacktestPrevisions.Parametres.PAR_DEFAUT, progression);
+    }
+
+    public BacktestPrevisions.Modele getModeleRetenu(long id) {
+        return model.getModeleRetenu(id);
+    }
+
+    /**
+     * Met la demande estimée des produits à la prévision de leur modèle retenu
+     * @return nombre de produits mis à jour
+     */
+    public int appliquerPrevisions(BacktestPrevisions.Resultat resultat) {
+        return model.appliquerPrevisions(resultat);
+    }
+
+    /**
+     * Règle le calcul du stock de sécurité (paramètres de SettingsPanel)
+     * @param niveauService niveau de service visé, en %
+     * @param variabilite écart-type relatif de la demande, en %
+     * @param delaiJours horizon de protection, en jours
+     */
+    public void configurerStockSecurite(double niveauService, double variabilite, int delaiJours) {
+        model.setParametresSecurite(new StockSecurite.Parametres(niveauService / 100, variabilite / 100,
+                                                                 delaiJours, 30));
+    }
+
+    public StockSecurite.Parametres getParametresSecurite() {
+        return model.getParametresSecurite();
+    }
+
+    /**
+     * Stock de sécurité et point de commande du catalogue (en cache jusqu'à modification)
+     */
+    public StockSecurite.Resultat getStockSecurite() {
+        return model.getStockSecurite();
+    }
+
+    public StockSecurite.Resultat getStockSecurite(InstantaneCatalogue inst) {
+        return model.getStockSecurite(inst);
+    }
+
+    /**
+     * Moteur d'analyse de sensibilité (tornado) : ±variation, pas points par paramètre
+     */
+    public AnalyseSensibilite creerAnalyseSensibilite(double variation, int pas) {
+        return new AnalyseSensibilite(variation, pas);
+    }
+
+    /**
+     * Simule l'application d'une recommandation (mise à jour du stock)
+     */
+    public void appliquerReapprovisionnement(int productIndex, int quantiteCommande) {
+        appliquerReapprovisionnementParId(model.getId(productIndex), quantiteCommande);
+    }
+
+    public void appliquerReapprovisionnementParId(long id, int quantiteCommande) {
+        model.recevoirStock(id, quantiteCommande);
+    }
+
+    /**
+     * Ajuste atomiquement le stock d'un produit (delta positif ou négatif)
+     */
+    public boolean ajusterStock(long id, int delta) {
+        return model.ajusterStock(id, delta);
+    }
+
+    /**
+     * Enregistre une vente ; le stock ne descend jamais sous zéro
+     * @return unités effectivement vendues
+     */
+    public int vendre(long id, int quantite) {
+        return model.retirerStock(id, quantite);
+    }
+
+    /**
+     * Ventes et réceptions les plus récentes (au plus n, depuis un instant), de la plus récente à la plus ancienne
+     */
+    public List<SeriesTemporelles.Evenement> getDerniersMouvements(int n, long depuis) {
+        return model.getSeries().derniers(n, depuis, SeriesTemporelles.Mesure.VENTES,
+                                          SeriesTemporelles.Mesure.RECEPTIONS);
+    }
+
+    /**
+     * Total d'une mesure sur tous les produits entre deux instants
+     */
+    public double getTotalMouvements(SeriesTemporelles.Mesure mesure, long debut, long fin) {
+        return model.getSeries().total(mesure, debut, fin);
+    }
+
+    /**
+     * Historique sous-échantillonné d'un produit (voir SeriesTemporelles.echantillonner)
+     */
+    public double[] getHistorique(long id, SeriesTemporelles.Mesure mesure, long debut, long fin, long pas,
+                                  SeriesTemporelles.Agregat agregat) {
+        return model.getSeries().echantillonner(id, mesure, debut, fin, pas, agregat);
     }
 
     /**
      * Calcule le coût total de réapprovisionnement
      */
     public double calculerCoutReappro(int productIndex, int quantiteCommande) {
-        Produits p = model.getProduit(productIndex);
+        return calculerCoutReapproParId(model.getId(productIndex), quantiteCommande);
+    }
+
+    public double calculerCoutReapproParId(long id, int quantiteCommande) {
+        Produits p = model.getProduitParId(id);
         if (p != null) {
             return p.getPrixachat() * quantiteCommande;
         }
@@ -64,7 +299,11 @@ public class StockController {
      * Calcule le profit potentiel
      */
     public double calculerProfitPotentiel(int productIndex, int quantiteVendue) {
-        Produits p = model.getProduit(productIndex);
+        return calculerProfitPotentielParId(model.getId(productIndex), quantiteVendue);
+    }
+
+    public double calculerProfitPotentielParId(long id, int quantiteVendue) {
+        Produits p = model.getProduitParId(id);
         if (p != null) {
             return (p.getPrixvente() - p.getPrixachat()) * quantiteVendue;
         }
@@ -73,10 +312,18 @@ public class StockController {
     
     /**
      * Ajoute un nouveau produit
+     * @return identifiant stable du produit
      */
-    public void ajouterProduit(String nom, int quantite, double prixAchat, double prixVente, 
+    public long ajouterProduit(String nom, int quantite, double prixAchat, double prixVente, 
                               int seuil, double prixStock, int demande) {
-        model.ajouterProduit(nom, quantite, prixAchat, prixVente, seuil, prixStock, demande);
+        return model.ajouterProduit(nom, quantite, prixAchat, prixVente, seuil, prixStock, demande);
+    }
+    
+    /**
+     * Vérifie si un produit existe déjà (nom insensible à la casse)
+     */
+    public boolean produitExiste(String nom) {
+        return model.produitExiste(nom);
     }
     
     /**
@@ -85,6 +332,10 @@ public class StockController {
     public void modifierStock(int index, int nouvelleQuantite, int nouveauSeuil, int nouvelleDemande) {
         model.modifierStock(index, nouvelleQuantite, nouveauSeuil, nouvelleDemande);
     }
+
+    public void modifierStockParId(long id, int nouvelleQuantite, int nouveauSeuil, int nouvelleDemande) {
+        model.modifierStockParId(id, nouvelleQuantite, nouveauSeuil, nouvelleDemande);
+    }
     
     /**
      * Supprime un produit
@@ -92,44 +343,64 @@ public class StockController {
     public void supprimerProduit(int index) {
         model.supprimerProduit(index);
     }
+
+    public void supprimerProduitParId(long id) {
+        model.supprimerProduitParId(id);
+    }
     
     /**
      * Obtient le nombre total de produits
      */
     public int getNombreProduits() {
-        return model.getProduits().size();
+        return model.getNombreProduits();
     }
     
+    /**
+     * Agrégats du stock (valeur, unités, alertes, demande), lus en O(1)
+     */
+    public AgregatsStock getAgregats() {
+        return model.getAgregats();
+    }
+
     /**
      * Calcule la valeur totale du stock
      */
     public double getValeurTotaleStock() {
-        double total = 0;
-        for (Produits p : model.getProduits()) {
-            total += p.getQuantite() * p.getPrixachat();
-        }
-        return total;
+        return model.getCatalogue().valeurStock();
     }
     
     /**
      * Compte le nombre de produits en alerte
      */
     public int getNombreAlertes() {
-        int alertes = 0;
-        for (Produits p : model.getProduits()) {
-            if (p.getQuantite() <= p.getSeuil()) {
-                alertes++;
-            }
-        }
-        return alertes;
+        return model.getCatalogue().nombreAlertes();
     }
     
     /**
-     * Obtient les produits en alerte
+     * Obtient les produits en alerte, du plus critique au moins critique
      */
     public List<Produits> getProduitsEnAlerte() {
-        return model.getProduits().stream()
-                   .filter(p -> p.getQuantite() <= p.getSeuil())
-                   .collect(java.util.stream.Collectors.toList());
+        return model.getProduitsEnAlerte();
+    }
+
+    /**
+     * Produits à moins de pourcentage % au-dessus de leur seuil (alertes comprises)
+     */
+    public List<Produits> getProduitsProchesDuSeuil(double pourcentage) {
+        return model.getProduitsProchesDuSeuil(pourcentage);
+    }
+
+    /**
+     * Les k produits les plus critiques
+     */
+    public List<Produits> getProduitsPlusCritiques(int k) {
+        return model.getProduitsPlusCritiques(k);
+    }
+
+    /**
+     * Nombre de produits dont le stock est à la moitié du seuil ou moins
+     */
+    public int getNombreCritiques() {
+        return model.getCatalogue().idsSousRapport(0.5).length;
     }
 }
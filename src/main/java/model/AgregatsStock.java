@@ -0,0 +1,197 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Agrégats du stock tenus à jour à chaque modification du catalogue
+ * Valeur totale, unités, alertes et demande totale se lisent en O(1),
+ * quelle que soit la taille du catalogue.
+ *
+ * Les totaux sont des compteurs répartis (LongAdder) : les écrivains
+ * concurrents ne se bloquent pas. L'état d'alerte de chaque slot est mémorisé
+ * pour ne compter que les transitions ; les sommes de doubles sont
+ * recalculées exactement à chaque publication d'instantané : une nouvelle
+ * base exacte, avec un compteur d'écarts vide, remplace l'ancienne d'un seul
+ * coup (référence volatile), sans remise à zéro visible des lecteurs.
+ */
+public final class AgregatsStock {
+    private static final VarHandle ETATS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Catalogue catalogue;
+    private volatile Somme valeur = new Somme(0);
+    private final LongAdder unites = new LongAdder();
+    private final LongAdder alertes = new LongAdder();
+    private final LongAdder demande = new LongAdder();
+    private volatile Somme prixachats = new Somme(0);
+    private int[] enAlerte = new int[16];      // slot -> 1 si quantité <= seuil
+
+    /**
+     * Somme de doubles : base exacte immuable + écarts accumulés depuis le dernier recalage
+     * Les écrivains (verrou partagé du catalogue) n'ajoutent qu'aux écarts ;
+     * la somme n'est remplacée que sous verrou exclusif, aucun ajout ne se perd.
+     */
+    private static final class Somme {
+        final double base;
+        final DoubleAdder ecarts = new DoubleAdder();
+
+        Somme(double base) {
+            this.base = base;
+        }
+
+        void add(double x) {
+            ecarts.add(x);
+        }
+
+        double sum() {
+            return base + ecarts.sum();
+        }
+    }
+
+    AgregatsStock(Catalogue catalogue) {
+        this.catalogue = catalogue;
+    }
+
+    /**
+     * Nombre de produits du catalogue
+     */
+    public int getNombreProduits() {
+        return catalogue.taille();
+    }
+
+    /**
+     * Valeur totale du stock (quantité × prix d'achat)
+     */
+    public double getValeurTotale() {
+        return valeur.sum();
+    }
+
+    /**
+     * Nombre total d'unités en stock
+     */
+    public long getUnitesTotales() {
+        return unites.sum();
+    }
+
+    /**
+     * Nombre de produits au niveau du seuil ou en dessous
+     */
+    public int getNombreAlertes() {
+        return (int) alertes.sum();
+    }
+
+    /**
+     * Prix d'achat moyen des produits
+     */
+    public double getPrixachatMoyen() {
+        int n = catalogue.taille();
+        return n > 0 ? prixachats.sum() / n : 0;
+    }
+
+    /**
+     * Stock moyen par produit
+     */
+    public double getStockMoyen() {
+        int n = catalogue.taille();
+        return n > 0 ? (double) unites.sum() / n : 0;
+    }
+
+    /**
+     * Somme des demandes estimées
+     */
+    public long getDemandeTotale() {
+        return demande.sum();
+    }
+
+    // Appelé sous verrou exclusif
+    void reserver(int capaciteSlots) {
+        if (capaciteSlots > enAlerte.length) {
+            enAlerte = Arrays.copyOf(enAlerte, capaciteSlots);
+        }
+    }
+
+    // Appelé sous verrou exclusif, après insertion
+    void ajouter(int slot) {
+        int q = catalogue.getQuantite(slot);
+        unites.add(q);
+        valeur.add(q * catalogue.getPrixachat(slot));
+        demande.add(catalogue.getDemandeEstimee(slot));
+        prixachats.add(catalogue.getPrixachat(slot));
+        int etat = q <= catalogue.getSeuil(slot) ? 1 : 0;
+        enAlerte[slot] = etat;
+        alertes.add(etat);
+    }
+
+    // Appelé sous verrou exclusif, avant libération
+    void retirer(int slot) {
+        int q = catalogue.getQuantite(slot);
+        unites.add(-q);
+        valeur.add(-q * catalogue.getPrixachat(slot));
+        demande.add(-catalogue.getDemandeEstimee(slot));
+        prixachats.add(-catalogue.getPrixachat(slot));
+        alertes.add(-enAlerte[slot]);
+        enAlerte[slot] = 0;
+    }
+
+    /**
+     * La quantité d'un slot est passée de ancienne à nouvelle (valeurs de l'échange atomique)
+     */
+    void quantiteModifiee(int slot, int ancienne, int nouvelle) {
+        int delta = nouvelle - ancienne;
+        if (delta != 0) {
+            unites.add(delta);
+            valeur.add(delta * catalogue.getPrixachat(slot));
+            actualiserAlerte(slot);
+        }
+    }
+
+    // Appelé sous verrou exclusif : aucune quantité ne change en même temps
+    void prixachatModifie(int slot, double ancien, double nouveau) {
+        valeur.add(catalogue.getQuantite(slot) * (nouveau - ancien));
+        prixachats.add(nouveau - ancien);
+    }
+
+    void seuilModifie(int slot) {
+        actualiserAlerte(slot);
+    }
+
+    void demandeModifiee(int ancienne, int nouvelle) {
+        demande.add(nouvelle - ancienne);
+    }
+
+    /**
+     * Aligne l'état d'alerte mémorisé sur les valeurs courantes du slot
+     * Si quantité ou seuil changent pendant la mise à jour, on recommence :
+     * le dernier écrivain laisse toujours l'état juste.
+     */
+    private void actualiserAlerte(int slot) {
+        int[] etats = enAlerte;
+        while (true) {
+            int etat = catalogue.getQuantite(slot) <= catalogue.getSeuil(slot) ? 1 : 0;
+            int precedent = (int) ETATS.getAndSet(etats, slot, etat);
+            if (precedent != etat) {
+                alertes.add(etat - precedent);
+            }
+            if ((catalogue.getQuantite(slot) <= catalogue.getSeuil(slot) ? 1 : 0) == etat) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Recale les sommes de doubles sur un calcul exact (élimine la dérive des additions)
+     * Appelé sous verrou exclusif : aucun écrivain n'ajoute à l'ancienne somme
+     * pendant l'échange ; un lecteur voit l'ancienne somme ou la nouvelle, jamais 0.
+     */
+    void recalculer(double valeurExacte, double prixachatsExacts) {
+        valeur = new Somme(valeurExacte);
+        prixachats = new Somme(prixachatsExacts);
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Analyse de sensibilité (tornado) des recommandations d'un produit
+ * Chaque paramètre est parcouru de -variation à +variation autour de sa
+ * valeur de base, les autres restant fixes ; pour chaque point on évalue la
+ * recommandation et les indicateurs de coût. Les paramètres sont évalués en
+ * parallèle. La recommandation ne dépendant que de la demande, du stock, du
+ * seuil et des prix d'achat et de stockage, les recommandations d'un paramètre
+ * sont conservées d'un appel à l'autre et réutilisées tant que ces entrées
+ * n'ont pas changé : seuls les indicateurs (arithmétique simple) sont recalculés.
+ *
+ * Une instance garde ce cache : l'utiliser depuis un seul composant (analyser est synchronisé).
+ */
+public final class AnalyseSensibilite {
+
+    /**
+     * Paramètres perturbés
+     */
+    public enum Parametre {
+        DEMANDE("Demande estimée"),
+        PRIX_ACHAT("Prix d'achat"),
+        PRIX_STOCK("Coût stockage"),
+        SEUIL("Seuil"),
+        PRIX_VENTE("Prix de vente");
+
+        private final String libelle;
+
+        Parametre(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    /**
+     * Indicateurs évalués en chaque point
+     */
+    public enum Indicateur {
+        COUT_COMMANDE("Coût de commande"),
+        COUT_STOCKAGE("Coût stockage après commande"),
+        PROFIT("Profit potentiel"),
+        RESULTAT("Résultat (profit - stockage)"),
+        QUANTITE("Quantité à commander");
+
+        private final String libelle;
+
+        Indicateur(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+
+        @Override
+        public String toString() {
+            return libelle;
+        }
+    }
+
+    private static final Parametre[] PARAMETRES = Parametre.values();
+    private static final Indicateur[] INDICATEURS = Indicateur.values();
+
+    private final double variation;
+    private final int pas;
+    private final Ligne[] lignes = new Ligne[PARAMETRES.length];
+    private int recommandationsCalculees;
+
+    /**
+     * @param variation écart relatif de part et d'autre de la base (0.2 : ±20%)
+     * @param pas nombre de points par paramètre, bornes comprises (>= 2)
+     */
+    public AnalyseSensibilite(double variation, int pas) {
+        if (!(variation > 0 && variation < 1) || pas < 2) {
+            throw new IllegalArgumentException("Analyse invalide: ±" + variation + " en " + pas + " points");
+        }
+        this.variation = variation;
+        this.pas = pas;
+        for (int k = 0; k < lignes.length; k++) {
+            lignes[k] = new Ligne(PARAMETRES[k], pas);
+        }
+    }
+
+    public double getVariation() {
+        return variation;
+    }
+
+    /**
+     * Nombre total de recommandations réellement calculées (les autres ont été réutilisées)
+     */
+    public synchronized int getRecommandationsCalculees() {
+        return recommandationsCalculees;
+    }
+
+    /**
+     * Analyse autour des valeurs actuelles du produit (sa demande estimée comprise)
+     */
+    public synchronized Resultat analyser(Produits produit) {
+        Base base = new Base(produit.getDemandeEstimee(), produit.getQuantite(), produit.getSeuil(),
+                             produit.getPrixachat(), produit.getPrixstock(), produit.getPrixvente());
+        int[] aRecalculer = IntStream.range(0, lignes.length)
+                                     .filter(k -> !lignes[k].aJour(base))
+                                     .toArray();
+        IntStream.of(aRecalculer).parallel().forEach(k -> lignes[k].recommander(base, variation));
+        for (int k : aRecalculer) {
+            recommandationsCalculees += lignes[k].calculees;
+        }
+
+        Produits.Recommendation rec = Produits.recommander(base.demande, base.quantite, base.seuil,
+                                                           base.prixachat, base.prixstock,
+                                                           new Produits.Recommendation());
+        double[] valeursBase = new double[INDICATEURS.length];
+        indicateurs(base.quantite, base.prixachat, base.prixstock, base.prixvente,
+                    rec.sold, rec.reorderQty, valeursBase, 0);
+        Resultat r = new Resultat(variation, pas, valeursBase);
+        for (int k = 0; k < lignes.length; k++) {
+            lignes[k].evaluer(base, variation, r, k);
+        }
+        return r;
+    }
+
+    // Valeurs d'entrée de l'analyse
+    private static final class Base {
+        final int demande;
+        final int quantite;
+        final double seuil;
+        final double prixachat;
+        final double prixstock;
+        final double prixvente;
+
+        Base(int demande, int quantite, double seuil, double prixachat, double prixstock, double prixvente) {
+            this.demande = demande;
+            this.quantite = quantite;
+            this.seuil = seuil;
+            this.prixachat = prixachat;
+            this.prixstock = prixstock;
+            this.prixvente = prixvente;
+        }
+
+        // Même recommandation pour tous les points d'un paramètre autre que le prix de vente
+        boolean memesEntrees(Base autre) {
+            return autre != null && demande == autre.demande && quantite == autre.quantite
+                   && Double.compare(seuil, autre.seuil) == 0
+                   && Double.compare(prixachat, autre.prixachat) == 0
+                   && Double.compare(prixstock, autre.prixstock) == 0;
+        }
+    }
+
+    private static double facteur(int j, int pas, double variation) {
+        return 1 - variation + 2 * variation * j / (pas - 1);
+    }
+
+    private static int demande(int base, double facteur) {
+        return (int) Math.max(0, Math.round(base * facteur));
+    }
+
+    private static void indicateurs(int quantite, double prixachat, double prixstock, double prixvente,
+                                    int sold, int reorderQty, double[] sortie, int decalage) {
+        double coutStockage = prixstock * (quantite + reorderQty);
+        double profit = (prixvente - prixachat) * sold;
+        sortie[decalage + Indicateur.COUT_COMMANDE.ordinal()] = prixachat * reorderQty;
+        sortie[decalage + Indicateur.COUT_STOCKAGE.ordinal()] = coutStockage;
+        sortie[decalage + Indicateur.PROFIT.ordinal()] = profit;
+        sortie[decalage + Indicateur.RESULTAT.ordinal()] = profit - coutStockage;
+        sortie[decalage + Indicateur.QUANTITE.ordinal()] = reorderQty;
+    }
+
+    /**
+     * Recommandations d'un paramètre sur ses points, avec les entrées qui les ont produites
+     */
+    private static final class Ligne {
+        final Parametre parametre;
+        final int[] sold;
+        final int[] reorderQty;
+        Base entrees;           // base des recommandations en cache (null : rien en cache)
+        int calculees;          // recommandations calculées au dernier recalcul
+
+        Ligne(Parametre parametre, int pas) {
+            this.parametre = parametre;
+            sold = new int[pas];
+            reorderQty = new int[pas];
+        }
+
+        boolean aJour(Base base) {
+            return base.memesEntrees(entrees);
+        }
+
+        void recommander(Base base, double variation) {
+            Produits.Recommendation rec = new Produits.Recommendation();
+            int pas = sold.length;
+            // Le prix de vente n'intervient pas dans la recommandation : un seul calcul
+            int n = parametre == Parametre.PRIX_VENTE ? 1 : pas;
+            for (int j = 0; j < n; j++) {
+                double f = facteur(j, pas, variation);
+                Produits.recommander(
+                        parametre == Parametre.DEMANDE ? demande(base.demande, f) : base.demande,
+                        base.quantite,
+                        parametre == Parametre.SEUIL ? base.seuil * f : base.seuil,
+                        parametre == Parametre.PRIX_ACHAT ? base.prixachat * f : base.prixachat,
+                        parametre == Parametre.PRIX_STOCK ? base.prixstock * f : base.prixstock,
+                        rec);
+                sold[j] = rec.sold;
+                reorderQty[j] = rec.reorderQty;
+            }
+            if (n == 1) {
+                Arrays.fill(sold, sold[0]);
+                Arrays.fill(reorderQty, reorderQty[0]);
+            }
+            calculees = n;
+            entrees = base;
+        }
+
+        void evaluer(Base base, double variation, Resultat r, int k) {
+            int pas = sold.length;
+            for (int j = 0; j < pas; j++) {
+                double f = facteur(j, pas, variation);
+                indicateurs(base.quantite,
+                            parametre == Parametre.PRIX_ACHAT ? base.prixachat * f : base.prixachat,
+                            parametre == Parametre.PRIX_STOCK ? base.prixstock * f : base.prixstock,
+                            parametre == Parametre.PRIX_VENTE ? base.prixvente * f : base.prixvente,
+                            sold[j], reorderQty[j], r.courbes[k], j * INDICATEURS.length);
+            }
+        }
+    }
+
+    /**
+     * Résultat d'une analyse : valeur de base et courbe de chaque indicateur par paramètre
+     */
+    public static final class Resultat {
+        private final double variation;
+        private final int pas;
+        private final double[] base;            // par indicateur
+        private final double[][] courbes;       // [paramètre][point × indicateur]
+
+        private Resultat(double variation, int pas, double[] base) {
+            this.variation = variation;
+            this.pas = pas;
+            this.base = base;
+            courbes = new double[PARAMETRES.length][pas * INDICATEURS.length];
+        }
+
+        public double getVariation() {
+            return variation;
+        }
+
+        public int getPas() {
+            return pas;
+        }
+
+        public double getBase(Indicateur i) {
+            return base[i.ordinal()];
+        }
+
+        /**
+         * Valeur de l'indicateur au point j du paramètre (0 : -variation, pas - 1 : +variation)
+         */
+        public double getValeur(Parametre p, int j, Indicateur i) {
+            return courbes[p.ordinal()][j * INDICATEURS.length + i.ordinal()];
+        }
+
+        /**
+         * Indicateur avec le paramètre à -variation
+         */
+        public double getBas(Parametre p, Indicateur i) {
+            return getValeur(p, 0, i);
+        }
+
+        /**
+         * Indicateur avec le paramètre à +variation
+         */
+        public double getHaut(Parametre p, Indicateur i) {
+            return getValeur(p, pas - 1, i);
+        }
+
+        /**
+         * Plus petite valeur de l'indicateur sur la plage du paramètre
+         * (les paliers de l'EOQ et du seuil rendent la réponse non monotone)
+         */
+        public double getMin(Parametre p, Indicateur i) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int j = 0; j < pas; j++) {
+                min = Math.min(min, getValeur(p, j, i));
+            }
+            return min;
+        }
+
+        public double getMax(Parametre p, Indicateur i) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (int j = 0; j < pas; j++) {
+                max = Math.max(max, getValeur(p, j, i));
+            }
+            return max;
+        }
+
+        /**
+         * Amplitude : écart entre le max et le min de l'indicateur sur la plage du paramètre
+         */
+        public double getAmplitude(Parametre p, Indicateur i) {
+            return getMax(p, i) - getMin(p, i);
+        }
+
+        /**
+         * Paramètres par amplitude décroissante (ordre des barres du tornado)
+         */
+        public Parametre[] classement(Indicateur i) {
+            Parametre[] ordre = PARAMETRES.clone();
+            Arrays.sort(ordre, Comparator.comparingDouble((Parametre p) -> getAmplitude(p, i)).reversed());
+            return ordre;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Évaluation à origine glissante des modèles de prévision, produit par produit
+ * Pour chaque série journalière, les origines t vont de entrainement à
+ * n - horizon par pas de pas jours ; à chaque origine, chaque modèle ne voit
+ * que les jours [0, t) et prévoit la demande totale des horizon jours suivants.
+ * Tous les modèles avancent ensemble en une seule passe sur la série (sommes
+ * préfixes pour le naïf et la moyenne mobile, état récursif pour les autres).
+ *
+ * Erreurs par modèle :
+ *   MAPE = moyenne de |A - F| / A sur les origines où A > 0 (en %)
+ *   MASE = erreur absolue moyenne / (horizon × erreur moyenne du naïf à un jour sur la série)
+ * Le modèle retenu est celui de plus petit MASE (défini aussi pour une demande
+ * intermittente) ; sa prévision sur tout l'historique donne la demande de la
+ * prochaine période. Les produits sont évalués en parallèle (fork/join) ;
+ * une Progression, appelée après chaque tâche feuille, suit l'avancement et
+ * peut interrompre l'évaluation.
+ */
+public final class BacktestPrevisions {
+    private static final int TRANCHE = 256;     // produits par tâche feuille
+
+    /**
+     * Modèles comparés
+     */
+    public enum Modele {
+        NAIF("Naïf (période précédente)"),
+        MOYENNE_MOBILE("Moyenne mobile"),
+        LISSAGE_SIMPLE("Lissage exponentiel"),
+        HOLT("Holt (tendance)"),
+        CROSTON("Croston (intermittent)");
+
+        private final String libelle;
+
+        Modele(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    private static final Modele[] MODELES = Modele.values();
+    private static final int M = MODELES.length;
+
+    /**
+     * Paramètres de l'évaluation et des modèles
+     */
+    public static final class Parametres {
+        public static final Parametres PAR_DEFAUT = new Parametres(30, 7, 90, 90, 0.3, 0.1, 0.1);
+
+        private final int horizon;
+        private final int pas;
+        private final int entrainement;
+        private final int fenetre;
+        private final double alpha;
+        private final double beta;
+        private final double alphaCroston;
+
+        /**
+         * @param horizon jours prévus à chaque origine (période de demandeEstimee)
+         * @param pas jours entre deux origines
+         * @param entrainement jours d'historique avant la première origine (>= horizon et fenetre)
+         * @param fenetre jours de la moyenne mobile
+         * @param alpha lissage du niveau (lissage simple, Holt)
+         * @param beta lissage de la tendance (Holt)
+         * @param alphaCroston lissage des tailles et des intervalles (Croston)
+         */
+        public Parametres(int horizon, int pas, int entrainement, int fenetre,
+                          double alpha, double beta, double alphaCroston) {
+            if (horizon <= 0 || pas <= 0 || fenetre <= 0 || entrainement < Math.max(horizon, fenetre)
+                    || !(alpha > 0 && alpha <= 1) || !(beta > 0 && beta <= 1)
+                    || !(alphaCroston > 0 && alphaCroston <= 1)) {
+                throw new IllegalArgumentException("Paramètres d'évaluation invalides");
+            }
+            this.horizon = horizon;
+            this.pas = pas;
+            this.entrainement = entrainement;
+            this.fenetre = fenetre;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.alphaCroston = alphaCroston;
+        }
+
+        public int getHorizon() { return horizon; }
+        public int getPas() { return pas; }
+        public int getEntrainement() { return entrainement; }
+        public int getFenetre() { return fenetre; }
+    }
+
+    /**
+     * Suivi de l'évaluation (appel possible depuis n'importe quel thread)
+     */
+    public interface Progression {
+        /**
+         * @return false pour interrompre l'évaluation
+         */
+        boolean avancer(long produitsEvalues, long produitsTotal);
+    }
+
+    private BacktestPrevisions() {
+    }
+
+    /**
+     * Évalue tous les produits de l'historique
+     */
+    public static Resultat evaluer(HistoriqueVentes historique, Parametres parametres) {
+        return evaluer(historique, parametres, null);
+    }
+
+    /**
+     * Évalue tous les produits de l'historique, avec suivi
+     * @return null si la progression a interrompu l'évaluation
+     */
+    public static Resultat evaluer(HistoriqueVentes historique, Parametres parametres, Progression progression) {
+        Resultat r = new Resultat(historique, parametres);
+        Avancement avancement = new Avancement(progression, historique.taille());
+        if (historique.taille() > 0) {
+            ForkJoinPool.commonPool().invoke(new Tache(historique, parametres, r, avancement, 0, historique.taille()));
+        }
+        if (avancement.arret) {
+            return null;
+        }
+        r.compter();
+        return r;
+    }
+
+    // Avancement partagé par les tâches d'une évaluation
+    private static final class Avancement {
+        final Progression progression;
+        final long total;
+        final AtomicLong faits = new AtomicLong();
+        volatile boolean arret;
+
+        Avancement(Progression progression, long total) {
+            this.progression = progression;
+            this.total = total;
+        }
+
+        void signaler(int produits) {
+            if (progression != null && !progression.avancer(faits.addAndGet(produits), total)) {
+                arret = true;
+            }
+        }
+    }
+
+    private static class Tache extends RecursiveAction {
+        private final HistoriqueVentes historique;
+        private final Parametres parametres;
+        private final Resultat resultat;
+        private final Avancement avancement;
+        private final int debut;
+        private final int fin;
+
+        Tache(HistoriqueVentes historique, Parametres parametres, Resultat resultat, Avancement avancement,
+              int debut, int fin) {
+            this.historique = historique;
+            this.parametres = parametres;
+            this.resultat = resultat;
+            this.avancement = avancement;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected void compute() {
+            if (avancement.arret) {
+                return;
+            }
+            if (fin - debut <= TRANCHE) {
+                long[] prefixes = new long[0];
+                for (int k = debut; k < fin; k++) {
+                    int n = historique.longueur(k);
+                    if (prefixes.length < n + 1) {
+                        prefixes = new long[Math.max(n + 1, prefixes.length * 2)];
+                    }
+                    evaluerSerie(historique.colonne(), historique.debut(k), n, parametres, prefixes, resultat, k);
+                }
+                avancement.signaler(fin - debut);
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new Tache(historique, parametres, resultat, avancement, debut, milieu),
+                      new Tache(historique, parametres, resultat, avancement, milieu, fin));
+        }
+    }
+
+    // Une passe sur la série y[o, o + n) : erreurs à chaque origine, puis prévisions finales
+    private static void evaluerSerie(int[] y, int o, int n, Parametres p, long[] prefixes,
+                                     Resultat r, int k) {
+        int h = p.horizon;
+        long echelleNaif = 0;
+        prefixes[0] = 0;
+        for (int t = 0; t < n; t++) {
+            prefixes[t + 1] = prefixes[t] + y[o + t];
+            if (t > 0) {
+                echelleNaif += Math.abs(y[o + t] - y[o + t - 1]);
+            }
+        }
+        double echelle = n > 1 ? h * (double) echelleNaif / (n - 1) : 0;
+
+        double[] erreurAbsolue = new double[M];
+        double[] erreurRelative = new double[M];
+        double[] prevision = new double[M];
+        int origines = 0;
+        int originesPositives = 0;
+
+        // État des modèles récursifs
+        double ses = 0;
+        double niveau = 0, tendance = 0;
+        double taille = 0, intervalle = 0;
+        int depuisDemande = 1;
+        boolean demandeVue = false;
+
+        for (int t = 0; t <= n; t++) {
+            if (t >= p.entrainement && t + h <= n && (t - p.entrainement) % p.pas == 0) {
+                previsions(prefixes, t, p, ses, niveau, tendance, taille, intervalle, demandeVue, prevision);
+                double reel = prefixes[t + h] - prefixes[t];
+                for (int m = 0; m < M; m++) {
+                    double e = Math.abs(reel - prevision[m]);
+                    erreurAbsolue[m] += e;
+                    if (reel > 0) {
+                        erreurRelative[m] += e / reel;
+                    }
+                }
+                origines++;
+                if (reel > 0) {
+                    originesPositives++;
+                }
+            }
+            if (t == n) {
+                break;
+            }
+            double v = y[o + t];
+            if (t == 0) {
+                ses = v;
+                niveau = v;
+            } else {
+                ses += p.alpha * (v - ses);
+                double l = p.alpha * v + (1 - p.alpha) * (niveau + tendance);
+                tendance = p.beta * (l - niveau) + (1 - p.beta) * tendance;
+                niveau = l;
+            }
+            if (v > 0) {
+                if (!demandeVue) {
+                    taille = v;
+                    intervalle = depuisDemande;
+                    demandeVue = true;
+                } else {
+                    taille += p.alphaCroston * (v - taille);
+                    intervalle += p.alphaCroston * (depuisDemande - intervalle);
+                }
+                depuisDemande = 1;
+            } else {
+                depuisDemande++;
+            }
+        }
+
+        // Prévisions pour la prochaine période, sur tout l'historique
+        if (n >= p.entrainement) {
+            previsions(prefixes, n, p, ses, niveau, tendance, taille, intervalle, demandeVue, prevision);
+        } else {
+            Arrays.fill(prevision, -1);
+        }
+        r.enregistrer(k, origines, originesPositives, erreurAbsolue, erreurRelative, echelle, prevision);
+    }
+
+    // Prévision de la demande totale des h jours suivant t, pour chaque modèle
+    private static void previsions(long[] prefixes, int t, Parametres p, double ses, double niveau,
+                                   double tendance, double taille, double intervalle, boolean demandeVue,
+                                   double[] prevision) {
+        int h = p.horizon;
+        prevision[Modele.NAIF.ordinal()] = prefixes[t] - prefixes[t - h];
+        prevision[Modele.MOYENNE_MOBILE.ordinal()] = (double) (prefixes[t] - prefixes[t - p.fenetre]) * h / p.fenetre;
+        prevision[Modele.LISSAGE_SIMPLE.ordinal()] = h * ses;
+        prevision[Modele.HOLT.ordinal()] = Math.max(0, h * niveau + tendance * h * (h + 1) / 2.0);
+        prevision[Modele.CROSTON.ordinal()] = demandeVue ? h * taille / intervalle : 0;
+    }
+
+    /**
+     * Résultat de l'évaluation : erreurs, modèle retenu et prévision par produit
+     */
+    public static final class Resultat {
+        private final long[] ids;               // copie : l'historique n'est pas retenu
+        private final Parametres parametres;
+        private final int[] origines;
+        private final double[] mape;            // [k × M + modèle]
+        private final double[] mase;
+        private final int[] prevision;          // -1 : historique trop court
+        private final byte[] meilleur;          // -1 : aucune origine évaluable
+        private final int[] victoires = new int[M];
+        private final IndexIds index;           // identifiant -> k
+
+        private Resultat(HistoriqueVentes historique, Parametres parametres) {
+            this.parametres = parametres;
+            int n = historique.taille();
+            ids = new long[n];
+            origines = new int[n];
+            mape = new double[n * M];
+            mase = new double[n * M];
+            prevision = new int[n * M];
+            meilleur = new byte[n];
+            index = new IndexIds(n);
+            for (int k = 0; k < n; k++) {
+                ids[k] = historique.getId(k);
+                index.put(ids[k], k);
+            }
+        }
+
+        private void enregistrer(int k, int nOrigines, int nPositives, double[] erreurAbsolue,
+                                 double[] erreurRelative, double echelle, double[] previsions) {
+            origines[k] = nOrigines;
+            int gagnant = -1;
+            for (int m = 0; m < M; m++) {
+                int i = k * M + m;
+                double mae = nOrigines > 0 ? erreurAbsolue[m] / nOrigines : Double.NaN;
+                mape[i] = nPositives > 0 ? 100 * erreurRelative[m] / nPositives : Double.NaN;
+                mase[i] = echelle > 0 ? mae / echelle : (mae == 0 ? 0 : Double.POSITIVE_INFINITY);
+                prevision[i] = previsions[m] < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, Math.round(previsions[m]));
+                if (nOrigines > 0 && (gagnant < 0 || mase[i] < mase[k * M + gagnant])) {
+                    gagnant = m;
+                }
+            }
+            meilleur[k] = (byte) gagnant;
+        }
+
+        private void compter() {
+            for (byte m : meilleur) {
+                if (m >= 0) {
+                    victoires[m]++;
+                }
+            }
+        }
+
+        public Parametres getParametres() {
+            return parametres;
+        }
+
+        public int taille() {
+            return origines.length;
+        }
+
+        public long getId(int k) {
+            return ids[k];
+        }
+
+        /**
+         * Rang d'un produit dans le résultat, -1 s'il n'a pas d'historique
+         */
+        public int indexDe(long id) {
+            return index.get(id);
+        }
+
+        /**
+         * Nombre d'origines évaluées pour le produit k
+         */
+        public int getOrigines(int k) {
+            return origines[k];
+        }
+
+        /**
+         * MAPE en % (NaN si la demande réelle est nulle à toutes les origines)
+         */
+        public double getMape(int k, Modele modele) {
+            return mape[k * M + modele.ordinal()];
+        }
+
+        public double getMase(int k, Modele modele) {
+            return mase[k * M + modele.ordinal()];
+        }
+
+        /**
+         * Modèle retenu pour le produit k (null si l'historique est trop court)
+         */
+        public Modele getMeilleur(int k) {
+            return meilleur[k] < 0 ? null : MODELES[meilleur[k]];
+        }
+
+        /**
+         * Prévision du modèle pour la prochaine période (-1 si l'historique est trop court)
+         */
+        public int getPrevision(int k, Modele modele) {
+            return prevision[k * M + modele.ordinal()];
+        }
+
+        /**
+         * Prévision du modèle retenu pour la prochaine période (-1 sans modèle retenu)
+         */
+        public int getPrevisionRetenue(int k) {
+            return meilleur[k] < 0 ? -1 : prevision[k * M + meilleur[k]];
+        }
+
+        /**
+         * Nombre de produits pour lesquels le modèle a été retenu
+         */
+        public int getVictoires(Modele modele) {
+            return victoires[modele.ordinal()];
+        }
+    }
+}
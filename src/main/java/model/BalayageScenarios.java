@@ -0,0 +1,229 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Balayage d'une grille de scénarios pour un produit
+ * Quatre axes (demande, prix d'achat, coût de stockage, seuil) définissent
+ * une grille dont chaque point est évalué comme une simulation What-If :
+ * recommandation, coût de commande, coût de stockage après commande,
+ * profit potentiel et résultat (profit - stockage).
+ *
+ * Les points sont évalués en parallèle (fork/join) par blocs ; chaque bloc
+ * terminé est signalé au récepteur, qui peut afficher les résultats au fil
+ * de l'eau. Les résultats sont rangés en colonnes, par rang de point :
+ * rang = ((iDemande × nAchat + iAchat) × nStock + iStock) × nSeuil + iSeuil.
+ */
+public final class BalayageScenarios {
+    private static final int BLOC = 256;        // points par tâche feuille
+
+    /**
+     * Valeurs régulièrement espacées d'un axe, de min à max inclus
+     */
+    public static final class Axe {
+        private final double min;
+        private final double max;
+        private final int points;
+
+        public Axe(double min, double max, int points) {
+            if (points < 1 || max < min) {
+                throw new IllegalArgumentException("Axe invalide: [" + min + ", " + max + "] en " + points + " points");
+            }
+            this.min = min;
+            this.max = max;
+            this.points = points;
+        }
+
+        public int getPoints() {
+            return points;
+        }
+
+        public double valeur(int i) {
+            return points == 1 ? min : min + (max - min) * i / (points - 1);
+        }
+    }
+
+    /**
+     * Reçoit les points [debut, fin) dès qu'ils sont calculés (appelé depuis les threads de calcul)
+     */
+    public interface Recepteur {
+        void recevoir(int debut, int fin);
+    }
+
+    private final int quantite;
+    private final double prixvente;
+    private final Axe demandes;
+    private final Axe prixachats;
+    private final Axe prixstocks;
+    private final Axe seuils;
+    private final int taille;
+
+    private final int[] eoq;
+    private final int[] reorderQty;
+    private final boolean[] needReorder;
+    private final double[] coutCommande;
+    private final double[] coutStockage;
+    private final double[] profit;
+    private volatile boolean annule;
+
+    public BalayageScenarios(Produits produit, Axe demandes, Axe prixachats, Axe prixstocks, Axe seuils) {
+        long n = (long) demandes.points * prixachats.points * prixstocks.points * seuils.points;
+        if (n > 1 << 24) {
+            throw new IllegalArgumentException("Grille trop grande: " + n + " points");
+        }
+        this.quantite = produit.getQuantite();
+        this.prixvente = produit.getPrixvente();
+        this.demandes = demandes;
+        this.prixachats = prixachats;
+        this.prixstocks = prixstocks;
+        this.seuils = seuils;
+        this.taille = (int) n;
+        eoq = new int[taille];
+        reorderQty = new int[taille];
+        needReorder = new boolean[taille];
+        coutCommande = new double[taille];
+        coutStockage = new double[taille];
+        profit = new double[taille];
+    }
+
+    /**
+     * Évalue toute la grille (bloquant) ; s'arrête au plus tôt après annuler()
+     * @return false si le balayage a été annulé
+     */
+    public boolean executer(Recepteur recepteur) {
+        if (taille > 0) {
+            ForkJoinPool.commonPool().invoke(new Tache(0, taille, recepteur));
+        }
+        return !annule;
+    }
+
+    /**
+     * Demande l'arrêt du balayage en cours (les blocs déjà commencés se terminent)
+     */
+    public void annuler() {
+        annule = true;
+    }
+
+    private class Tache extends RecursiveAction {
+        private final int debut;
+        private final int fin;
+        private final Recepteur recepteur;
+
+        Tache(int debut, int fin, Recepteur recepteur) {
+            this.debut = debut;
+            this.fin = fin;
+            this.recepteur = recepteur;
+        }
+
+        @Override
+        protected void compute() {
+            if (annule) {
+                return;
+            }
+            if (fin - debut <= BLOC) {
+                evaluer(debut, fin);
+                if (recepteur != null && !annule) {
+                    recepteur.recevoir(debut, fin);
+                }
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new Tache(debut, milieu, recepteur), new Tache(milieu, fin, recepteur));
+        }
+    }
+
+    private void evaluer(int debut, int fin) {
+        // Recommandation de travail, réutilisée pour tout le bloc
+        Produits.Recommendation rec = new Produits.Recommendation();
+        for (int i = debut; i < fin; i++) {
+            double prixachat = getPrixachat(i);
+            double prixstock = getPrixstock(i);
+            Produits.recommander(getDemande(i), quantite, getSeuil(i), prixachat, prixstock, rec);
+            eoq[i] = rec.eoq;
+            reorderQty[i] = rec.reorderQty;
+            needReorder[i] = rec.needReorder;
+            coutCommande[i] = prixachat * rec.reorderQty;
+            coutStockage[i] = prixstock * (quantite + rec.reorderQty);
+            profit[i] = (prixvente - prixachat) * rec.sold;
+        }
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    public Axe getAxeDemande() { return demandes; }
+    public Axe getAxePrixachat() { return prixachats; }
+    public Axe getAxePrixstock() { return prixstocks; }
+    public Axe getAxeSeuil() { return seuils; }
+
+    // Coordonnées d'un point
+    public int getDemande(int i) {
+        return (int) Math.round(demandes.valeur(i / (seuils.points * prixstocks.points * prixachats.points)));
+    }
+
+    public double getPrixachat(int i) {
+        return prixachats.valeur(i / (seuils.points * prixstocks.points) % prixachats.points);
+    }
+
+    public double getPrixstock(int i) {
+        return prixstocks.valeur(i / seuils.points % prixstocks.points);
+    }
+
+    public double getSeuil(int i) {
+        return seuils.valeur(i % seuils.points);
+    }
+
+    // Résultats d'un point
+    public int getEoq(int i) { return eoq[i]; }
+    public int getReorderQty(int i) { return reorderQty[i]; }
+    public boolean isNeedReorder(int i) { return needReorder[i]; }
+    public double getCoutCommande(int i) { return coutCommande[i]; }
+    public double getCoutStockage(int i) { return coutStockage[i]; }
+    public double getProfit(int i) { return profit[i]; }
+
+    /**
+     * Résultat du point : profit potentiel - coût de stockage après commande
+     */
+    public double getResultat(int i) {
+        return profit[i] - coutStockage[i];
+    }
+
+    /**
+     * Rendement : profit potentiel / coût de commande (0 sans commande)
+     */
+    public double getRoi(int i) {
+        return coutCommande[i] > 0 ? profit[i] / coutCommande[i] : 0;
+    }
+
+    /**
+     * Rang du meilleur point (plus grand résultat), -1 si la grille est vide
+     */
+    public int indexMeilleur() {
+        int meilleur = -1;
+        for (int i = 0; i < taille; i++) {
+            if (meilleur < 0 || getResultat(i) > getResultat(meilleur)) {
+                meilleur = i;
+            }
+        }
+        return meilleur;
+    }
+
+    /**
+     * Rang du pire point (plus petit résultat), -1 si la grille est vide
+     */
+    public int indexPire() {
+        int pire = -1;
+        for (int i = 0; i < taille; i++) {
+            if (pire < 0 || getResultat(i) < getResultat(pire)) {
+                pire = i;
+            }
+        }
+        return pire;
+    }
+}
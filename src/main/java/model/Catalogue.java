@@ -0,0 +1,837 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stockage des produits derrière StockModel
+ * Chaque produit reçoit un identifiant stable et occupe un slot, stable tant
+ * qu'il reste dans le catalogue. L'index identifiant -> slot est la voie
+ * d'accès principale ; l'ordre d'affichage (index -> slot) n'en est qu'une vue.
+ * Les sous-classes ne fournissent que le stockage des colonnes.
+ *
+ * Concurrence : les écritures de champs partagent le verrou (lecture du
+ * ReadWriteLock), les changements de structure et la publication d'un
+ * instantané le prennent en exclusif. Les lecteurs qui ont besoin d'une vue
+ * cohérente épinglent un InstantaneCatalogue, sans verrou.
+ * Les quantités s'ajustent par opérations atomiques (VarHandle) ; les mises à
+ * jour de plusieurs champs d'un produit sont sérialisées par verrous striés.
+ * Chaque modification met à jour les AgregatsStock en O(1).
+ */
+public abstract class Catalogue {
+    private static final int SUPPRIME = -1;
+
+    private int[] ordre = new int[16];     // index d'affichage -> slot (SUPPRIME = trou)
+    private int finOrdre;                  // entrées utilisées dans ordre, trous compris
+    private int[] presents = new int[17];  // arbre de Fenwick des entrées non supprimées de ordre
+    private int taille;
+    private int[] position = new int[16];  // slot -> position dans ordre
+    private long[] ids = new long[16];     // slot -> identifiant (0 = slot libre)
+    private int[] libres = new int[16];    // slots libérés, réutilisés en priorité
+    private int nbLibres;
+    private int hautSlot;                  // premier slot jamais alloué
+    private long prochainId = 1;
+    private final IndexIds indexIds = new IndexIds();
+
+    // Index des noms (clé en minuscules -> slot du premier produit portant ce nom) ;
+    // les produits de même nom forment une liste circulaire dont le slot indexé est la tête
+    private final IndexNoms indexNoms = new IndexNoms(this);
+    private int[] memeNomSuivant = new int[16];     // slot -> slot suivant de même nom (lui-même si seul)
+    private int[] memeNomPrecedent = new int[16];
+    private final AgregatsStock agregats = new AgregatsStock(this);
+    private final IndexAlertes indexAlertes = new IndexAlertes(this);
+    private volatile boolean nomsAIndexer; // index à reconstruire (après un chargement en masse)
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private volatile boolean modifie = true;           // l'instantané publié est périmé
+    private volatile InstantaneCatalogue instantane;
+    private long version;
+    private static final int NB_VERROUS_LIGNES = 64;   // puissance de 2
+    private final Object[] verrousLignes = new Object[NB_VERROUS_LIGNES];
+
+    protected Catalogue() {
+        for (int i = 0; i < NB_VERROUS_LIGNES; i++) {
+            verrousLignes[i] = new Object();
+        }
+    }
+
+    /**
+     * Obtient le nombre de produits du catalogue
+     */
+    public int taille() {
+        return taille;
+    }
+
+    /**
+     * Borne supérieure (exclue) des slots alloués, pour les parcours par slot
+     */
+    public int getHautSlot() {
+        return hautSlot;
+    }
+
+    /**
+     * Convertit un index d'affichage en slot
+     * Sans trou, l'accès est direct ; après des suppressions, la position du
+     * rang index est trouvée dans l'arbre des entrées présentes en O(log n).
+     * Les trous ne sont compactés qu'à l'agrandissement de l'ordre ou à la
+     * publication d'un instantané.
+     */
+    public int slot(int index) {
+        verrou.readLock().lock();
+        try {
+            if (index < 0 || index >= taille) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", taille: " + taille);
+            }
+            return ordre[finOrdre == taille ? index : positionDuRang(index)];
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    // Position dans ordre de la (rang + 1)-ième entrée présente (descente dans l'arbre de Fenwick)
+    private int positionDuRang(int rang) {
+        int n = presents.length - 1;
+        int position = 0;
+        int reste = rang + 1;
+        for (int pas = Integer.highestOneBit(n); pas > 0; pas >>= 1) {
+            int suivant = position + pas;
+            if (suivant <= n && presents[suivant] < reste) {
+                position = suivant;
+                reste -= presents[suivant];
+            }
+        }
+        return position;
+    }
+
+    private void marquerPresent(int position, int delta) {
+        for (int i = position + 1; i < presents.length; i += i & -i) {
+            presents[i] += delta;
+        }
+    }
+
+    // Reconstruit l'arbre des entrées présentes en O(n) (agrandissement, compactage)
+    private void reconstruirePresents() {
+        int n = ordre.length;
+        presents = new int[n + 1];
+        for (int i = 0; i < finOrdre; i++) {
+            if (ordre[i] != SUPPRIME) {
+                presents[i + 1] = 1;
+            }
+        }
+        for (int i = 1; i <= n; i++) {
+            int parent = i + (i & -i);
+            if (parent <= n) {
+                presents[parent] += presents[i];
+            }
+        }
+    }
+
+    /**
+     * Obtient l'identifiant stable du produit d'un slot (0 si le slot est libre)
+     */
+    public long getId(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * Recherche le slot d'un produit par identifiant, en O(1)
+     * Verrou partagé : la table n'est pas lue pendant un agrandissement ou une suppression.
+     * @return slot du produit, ou -1 s'il n'existe pas
+     */
+    public int slotParId(long id) {
+        verrou.readLock().lock();
+        try {
+            return indexIds.get(id);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtient le produit à un index d'affichage
+     */
+    public Produits getProduit(int index) {
+        return vue(slot(index));
+    }
+
+    /**
+     * Obtient un produit par identifiant
+     * @return vue sur le produit, ou null s'il n'existe pas
+     */
+    public Produits getProduitParId(long id) {
+        int s = slotParId(id);
+        return s >= 0 ? vue(s) : null;
+    }
+
+    /**
+     * Prépare la place pour n produits supplémentaires (chargement en masse)
+     */
+    public void reserverCapacite(int n) {
+        debutStructure();
+        try {
+            agrandirPour(n);
+        } finally {
+            finStructure();
+        }
+    }
+
+    /**
+     * Ajoute un produit autonome ; il devient ensuite une vue sur son slot,
+     * invalide une fois le produit supprimé
+     * @return slot attribué
+     */
+    public int ajouter(Produits p) {
+        if (p.getCatalogue() != null) {
+            throw new IllegalArgumentException("Produit déjà présent dans un catalogue: " + p.getNom());
+        }
+        if (p instanceof Scenario) {
+            throw new IllegalArgumentException("Un scénario ne peut pas être ajouté au catalogue: " + p.getNom());
+        }
+        debutStructure();
+        try {
+            int s = allouerSlot();
+            insererProduit(s, p);
+            enregistrer(s, prochainId++);
+            p.attacher(this, s, ids[s]);
+            return s;
+        } finally {
+            finStructure();
+        }
+    }
+
+    /**
+     * Ajoute un produit à partir de ses valeurs, sans objet intermédiaire
+     * @return slot attribué
+     */
+    public int ajouter(String nom, double prixachat, double prixvente, int quantite,
+                       double seuil, double prixstock, int demandeEstimee) {
+        debutStructure();
+        try {
+            int s = allouerSlot();
+            inserer(s, nom, prixachat, prixvente, quantite, seuil, prixstock, demandeEstimee);
+            enregistrer(s, prochainId++);
+            return s;
+        } finally {
+            finStructure();
+        }
+    }
+
+    /**
+     * Ajoute un produit en conservant un identifiant existant (rejeu du journal, chargement)
+     * @return slot attribué
+     */
+    public int ajouterAvecId(long id, String nom, double prixachat, double prixvente, int quantite,
+                             double seuil, double prixstock, int demandeEstimee) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Identifiant invalide: " + id);
+        }
+        debutStructure();
+        try {
+            if (indexIds.get(id) >= 0) {
+                throw new IllegalArgumentException("Identifiant déjà utilisé: " + id);
+            }
+            int s = allouerSlot();
+            inserer(s, nom, prixachat, prixvente, quantite, seuil, prixstock, demandeEstimee);
+            enregistrer(s, id);
+            prochainId = Math.max(prochainId, id + 1);
+            return s;
+        } finally {
+            finStructure();
+        }
+    }
+
+    /**
+     * Ajoute un lot de produits sous un seul verrou (chargement, import)
+     * Si le lot est plus grand que le catalogue, l'index des noms n'est pas
+     * maintenu ligne à ligne : il est reconstruit à la première recherche.
+     * @param ids identifiants à conserver ; une case à 0 (ou ids null) reçoit
+     *        un nouvel identifiant, écrit en retour dans le tableau
+     * @throws IllegalArgumentException si un identifiant est invalide ou déjà
+     *         utilisé ; les lignes précédentes du lot restent ajoutées
+     */
+    void ajouterLot(long[] ids, String[] noms, double[] prixachat, double[] prixvente, int[] quantite,
+                    double[] seuil, double[] prixstock, int[] demandeEstimee, int debut, int longueur) {
+        debutStructure();
+        try {
+            agrandirPour(longueur);
+            if (longueur > taille) {
+                nomsAIndexer = true;
+            }
+            for (int i = debut; i < debut + longueur; i++) {
+                long id = ids != null && ids[i] != 0 ? ids[i] : prochainId++;
+                if (id <= 0 || indexIds.get(id) >= 0) {
+                    throw new IllegalArgumentException("Identifiant invalide ou déjà utilisé: " + id);
+                }
+                if (ids != null) {
+                    ids[i] = id;
+                }
+                int s = allouerSlot();
+                inserer(s, noms[i], prixachat[i], prixvente[i], quantite[i], seuil[i], prixstock[i],
+                        demandeEstimee[i]);
+                enregistrer(s, id);
+                prochainId = Math.max(prochainId, id + 1);
+            }
+        } finally {
+            finStructure();
+        }
+    }
+
+    /**
+     * Supprime le produit à un index d'affichage et libère son slot
+     */
+    public void supprimer(int index) {
+        debutStructure();
+        try {
+            supprimerSlot(slot(index));
+        } finally {
+            finStructure();
+        }
+    }
+
+    /**
+     * Supprime un produit par identifiant, en O(1)
+     * @return true si le produit existait
+     */
+    public boolean supprimerParId(long id) {
+        debutStructure();
+        try {
+            int s = indexIds.get(id);
+            if (s < 0) {
+                return false;
+            }
+            supprimerSlot(s);
+            return true;
+        } finally {
+            finStructure();
+        }
+    }
+
+    private void supprimerSlot(int s) {
+        // Le trou dans l'ordre d'affichage est sauté par rang, sans décaler les suivants
+        ordre[position[s]] = SUPPRIME;
+        marquerPresent(position[s], -1);
+        taille--;
+        desindexer(s, getNom(s));
+        indexIds.remove(ids[s]);
+        agregats.retirer(s);
+        indexAlertes.retirer(s);
+        liberer(s);                // avant l'effacement de l'identifiant : le produit détaché le conserve
+        ids[s] = 0;
+        if (nbLibres == libres.length) {
+            libres = Arrays.copyOf(libres, libres.length * 2);
+        }
+        libres[nbLibres++] = s;
+        marquerModifie();
+    }
+
+    /**
+     * Recherche un produit par nom, sans tenir compte de la casse
+     * @return slot du produit, ou -1 s'il n'existe pas
+     */
+    public int chercher(String nom) {
+        if (nom == null) {
+            return -1;
+        }
+        return chercherCle(cle(nom));
+    }
+
+    /**
+     * Recherche par clé déjà normalisée (IndexNoms.cle), ex: clés calculées en parallèle
+     * Lecture sous verrou partagé : l'index n'est jamais lu pendant une insertion.
+     */
+    int chercherCle(String cle) {
+        while (true) {
+            verrou.readLock().lock();
+            try {
+                if (!nomsAIndexer) {
+                    return indexNoms.get(cle);
+                }
+            } finally {
+                verrou.readLock().unlock();
+            }
+            // Index périmé par un chargement en masse : reconstruit sous verrou exclusif
+            debutStructure();
+            try {
+                reindexerNoms();
+            } finally {
+                finStructure();
+            }
+        }
+    }
+
+    private static String cle(String nom) {
+        return IndexNoms.cle(nom);
+    }
+
+    /**
+     * Reconstruit l'index des noms après un chargement en masse
+     */
+    private void reindexerNoms() {
+        if (!nomsAIndexer) {
+            return;
+        }
+        indexNoms.vider(taille);
+        nomsAIndexer = false;
+        for (int i = 0; i < finOrdre; i++) {
+            if (ordre[i] != SUPPRIME) {
+                indexer(ordre[i], getNom(ordre[i]));
+            }
+        }
+    }
+
+    private void indexer(int s, String nom) {
+        if (nom == null || nomsAIndexer) {
+            return;
+        }
+        int tete = indexNoms.putIfAbsent(cle(nom), s);
+        if (tete < 0) {
+            memeNomSuivant[s] = s;
+            memeNomPrecedent[s] = s;
+        } else {
+            // Doublon : ajouté en fin de liste, derrière le produit indexé
+            int dernier = memeNomPrecedent[tete];
+            memeNomSuivant[dernier] = s;
+            memeNomPrecedent[s] = dernier;
+            memeNomSuivant[s] = tete;
+            memeNomPrecedent[tete] = s;
+        }
+    }
+
+    /**
+     * Retire un slot de l'index en O(1) ; si d'autres produits portent le même nom,
+     * le suivant de la liste (le plus ancien) prend sa place
+     */
+    private void desindexer(int s, String nom) {
+        if (nom == null || nomsAIndexer) {
+            return;
+        }
+        String cle = cle(nom);
+        int suivant = memeNomSuivant[s];
+        if (suivant == s) {
+            indexNoms.remove(cle, s);
+            return;
+        }
+        int precedent = memeNomPrecedent[s];
+        memeNomSuivant[precedent] = suivant;
+        memeNomPrecedent[suivant] = precedent;
+        memeNomSuivant[s] = s;
+        memeNomPrecedent[s] = s;
+        indexNoms.remplacer(cle, s, suivant);
+    }
+
+    private void agrandirPour(int n) {
+        int besoin = hautSlot + n;
+        if (besoin > ids.length) {
+            ids = Arrays.copyOf(ids, besoin);
+            position = Arrays.copyOf(position, besoin);
+            memeNomSuivant = Arrays.copyOf(memeNomSuivant, besoin);
+            memeNomPrecedent = Arrays.copyOf(memeNomPrecedent, besoin);
+            agregats.reserver(besoin);
+            indexAlertes.reserver(besoin);
+        }
+        if (finOrdre + n > ordre.length) {
+            ordre = Arrays.copyOf(ordre, finOrdre + n);
+            reconstruirePresents();
+        }
+        reserver(besoin);
+    }
+
+    private int allouerSlot() {
+        if (nbLibres > 0) {
+            return libres[--nbLibres];
+        }
+        if (hautSlot == ids.length) {
+            int n = ids.length + (ids.length >> 1);
+            ids = Arrays.copyOf(ids, n);
+            position = Arrays.copyOf(position, n);
+            memeNomSuivant = Arrays.copyOf(memeNomSuivant, n);
+            memeNomPrecedent = Arrays.copyOf(memeNomPrecedent, n);
+            agregats.reserver(n);
+            indexAlertes.reserver(n);
+        }
+        reserver(hautSlot + 1);
+        return hautSlot++;
+    }
+
+    private void enregistrer(int s, long id) {
+        ids[s] = id;
+        indexIds.put(id, s);
+        if (finOrdre == ordre.length) {
+            if (finOrdre != taille) {
+                compacterOrdre();
+            } else {
+                ordre = Arrays.copyOf(ordre, ordre.length + (ordre.length >> 1));
+                reconstruirePresents();
+            }
+        }
+        position[s] = finOrdre;
+        marquerPresent(finOrdre, 1);
+        ordre[finOrdre++] = s;
+        taille++;
+        indexer(s, getNom(s));
+        agregats.ajouter(s);
+        indexAlertes.ajouter(s);
+        marquerModifie();
+    }
+
+    private void compacterOrdre() {
+        int j = 0;
+        for (int i = 0; i < finOrdre; i++) {
+            int s = ordre[i];
+            if (s != SUPPRIME) {
+                ordre[j] = s;
+                position[s] = j;
+                j++;
+            }
+        }
+        finOrdre = j;
+        reconstruirePresents();
+    }
+
+    /**
+     * Ajoute (ou retire si négatif) des unités au stock d'un produit, atomiquement
+     * @return false si le produit n'existe pas
+     */
+    public boolean ajusterStock(long id, int delta) {
+        debutEcriture();
+        try {
+            int s = indexIds.get(id);
+            if (s < 0) {
+                return false;
+            }
+            int nouvelle = ajouterQuantite(s, delta);
+            agregats.quantiteModifiee(s, nouvelle - delta, nouvelle);
+            indexAlertes.marquer(s);
+            return true;
+        } finally {
+            finEcriture();
+        }
+    }
+
+    /**
+     * Retire jusqu'à quantite unités sans jamais passer sous zéro (vente)
+     * @return unités effectivement retirées
+     */
+    public int retirerStock(long id, int quantite) {
+        debutEcriture();
+        try {
+            int s = indexIds.get(id);
+            if (s < 0 || quantite <= 0) {
+                return 0;
+            }
+            while (true) {
+                int actuelle = getQuantite(s);
+                int retrait = Math.min(actuelle, quantite);
+                if (retrait <= 0) {
+                    return 0;
+                }
+                if (comparerEchangerQuantite(s, actuelle, actuelle - retrait)) {
+                    agregats.quantiteModifiee(s, actuelle, actuelle - retrait);
+                    indexAlertes.marquer(s);
+                    return retrait;
+                }
+            }
+        } finally {
+            finEcriture();
+        }
+    }
+
+    /**
+     * Remplace le stock seulement s'il vaut encore la valeur attendue
+     * @return true si l'échange a eu lieu
+     */
+    public boolean comparerEchangerStock(long id, int attendue, int nouvelle) {
+        debutEcriture();
+        try {
+            int s = indexIds.get(id);
+            if (s >= 0 && comparerEchangerQuantite(s, attendue, nouvelle)) {
+                agregats.quantiteModifiee(s, attendue, nouvelle);
+                indexAlertes.marquer(s);
+                return true;
+            }
+            return false;
+        } finally {
+            finEcriture();
+        }
+    }
+
+    /**
+     * Modifie quantité, seuil et demande d'un produit en une seule opération
+     * @return false si le produit n'existe pas
+     */
+    public boolean modifierLigne(long id, int quantite, double seuil, int demandeEstimee) {
+        debutEcriture();
+        try {
+            int s = indexIds.get(id);
+            if (s < 0) {
+                return false;
+            }
+            synchronized (verrousLignes[s & (NB_VERROUS_LIGNES - 1)]) {
+                remplacerQuantite(s, quantite);
+                ecrireSeuil(s, seuil);
+                agregats.seuilModifie(s);
+                indexAlertes.marquer(s);
+                int ancienne = getDemandeEstimee(s);
+                ecrireDemandeEstimee(s, demandeEstimee);
+                agregats.demandeModifiee(ancienne, demandeEstimee);
+            }
+            return true;
+        } finally {
+            finEcriture();
+        }
+    }
+
+    /**
+     * Obtient un instantané cohérent du catalogue
+     * Tant qu'aucune modification n'a eu lieu, le même instantané est rendu
+     * sans verrou ; sinon un nouvel instantané est copié et publié.
+     */
+    public InstantaneCatalogue instantane() {
+        InstantaneCatalogue i = instantane;
+        if (i != null && !modifie) {
+            return i;
+        }
+        debutStructure();
+        try {
+            i = instantane;
+            if (i == null || modifie) {
+                modifie = false;
+                if (finOrdre != taille) {
+                    compacterOrdre();       // copie en O(n) de toute façon : accès direct par index
+                }
+                i = new InstantaneCatalogue(this, ++version);
+                agregats.recalculer(i.getValeurTotale(), i.getSommePrixachat());
+                instantane = i;
+            }
+            return i;
+        } finally {
+            finStructure();
+        }
+    }
+
+    // Écriture d'un champ : verrou partagé, plusieurs écrivains en parallèle
+    protected final void debutEcriture() {
+        verrou.readLock().lock();
+    }
+
+    protected final void finEcriture() {
+        marquerModifie();
+        verrou.readLock().unlock();
+    }
+
+    // Changement de structure ou publication : verrou exclusif
+    protected final void debutStructure() {
+        verrou.writeLock().lock();
+    }
+
+    protected final void finStructure() {
+        verrou.writeLock().unlock();
+    }
+
+    private void marquerModifie() {
+        if (!modifie) {
+            modifie = true;
+        }
+    }
+
+    /**
+     * Place un produit autonome dans un slot puis le rattache au catalogue
+     */
+    protected void insererProduit(int slot, Produits p) {
+        inserer(slot, p.getNom(), p.getPrixachat(), p.getPrixvente(), p.getQuantite(),
+                p.getSeuil(), p.getPrixstock(), p.getDemandeEstimee());
+        p.attacher(this, slot);
+    }
+
+    /**
+     * Agrégats du stock, tenus à jour à chaque modification
+     */
+    public AgregatsStock getAgregats() {
+        return agregats;
+    }
+
+    /**
+     * Valeur totale du stock (quantité × prix d'achat), en O(1)
+     */
+    public double valeurStock() {
+        return agregats.getValeurTotale();
+    }
+
+    /**
+     * Nombre de produits dont le stock est au niveau du seuil ou en dessous, en O(1)
+     */
+    public int nombreAlertes() {
+        return agregats.getNombreAlertes();
+    }
+
+    /**
+     * Identifiants des produits en alerte (quantité <= seuil), du plus critique au moins critique
+     */
+    public long[] idsEnAlerte() {
+        return idsSousRapport(1.0);
+    }
+
+    /**
+     * Identifiants des produits dont le stock est à moins de pourcentage % au-dessus
+     * du seuil (alertes comprises), du plus critique au moins critique
+     */
+    public long[] idsProchesDuSeuil(double pourcentage) {
+        return idsSousRapport(1.0 + pourcentage / 100.0);
+    }
+
+    /**
+     * Identifiants des produits dont le rapport quantité / seuil est <= rapportMax
+     * (ex: 0.5 pour un stock à la moitié du seuil ou moins)
+     */
+    public long[] idsSousRapport(double rapportMax) {
+        verrou.readLock().lock();
+        try {
+            return versIds(indexAlertes.slotsSous(rapportMax));
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Identifiants des k produits les plus critiques (plus faible rapport quantité / seuil)
+     */
+    public long[] idsPlusCritiques(int k) {
+        verrou.readLock().lock();
+        try {
+            return versIds(indexAlertes.plusCritiques(k));
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private long[] versIds(int[] slots) {
+        long[] resultat = new long[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            resultat[i] = ids[slots[i]];
+        }
+        return resultat;
+    }
+
+    /**
+     * Remplace la quantité par échange atomique, pour connaître l'ancienne valeur
+     */
+    private void remplacerQuantite(int slot, int quantite) {
+        int ancienne;
+        do {
+            ancienne = getQuantite(slot);
+        } while (!comparerEchangerQuantite(slot, ancienne, quantite));
+        agregats.quantiteModifiee(slot, ancienne, quantite);
+        indexAlertes.marquer(slot);
+    }
+
+    // Stockage fourni par les sous-classes
+    protected abstract void reserver(int capaciteSlots);
+    protected abstract void inserer(int slot, String nom, double prixachat, double prixvente, int quantite,
+                                    double seuil, double prixstock, int demandeEstimee);
+    protected abstract void liberer(int slot);
+    protected abstract Produits vue(int slot);
+
+    // Accès aux colonnes par slot
+    public abstract String getNom(int slot);
+    public abstract double getPrixachat(int slot);
+    public abstract double getPrixvente(int slot);
+    public abstract int getQuantite(int slot);
+    public abstract double getSeuil(int slot);
+    public abstract double getPrixstock(int slot);
+    public abstract int getDemandeEstimee(int slot);
+
+    public void setNom(int slot, String nom) {
+        debutStructure();
+        try {
+            desindexer(slot, getNom(slot));
+            ecrireNom(slot, nom);
+            indexer(slot, nom);
+            marquerModifie();
+        } finally {
+            finStructure();
+        }
+    }
+
+    /**
+     * Le prix d'achat change rarement : verrou exclusif, pour que la valeur
+     * totale ne croise aucun ajustement de quantité concurrent
+     */
+    public void setPrixachat(int slot, double prixachat) {
+        debutStructure();
+        try {
+            double ancien = getPrixachat(slot);
+            ecrirePrixachat(slot, prixachat);
+            agregats.prixachatModifie(slot, ancien, prixachat);
+            marquerModifie();
+        } finally {
+            finStructure();
+        }
+    }
+
+    public void setPrixvente(int slot, double prixvente) {
+        debutEcriture();
+        try {
+            ecrirePrixvente(slot, prixvente);
+        } finally {
+            finEcriture();
+        }
+    }
+
+    public void setQuantite(int slot, int quantite) {
+        debutEcriture();
+        try {
+            remplacerQuantite(slot, quantite);
+        } finally {
+            finEcriture();
+        }
+    }
+
+    public void setSeuil(int slot, double seuil) {
+        debutEcriture();
+        try {
+            ecrireSeuil(slot, seuil);
+            agregats.seuilModifie(slot);
+            indexAlertes.marquer(slot);
+        } finally {
+            finEcriture();
+        }
+    }
+
+    public void setPrixstock(int slot, double prixstock) {
+        debutEcriture();
+        try {
+            ecrirePrixstock(slot, prixstock);
+        } finally {
+            finEcriture();
+        }
+    }
+
+    public void setDemandeEstimee(int slot, int demandeEstimee) {
+        debutEcriture();
+        try {
+            synchronized (verrousLignes[slot & (NB_VERROUS_LIGNES - 1)]) {
+                int ancienne = getDemandeEstimee(slot);
+                ecrireDemandeEstimee(slot, demandeEstimee);
+                agregats.demandeModifiee(ancienne, demandeEstimee);
+            }
+        } finally {
+            finEcriture();
+        }
+    }
+
+    protected abstract void ecrireNom(int slot, String nom);
+    protected abstract void ecrirePrixachat(int slot, double prixachat);
+    protected abstract void ecrirePrixvente(int slot, double prixvente);
+    protected abstract void ecrireQuantite(int slot, int quantite);
+    protected abstract void ecrireSeuil(int slot, double seuil);
+    protected abstract void ecrirePrixstock(int slot, double prixstock);
+    protected abstract void ecrireDemandeEstimee(int slot, int demandeEstimee);
+
+    // Opérations atomiques sur la quantité (VarHandle selon le stockage)
+    protected abstract int ajouterQuantite(int slot, int delta);
+    protected abstract boolean comparerEchangerQuantite(int slot, int attendue, int nouvelle);
+}
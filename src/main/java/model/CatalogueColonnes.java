@@ -0,0 +1,113 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Catalogue en colonnes (struct-of-arrays) pour les grands catalogues
+ * Chaque champ est stocké dans un tableau primitif indexé par slot ;
+ * les produits ne sont matérialisés qu'à la demande, sous forme de vues.
+ */
+public class CatalogueColonnes extends Catalogue {
+    private static final VarHandle QUANTITES = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private String[] noms;
+    private double[] prixachat;
+    private double[] prixvente;
+    private int[] quantite;
+    private double[] seuil;
+    private double[] prixstock;
+    private int[] demandeEstimee;
+
+    public CatalogueColonnes() {
+        this(16);
+    }
+
+    /**
+     * @param capaciteInitiale nombre de produits attendus, pour éviter les agrandissements
+     */
+    public CatalogueColonnes(int capaciteInitiale) {
+        int n = Math.max(capaciteInitiale, 1);
+        noms = new String[n];
+        prixachat = new double[n];
+        prixvente = new double[n];
+        quantite = new int[n];
+        seuil = new double[n];
+        prixstock = new double[n];
+        demandeEstimee = new int[n];
+    }
+
+    @Override
+    protected void reserver(int capaciteSlots) {
+        if (capaciteSlots > noms.length) {
+            int n = Math.max(capaciteSlots, noms.length + (noms.length >> 1));
+            noms = Arrays.copyOf(noms, n);
+            prixachat = Arrays.copyOf(prixachat, n);
+            prixvente = Arrays.copyOf(prixvente, n);
+            quantite = Arrays.copyOf(quantite, n);
+            seuil = Arrays.copyOf(seuil, n);
+            prixstock = Arrays.copyOf(prixstock, n);
+            demandeEstimee = Arrays.copyOf(demandeEstimee, n);
+        }
+    }
+
+    @Override
+    protected void inserer(int slot, String nom, double prixachat, double prixvente, int quantite,
+                           double seuil, double prixstock, int demandeEstimee) {
+        this.noms[slot] = nom;
+        this.prixachat[slot] = prixachat;
+        this.prixvente[slot] = prixvente;
+        this.quantite[slot] = quantite;
+        this.seuil[slot] = seuil;
+        this.prixstock[slot] = prixstock;
+        this.demandeEstimee[slot] = demandeEstimee;
+    }
+
+    @Override
+    protected void liberer(int slot) {
+        // Un slot libre a un nom null et ne contribue pas aux agrégats
+        noms[slot] = null;
+        prixachat[slot] = 0;
+        prixvente[slot] = 0;
+        quantite[slot] = 0;
+        seuil[slot] = 0;
+        prixstock[slot] = 0;
+        demandeEstimee[slot] = 0;
+    }
+
+    @Override
+    protected Produits vue(int slot) {
+        return new Produits(this, slot);
+    }
+
+    @Override public String getNom(int slot) { return noms[slot]; }
+    @Override public double getPrixachat(int slot) { return prixachat[slot]; }
+    @Override public double getPrixvente(int slot) { return prixvente[slot]; }
+    @Override public int getQuantite(int slot) { return quantite[slot]; }
+    @Override public double getSeuil(int slot) { return seuil[slot]; }
+    @Override public double getPrixstock(int slot) { return prixstock[slot]; }
+    @Override public int getDemandeEstimee(int slot) { return demandeEstimee[slot]; }
+
+    @Override protected void ecrireNom(int slot, String nom) { noms[slot] = nom; }
+    @Override protected void ecrirePrixachat(int slot, double prixachat) { this.prixachat[slot] = prixachat; }
+    @Override protected void ecrirePrixvente(int slot, double prixvente) { this.prixvente[slot] = prixvente; }
+    @Override protected void ecrireQuantite(int slot, int quantite) { this.quantite[slot] = quantite; }
+    @Override protected void ecrireSeuil(int slot, double seuil) { this.seuil[slot] = seuil; }
+    @Override protected void ecrirePrixstock(int slot, double prixstock) { this.prixstock[slot] = prixstock; }
+    @Override protected void ecrireDemandeEstimee(int slot, int demandeEstimee) { this.demandeEstimee[slot] = demandeEstimee; }
+
+    @Override
+    protected int ajouterQuantite(int slot, int delta) {
+        return (int) QUANTITES.getAndAdd(quantite, slot, delta) + delta;
+    }
+
+    @Override
+    protected boolean comparerEchangerQuantite(int slot, int attendue, int nouvelle) {
+        return QUANTITES.compareAndSet(quantite, slot, attendue, nouvelle);
+    }
+}
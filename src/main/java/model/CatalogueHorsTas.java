@@ -0,0 +1,200 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.StructLayout;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+
+import static java.lang.foreign.MemoryLayout.PathElement.groupElement;
+
+/**
+ * Catalogue hors tas (API Foreign Memory) pour les catalogues de plusieurs millions de produits
+ * Chaque slot est un enregistrement de taille fixe dans un MemorySegment ;
+ * les noms sont encodés en UTF-8 dans un second segment (dictionnaire).
+ * Le tas ne porte que quelques grands tableaux primitifs d'index.
+ * Les segments sont libérés par le GC quand ils ne sont plus référencés (Arena.ofAuto).
+ */
+public class CatalogueHorsTas extends Catalogue {
+    static final StructLayout ENREGISTREMENT = MemoryLayout.structLayout(
+            ValueLayout.JAVA_DOUBLE.withName("prixachat"),
+            ValueLayout.JAVA_DOUBLE.withName("prixvente"),
+            ValueLayout.JAVA_DOUBLE.withName("seuil"),
+            ValueLayout.JAVA_DOUBLE.withName("prixstock"),
+            ValueLayout.JAVA_LONG.withName("nomOffset"),
+            ValueLayout.JAVA_INT.withName("quantite"),
+            ValueLayout.JAVA_INT.withName("demandeEstimee"),
+            ValueLayout.JAVA_INT.withName("nomLongueur"),
+            MemoryLayout.paddingLayout(4));
+
+    private static final long TAILLE = ENREGISTREMENT.byteSize();
+    private static final long PRIXACHAT = ENREGISTREMENT.byteOffset(groupElement("prixachat"));
+    private static final long PRIXVENTE = ENREGISTREMENT.byteOffset(groupElement("prixvente"));
+    private static final long SEUIL = ENREGISTREMENT.byteOffset(groupElement("seuil"));
+    private static final long PRIXSTOCK = ENREGISTREMENT.byteOffset(groupElement("prixstock"));
+    private static final long NOM_OFFSET = ENREGISTREMENT.byteOffset(groupElement("nomOffset"));
+    private static final long QUANTITE = ENREGISTREMENT.byteOffset(groupElement("quantite"));
+    private static final long DEMANDE = ENREGISTREMENT.byteOffset(groupElement("demandeEstimee"));
+    private static final long NOM_LONGUEUR = ENREGISTREMENT.byteOffset(groupElement("nomLongueur"));
+
+    // Coordonnées (segment, décalage de l'enregistrement) : accès atomiques à la quantité
+    private static final VarHandle QUANTITE_ATOMIQUE = ENREGISTREMENT.varHandle(groupElement("quantite"));
+
+    private static final int SANS_NOM = -1;   // slot libre
+
+    private MemorySegment enregistrements;
+    private long capacite;                    // en nombre de slots
+
+    private MemorySegment noms;               // dictionnaire des noms (UTF-8, ajout en fin)
+    private long finNoms;
+    private long octetsMorts;                 // octets de noms remplacés ou supprimés
+
+    public CatalogueHorsTas() {
+        this(1024);
+    }
+
+    /**
+     * @param capaciteInitiale nombre de produits attendus, pour éviter les agrandissements
+     */
+    public CatalogueHorsTas(int capaciteInitiale) {
+        capacite = Math.max(capaciteInitiale, 16);
+        enregistrements = Arena.ofAuto().allocate(capacite * TAILLE, ENREGISTREMENT.byteAlignment());
+        noms = Arena.ofAuto().allocate(capacite * 16, 1);
+    }
+
+    @Override
+    protected void reserver(int capaciteSlots) {
+        if (capaciteSlots > capacite) {
+            long n = Math.max(capaciteSlots, capacite + (capacite >> 1));
+            MemorySegment nouveau = Arena.ofAuto().allocate(n * TAILLE, ENREGISTREMENT.byteAlignment());
+            MemorySegment.copy(enregistrements, 0, nouveau, 0, capacite * TAILLE);
+            enregistrements = nouveau;
+            capacite = n;
+        }
+    }
+
+    @Override
+    protected void inserer(int slot, String nom, double prixachat, double prixvente, int quantite,
+                           double seuil, double prixstock, int demandeEstimee) {
+        long base = slot * TAILLE;
+        enregistrements.set(ValueLayout.JAVA_DOUBLE, base + PRIXACHAT, prixachat);
+        enregistrements.set(ValueLayout.JAVA_DOUBLE, base + PRIXVENTE, prixvente);
+        enregistrements.set(ValueLayout.JAVA_DOUBLE, base + SEUIL, seuil);
+        enregistrements.set(ValueLayout.JAVA_DOUBLE, base + PRIXSTOCK, prixstock);
+        enregistrements.set(ValueLayout.JAVA_INT, base + QUANTITE, quantite);
+        enregistrements.set(ValueLayout.JAVA_INT, base + DEMANDE, demandeEstimee);
+        enregistrements.set(ValueLayout.JAVA_INT, base + NOM_LONGUEUR, SANS_NOM);
+        ecrireNom(slot, nom);
+    }
+
+    @Override
+    protected void liberer(int slot) {
+        long base = slot * TAILLE;
+        int longueur = enregistrements.get(ValueLayout.JAVA_INT, base + NOM_LONGUEUR);
+        if (longueur > 0) {
+            octetsMorts += longueur;
+        }
+        // Un slot libre vaut 0 partout et ne contribue pas aux agrégats
+        enregistrements.asSlice(base, TAILLE).fill((byte) 0);
+        enregistrements.set(ValueLayout.JAVA_INT, base + NOM_LONGUEUR, SANS_NOM);
+    }
+
+    @Override
+    protected Produits vue(int slot) {
+        return new Produits(this, slot);
+    }
+
+    @Override
+    public String getNom(int slot) {
+        long base = slot * TAILLE;
+        int longueur = enregistrements.get(ValueLayout.JAVA_INT, base + NOM_LONGUEUR);
+        if (longueur == SANS_NOM) {
+            return null;
+        }
+        long offset = enregistrements.get(ValueLayout.JAVA_LONG, base + NOM_OFFSET);
+        byte[] octets = noms.asSlice(offset, longueur).toArray(ValueLayout.JAVA_BYTE);
+        return new String(octets, StandardCharsets.UTF_8);
+    }
+
+    @Override public double getPrixachat(int slot) { return enregistrements.get(ValueLayout.JAVA_DOUBLE, slot * TAILLE + PRIXACHAT); }
+    @Override public double getPrixvente(int slot) { return enregistrements.get(ValueLayout.JAVA_DOUBLE, slot * TAILLE + PRIXVENTE); }
+    @Override public int getQuantite(int slot) { return enregistrements.get(ValueLayout.JAVA_INT, slot * TAILLE + QUANTITE); }
+    @Override public double getSeuil(int slot) { return enregistrements.get(ValueLayout.JAVA_DOUBLE, slot * TAILLE + SEUIL); }
+    @Override public double getPrixstock(int slot) { return enregistrements.get(ValueLayout.JAVA_DOUBLE, slot * TAILLE + PRIXSTOCK); }
+    @Override public int getDemandeEstimee(int slot) { return enregistrements.get(ValueLayout.JAVA_INT, slot * TAILLE + DEMANDE); }
+
+    /**
+     * Écrit le nom en fin de dictionnaire ; l'ancienne valeur devient des octets morts
+     */
+    @Override
+    protected void ecrireNom(int slot, String nom) {
+        long base = slot * TAILLE;
+        int ancienne = enregistrements.get(ValueLayout.JAVA_INT, base + NOM_LONGUEUR);
+        if (ancienne > 0) {
+            octetsMorts += ancienne;
+        }
+        enregistrements.set(ValueLayout.JAVA_INT, base + NOM_LONGUEUR, SANS_NOM);
+        if (nom == null) {
+            return;
+        }
+        byte[] octets = nom.getBytes(StandardCharsets.UTF_8);
+        reserverNoms(octets.length);
+        MemorySegment.copy(MemorySegment.ofArray(octets), 0, noms, finNoms, octets.length);
+        enregistrements.set(ValueLayout.JAVA_LONG, base + NOM_OFFSET, finNoms);
+        enregistrements.set(ValueLayout.JAVA_INT, base + NOM_LONGUEUR, octets.length);
+        finNoms += octets.length;
+    }
+
+    @Override protected void ecrirePrixachat(int slot, double prixachat) { enregistrements.set(ValueLayout.JAVA_DOUBLE, slot * TAILLE + PRIXACHAT, prixachat); }
+    @Override protected void ecrirePrixvente(int slot, double prixvente) { enregistrements.set(ValueLayout.JAVA_DOUBLE, slot * TAILLE + PRIXVENTE, prixvente); }
+    @Override protected void ecrireQuantite(int slot, int quantite) { enregistrements.set(ValueLayout.JAVA_INT, slot * TAILLE + QUANTITE, quantite); }
+    @Override protected void ecrireSeuil(int slot, double seuil) { enregistrements.set(ValueLayout.JAVA_DOUBLE, slot * TAILLE + SEUIL, seuil); }
+    @Override protected void ecrirePrixstock(int slot, double prixstock) { enregistrements.set(ValueLayout.JAVA_DOUBLE, slot * TAILLE + PRIXSTOCK, prixstock); }
+    @Override protected void ecrireDemandeEstimee(int slot, int demandeEstimee) { enregistrements.set(ValueLayout.JAVA_INT, slot * TAILLE + DEMANDE, demandeEstimee); }
+
+    /**
+     * Garantit la place pour un nom ; compacte le dictionnaire si plus
+     * de la moitié des octets sont morts, sinon l'agrandit
+     */
+    private void reserverNoms(int longueur) {
+        if (finNoms + longueur <= noms.byteSize()) {
+            return;
+        }
+        long vivants = finNoms - octetsMorts;
+        long n = Math.max(noms.byteSize(), 2 * (vivants + longueur));
+        if (octetsMorts < finNoms / 2) {
+            n = Math.max(n, noms.byteSize() + (noms.byteSize() >> 1));
+        }
+        MemorySegment nouveau = Arena.ofAuto().allocate(n, 1);
+        long fin = 0;
+        long haut = getHautSlot() * TAILLE;
+        for (long base = 0; base < haut; base += TAILLE) {
+            int l = enregistrements.get(ValueLayout.JAVA_INT, base + NOM_LONGUEUR);
+            if (l > 0) {
+                long offset = enregistrements.get(ValueLayout.JAVA_LONG, base + NOM_OFFSET);
+                MemorySegment.copy(noms, offset, nouveau, fin, l);
+                enregistrements.set(ValueLayout.JAVA_LONG, base + NOM_OFFSET, fin);
+                fin += l;
+            }
+        }
+        noms = nouveau;
+        finNoms = fin;
+        octetsMorts = 0;
+    }
+
+    @Override
+    protected int ajouterQuantite(int slot, int delta) {
+        return (int) QUANTITE_ATOMIQUE.getAndAdd(enregistrements, slot * TAILLE, delta) + delta;
+    }
+
+    @Override
+    protected boolean comparerEchangerQuantite(int slot, int attendue, int nouvelle) {
+        return QUANTITE_ATOMIQUE.compareAndSet(enregistrements, slot * TAILLE, attendue, nouvelle);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Catalogue par défaut : un objet Produits par slot (stockage historique)
+ */
+public class CatalogueObjets extends Catalogue {
+    private static final VarHandle QUANTITE;
+
+    static {
+        try {
+            QUANTITE = MethodHandles.lookup().findVarHandle(Produits.class, "quantite", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Produits[] objets = new Produits[16];
+
+    @Override
+    protected void reserver(int capaciteSlots) {
+        if (capaciteSlots > objets.length) {
+            objets = Arrays.copyOf(objets, Math.max(capaciteSlots, objets.length + (objets.length >> 1)));
+        }
+    }
+
+    @Override
+    protected void inserer(int slot, String nom, double prixachat, double prixvente, int quantite,
+                           double seuil, double prixstock, int demandeEstimee) {
+        Produits p = new Produits(nom, prixachat, prixvente, quantite, seuil, prixstock, demandeEstimee);
+        objets[slot] = p;
+        p.attacher(this, slot);
+    }
+
+    @Override
+    protected void insererProduit(int slot, Produits p) {
+        // L'objet lui-même est conservé, ses champs servent de stockage
+        objets[slot] = p;
+        p.attacher(this, slot);
+    }
+
+    @Override
+    protected void liberer(int slot) {
+        objets[slot].detacher();
+        objets[slot] = null;
+    }
+
+    @Override
+    protected Produits vue(int slot) {
+        return objets[slot];
+    }
+
+    @Override public String getNom(int slot) { return objets[slot].nom; }
+    @Override public double getPrixachat(int slot) { return objets[slot].prixachat; }
+    @Override public double getPrixvente(int slot) { return objets[slot].prixvente; }
+    @Override public int getQuantite(int slot) { return objets[slot].quantite; }
+    @Override public double getSeuil(int slot) { return objets[slot].seuil; }
+    @Override public double getPrixstock(int slot) { return objets[slot].prixstock; }
+    @Override public int getDemandeEstimee(int slot) { return objets[slot].demandeEstimee; }
+
+    @Override protected void ecrireNom(int slot, String nom) { objets[slot].nom = nom; }
+    @Override protected void ecrirePrixachat(int slot, double prixachat) { objets[slot].prixachat = prixachat; }
+    @Override protected void ecrirePrixvente(int slot, double prixvente) { objets[slot].prixvente = prixvente; }
+    @Override protected void ecrireQuantite(int slot, int quantite) { objets[slot].quantite = quantite; }
+    @Override protected void ecrireSeuil(int slot, double seuil) { objets[slot].seuil = seuil; }
+    @Override protected void ecrirePrixstock(int slot, double prixstock) { objets[slot].prixstock = prixstock; }
+    @Override protected void ecrireDemandeEstimee(int slot, int demandeEstimee) { objets[slot].demandeEstimee = demandeEstimee; }
+
+    @Override
+    protected int ajouterQuantite(int slot, int delta) {
+        return (int) QUANTITE.getAndAdd(objets[slot], delta) + delta;
+    }
+
+    @Override
+    protected boolean comparerEchangerQuantite(int slot, int attendue, int nouvelle) {
+        return QUANTITE.compareAndSet(objets[slot], attendue, nouvelle);
+    }
+}
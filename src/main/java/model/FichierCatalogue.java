@@ -0,0 +1,193 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Format binaire versionné d'un catalogue complet (sauvegarde / chargement rapide)
+ *
+ * En-tête de 32 octets (little-endian) :
+ *   magie(4) "SADC", formatVersion(2), réservé(2), nombre(4), réservé(4),
+ *   tailleNoms(8), versionCatalogue(8)
+ * puis les colonnes, chacune sur nombre éléments :
+ *   ids(long) prixachat prixvente seuil prixstock (double) quantite demande (int)
+ *   finNoms(int, fin exclue du nom i dans la zone des noms)
+ * puis les noms concaténés en UTF-8.
+ *
+ * Le chargement mappe le fichier et décode les colonnes et les noms en
+ * parallèle, par tranches, avant de remplir le catalogue en une passe ;
+ * l'index des noms n'est construit qu'à la première recherche par nom.
+ *
+ * L'écriture se fait dans un fichier temporaire voisin, forcé sur disque puis
+ * renommé atomiquement : un arrêt pendant la sauvegarde laisse l'ancien fichier intact.
+ */
+public final class FichierCatalogue {
+    static final int MAGIE = 0x43444153;       // "SADC" en little-endian
+    static final short FORMAT_VERSION = 1;
+    private static final int ENTETE = 32;
+    private static final int TRANCHE = 1 << 16; // produits par tâche de décodage
+
+    private FichierCatalogue() {
+    }
+
+    /**
+     * Écrit un instantané dans un fichier (remplacé atomiquement s'il existe)
+     */
+    public static void ecrire(Path fichier, InstantaneCatalogue inst) throws IOException {
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        try {
+            ecrireContenu(temporaire, inst);
+            Files.move(temporaire, fichier, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaire);
+        }
+    }
+
+    // Écrit le fichier complet et le force sur disque ; les mappings sont libérés au retour
+    private static void ecrireContenu(Path fichier, InstantaneCatalogue inst) throws IOException {
+        int n = inst.taille();
+        byte[][] noms = new byte[n][];
+        long tailleNoms = 0;
+        for (int i = 0; i < n; i++) {
+            noms[i] = inst.getNom(i).getBytes(StandardCharsets.UTF_8);
+            tailleNoms += noms[i].length;
+        }
+        if (tailleNoms > Integer.MAX_VALUE) {
+            throw new IOException("Noms trop volumineux pour le format: " + tailleNoms + " octets");
+        }
+        long debutNoms = ENTETE + 40L * n + 12L * n;
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                  StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             Arena arena = Arena.ofConfined()) {
+            MemorySegment contenu = canal.map(FileChannel.MapMode.READ_WRITE, 0, debutNoms + tailleNoms, arena);
+            ByteBuffer entete = colonne(contenu, 0, ENTETE);
+            entete.putInt(MAGIE).putShort(FORMAT_VERSION).putShort((short) 0).putInt(n).putInt(0)
+                  .putLong(tailleNoms).putLong(inst.getVersion());
+
+            long pos = ENTETE;
+            ByteBuffer b = colonne(contenu, pos, 8L * n);
+            for (int i = 0; i < n; i++) b.putLong(inst.getId(i));
+            b = colonne(contenu, pos += 8L * n, 8L * n);
+            for (int i = 0; i < n; i++) b.putDouble(inst.getPrixachat(i));
+            b = colonne(contenu, pos += 8L * n, 8L * n);
+            for (int i = 0; i < n; i++) b.putDouble(inst.getPrixvente(i));
+            b = colonne(contenu, pos += 8L * n, 8L * n);
+            for (int i = 0; i < n; i++) b.putDouble(inst.getSeuil(i));
+            b = colonne(contenu, pos += 8L * n, 8L * n);
+            for (int i = 0; i < n; i++) b.putDouble(inst.getPrixstock(i));
+            b = colonne(contenu, pos += 8L * n, 4L * n);
+            for (int i = 0; i < n; i++) b.putInt(inst.getQuantite(i));
+            b = colonne(contenu, pos += 4L * n, 4L * n);
+            for (int i = 0; i < n; i++) b.putInt(inst.getDemandeEstimee(i));
+            b = colonne(contenu, pos += 4L * n, 4L * n);
+            int fin = 0;
+            for (int i = 0; i < n; i++) b.putInt(fin += noms[i].length);
+            b = colonne(contenu, debutNoms, tailleNoms);
+            for (int i = 0; i < n; i++) b.put(noms[i]);
+            contenu.force();
+            canal.force(true);
+        }
+    }
+
+    private static ByteBuffer colonne(MemorySegment contenu, long debut, long taille) {
+        return contenu.asSlice(debut, taille).asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Charge un fichier dans un catalogue vide ; les identifiants sont conservés
+     * @return nombre de produits chargés
+     */
+    public static int charger(Path fichier, Catalogue catalogue) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() < ENTETE) {
+                throw new IOException("Fichier catalogue tronqué: " + fichier);
+            }
+            ByteBuffer entete = lecture(canal, 0, ENTETE);
+            if (entete.getInt() != MAGIE) {
+                throw new IOException("Fichier catalogue invalide: " + fichier);
+            }
+            short format = entete.getShort();
+            if (format != FORMAT_VERSION) {
+                throw new IOException("Version de format non supportée: " + format);
+            }
+            entete.getShort();
+            int n = entete.getInt();
+            entete.getInt();
+            long tailleNoms = entete.getLong();
+            long debutNoms = ENTETE + 40L * n + 12L * n;
+            if (n < 0 || canal.size() < debutNoms + tailleNoms) {
+                throw new IOException("Fichier catalogue tronqué: " + fichier);
+            }
+
+            long[] ids = new long[n];
+            double[] prixachat = new double[n];
+            double[] prixvente = new double[n];
+            double[] seuil = new double[n];
+            double[] prixstock = new double[n];
+            int[] quantite = new int[n];
+            int[] demande = new int[n];
+            int[] finNoms = new int[n];
+            String[] noms = new String[n];
+
+            ByteBuffer cIds = lecture(canal, ENTETE, 8L * n);
+            ByteBuffer cAchat = lecture(canal, ENTETE + 8L * n, 8L * n);
+            ByteBuffer cVente = lecture(canal, ENTETE + 16L * n, 8L * n);
+            ByteBuffer cSeuil = lecture(canal, ENTETE + 24L * n, 8L * n);
+            ByteBuffer cStock = lecture(canal, ENTETE + 32L * n, 8L * n);
+            ByteBuffer cQuantite = lecture(canal, ENTETE + 40L * n, 4L * n);
+            ByteBuffer cDemande = lecture(canal, ENTETE + 44L * n, 4L * n);
+            ByteBuffer cFins = lecture(canal, ENTETE + 48L * n, 4L * n);
+            ByteBuffer cNoms = lecture(canal, debutNoms, tailleNoms);
+
+            // Décodage parallèle par tranches : copies en bloc, puis noms UTF-8
+            int tranches = (n + TRANCHE - 1) / TRANCHE;
+            IntStream.range(0, tranches).parallel().forEach(t -> {
+                int debut = t * TRANCHE;
+                int longueur = Math.min(TRANCHE, n - debut);
+                cIds.asLongBuffer().get(debut, ids, debut, longueur);
+                cAchat.asDoubleBuffer().get(debut, prixachat, debut, longueur);
+                cVente.asDoubleBuffer().get(debut, prixvente, debut, longueur);
+                cSeuil.asDoubleBuffer().get(debut, seuil, debut, longueur);
+                cStock.asDoubleBuffer().get(debut, prixstock, debut, longueur);
+                cQuantite.asIntBuffer().get(debut, quantite, debut, longueur);
+                cDemande.asIntBuffer().get(debut, demande, debut, longueur);
+                cFins.asIntBuffer().get(debut, finNoms, debut, longueur);
+                byte[] tampon = new byte[64];
+                int d = debut == 0 ? 0 : cFins.getInt(4 * (debut - 1));
+                for (int i = debut; i < debut + longueur; i++) {
+                    int l = finNoms[i] - d;
+                    if (l > tampon.length) {
+                        tampon = new byte[Math.max(l, tampon.length * 2)];
+                    }
+                    cNoms.get(d, tampon, 0, l);
+                    noms[i] = new String(tampon, 0, l, StandardCharsets.UTF_8);
+                    d = finNoms[i];
+                }
+            });
+
+            catalogue.ajouterLot(ids, noms, prixachat, prixvente, quantite, seuil, prixstock, demande, 0, n);
+            return n;
+        }
+    }
+
+    private static ByteBuffer lecture(FileChannel canal, long debut, long taille) throws IOException {
+        MappedByteBuffer b = canal.map(FileChannel.MapMode.READ_ONLY, debut, taille);
+        b.order(ByteOrder.LITTLE_ENDIAN);
+        return b;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Historique de la demande journalière par produit, rangé à plat
+ * Les séries de tous les produits se suivent dans un seul tableau d'entiers ;
+ * la série k occupe [debut(k), debut(k + 1)). Le jour 0 d'une série est le
+ * jour de la première vente du produit ; toutes les séries s'arrêtent au même
+ * dernier jour (les jours sans vente valent 0).
+ */
+public final class HistoriqueVentes {
+    private final long[] ids;
+    private final int[] debuts;         // taille + 1 décalages
+    private final int[] demandes;
+
+    private HistoriqueVentes(long[] ids, int[] debuts, int[] demandes) {
+        this.ids = ids;
+        this.debuts = debuts;
+        this.demandes = demandes;
+    }
+
+    /**
+     * Historique à partir de séries journalières (copiées)
+     */
+    public static HistoriqueVentes depuisSeries(long[] ids, int[][] series) {
+        if (ids.length != series.length) {
+            throw new IllegalArgumentException("Autant d'identifiants que de séries attendus");
+        }
+        int[] debuts = new int[ids.length + 1];
+        for (int k = 0; k < ids.length; k++) {
+            debuts[k + 1] = Math.addExact(debuts[k], series[k].length);
+        }
+        int[] demandes = new int[debuts[ids.length]];
+        for (int k = 0; k < ids.length; k++) {
+            System.arraycopy(series[k], 0, demandes, debuts[k], series[k].length);
+        }
+        return new HistoriqueVentes(ids.clone(), debuts, demandes);
+    }
+
+    /**
+     * Historique des ventes enregistrées dans un journal de mouvements
+     */
+    public static HistoriqueVentes depuisJournal(Path fichier) throws IOException {
+        Map<Long, Serie> series = new HashMap<>();
+        int[] dernierJour = {Integer.MIN_VALUE};
+        JournalMouvements.parcourirVentes(fichier, (id, quantite, horodatage) -> {
+            int jour = PrevisionDemande.jour(horodatage);
+            series.computeIfAbsent(id, k -> new Serie(jour)).ajouter(jour, quantite);
+            dernierJour[0] = Math.max(dernierJour[0], jour);
+        });
+        long[] ids = new long[series.size()];
+        int[][] valeurs = new int[series.size()][];
+        int k = 0;
+        for (Map.Entry<Long, Serie> e : series.entrySet()) {
+            ids[k] = e.getKey();
+            Serie s = e.getValue();
+            valeurs[k++] = Arrays.copyOf(s.valeurs, dernierJour[0] - s.premierJour + 1);
+        }
+        return depuisSeries(ids, valeurs);
+    }
+
+    // Série en construction : demande par jour depuis la première vente
+    private static final class Serie {
+        final int premierJour;
+        int[] valeurs = new int[64];
+
+        Serie(int premierJour) {
+            this.premierJour = premierJour;
+        }
+
+        void ajouter(int jour, int quantite) {
+            int i = Math.max(jour - premierJour, 0);
+            if (i >= valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, Math.max(i + 1, valeurs.length * 2));
+            }
+            valeurs[i] = (int) Math.min(Integer.MAX_VALUE, (long) valeurs[i] + quantite);
+        }
+    }
+
+    public int taille() {
+        return ids.length;
+    }
+
+    public long getId(int k) {
+        return ids[k];
+    }
+
+    /**
+     * Nombre de jours de la série k
+     */
+    public int longueur(int k) {
+        return debuts[k + 1] - debuts[k];
+    }
+
+    public int getDemande(int k, int jour) {
+        return demandes[debuts[k] + jour];
+    }
+
+    int debut(int k) {
+        return debuts[k];
+    }
+
+    int[] colonne() {
+        return demandes;
+    }
+}
@@ -0,0 +1,488 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Import en masse de produits depuis un fichier CSV
+ * Colonnes, dans l'ordre de Produits : nom, prixachat, prixvente, quantite,
+ * seuil, prixstock, demandeEstimee. Séparateur ';' (virgule décimale
+ * acceptée) ou ','. Une ligne d'en-tête éventuelle est ignorée.
+ *
+ * Le fichier est lu par blocs de taille fixe ; chaque bloc est découpé en
+ * parts (aux fins de ligne) analysées en parallèle dans des colonnes
+ * primitives, puis inséré en un lot. Seul un bloc est en mémoire à la fois.
+ */
+public class ImportCsv {
+
+    /**
+     * Suivi de l'import, appelé après chaque bloc
+     */
+    public interface Progression {
+        /**
+         * @return false pour interrompre l'import (les blocs déjà insérés restent)
+         */
+        boolean avancer(long octetsLus, long octetsTotal, long lignesImportees);
+    }
+
+    /**
+     * Bilan d'un import
+     */
+    public static class Rapport {
+        public static final int MAX_ERREURS = 100;
+
+        private long lignesLues;
+        private long lignesImportees;
+        private long lignesRejetees;
+        private boolean interrompu;
+        private final List<String> erreurs = new ArrayList<>();
+
+        public long getLignesLues() { return lignesLues; }
+        public long getLignesImportees() { return lignesImportees; }
+        public long getLignesRejetees() { return lignesRejetees; }
+        public boolean isInterrompu() { return interrompu; }
+
+        /**
+         * Premières erreurs rencontrées (au plus MAX_ERREURS), avec leur numéro de ligne
+         */
+        public List<String> getErreurs() { return erreurs; }
+
+        void rejeter(long ligne, String motif) {
+            lignesRejetees++;
+            if (erreurs.size() < MAX_ERREURS) {
+                erreurs.add("Ligne " + ligne + ": " + motif);
+            }
+        }
+    }
+
+    private static final int TAILLE_BLOC = 8 << 20;
+    private static final int TAILLE_PART_MIN = 256 << 10;
+    private static final int NB_CHAMPS = 7;
+    private static final double[] PUISSANCES_10 = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final StockModel model;
+
+    public ImportCsv(StockModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Importe un fichier CSV dans le modèle
+     * Les lignes invalides ou dont le nom existe déjà sont rejetées et comptées.
+     * @param progression suivi optionnel (null accepté)
+     */
+    public Rapport importer(Path fichier, Progression progression) throws IOException {
+        Rapport rapport = new Rapport();
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long total = canal.size();
+            long lus = 0;
+            long ligneBloc = 1;          // numéro de la première ligne du bloc
+            byte[] tampon = new byte[TAILLE_BLOC];
+            int rempli = 0;
+            byte separateur = 0;
+            boolean premierBloc = true;
+            while (true) {
+                int n = canal.read(ByteBuffer.wrap(tampon, rempli, tampon.length - rempli));
+                boolean fin = n < 0;
+                if (!fin) {
+                    rempli += n;
+                    lus += n;
+                }
+                // Le bloc s'arrête à la dernière fin de ligne, le reste est reporté
+                int limite = fin ? rempli : derniereFinLigne(tampon, rempli);
+                if (limite < 0) {
+                    if (rempli == tampon.length) {
+                        tampon = java.util.Arrays.copyOf(tampon, tampon.length * 2);   // ligne plus longue qu'un bloc
+                    }
+                    continue;
+                }
+                int debut = 0;
+                if (premierBloc && limite > 0) {
+                    premierBloc = false;
+                    if (rempli >= 3 && (tampon[0] & 0xFF) == 0xEF && (tampon[1] & 0xFF) == 0xBB
+                            && (tampon[2] & 0xFF) == 0xBF) {
+                        debut = 3;       // BOM UTF-8
+                    }
+                    int finPremiere = finLigne(tampon, debut, limite);
+                    separateur = detecterSeparateur(tampon, debut, finPremiere);
+                    if (estEnTete(tampon, debut, finPremiere, separateur)) {
+                        debut = Math.min(finPremiere + 1, limite);
+                        ligneBloc++;
+                    }
+                }
+                ligneBloc += traiterBloc(tampon, debut, limite, separateur, ligneBloc, rapport);
+
+                if (progression != null && !progression.avancer(lus, total, rapport.lignesImportees)) {
+                    rapport.interrompu = true;
+                    break;
+                }
+                if (fin) {
+                    break;
+                }
+                int reste = rempli - limite;
+                System.arraycopy(tampon, limite, tampon, 0, reste);
+                rempli = reste;
+            }
+        }
+        return rapport;
+    }
+
+    /**
+     * Analyse un bloc en parallèle puis insère ses lignes valides
+     * @return nombre de lignes du bloc
+     */
+    private long traiterBloc(byte[] tampon, int debut, int fin, byte separateur, long premiereLigne,
+                             Rapport rapport) {
+        if (debut >= fin) {
+            return 0;
+        }
+        // Découpage en parts alignées sur les fins de ligne
+        int nbParts = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() * 2,
+                                           (fin - debut) / TAILLE_PART_MIN));
+        int[] bornes = new int[nbParts + 1];
+        bornes[0] = debut;
+        for (int k = 1; k < nbParts; k++) {
+            int b = Math.max(bornes[k - 1], debut + (int) ((long) (fin - debut) * k / nbParts));
+            int nl = finLigne(tampon, b, fin);
+            bornes[k] = Math.min(nl + 1, fin);
+        }
+        bornes[nbParts] = fin;
+
+        Part[] parts = IntStream.range(0, nbParts).parallel()
+                .mapToObj(k -> new Part(tampon, bornes[k], bornes[k + 1], separateur))
+                .toArray(Part[]::new);
+
+        long ligne = premiereLigne;
+        for (Part part : parts) {
+            rapport.lignesLues += part.lignes - part.vides;
+            for (int e = 0; e < part.nbErreurs; e++) {
+                rapport.rejeter(ligne + part.lignesErreurs[e], part.motifs[e]);
+            }
+            inserer(part, ligne, rapport);
+            ligne += part.lignes;
+        }
+        return ligne - premiereLigne;
+    }
+
+    /**
+     * Écarte les noms déjà présents (catalogue ou lot) puis insère la part
+     */
+    private void inserer(Part part, long premiereLigne, Rapport rapport) {
+        Catalogue catalogue = model.getCatalogue();
+        Set<String> vus = new HashSet<>();
+        int garde = 0;
+        for (int i = 0; i < part.taille; i++) {
+            String nom = part.noms[i];
+            if (catalogue.chercherCle(part.cles[i]) >= 0 || !vus.add(part.cles[i])) {
+                rapport.rejeter(premiereLigne + part.lignesValides[i], "nom déjà présent '" + nom + "'");
+                continue;
+            }
+            if (garde != i) {
+                part.deplacer(i, garde);
+            }
+            garde++;
+        }
+        if (garde > 0) {
+            model.ajouterLot(new long[garde], part.noms, part.prixachat, part.prixvente, part.quantite,
+                             part.seuil, part.prixstock, part.demande, garde);
+            rapport.lignesImportees += garde;
+        }
+    }
+
+    /**
+     * Lignes d'un morceau de bloc, décodées en colonnes
+     */
+    private static final class Part {
+        int taille;
+        int lignes;               // lignes parcourues, vides comprises
+        int vides;
+        String[] noms;
+        String[] cles;            // noms en minuscules, pour les doublons
+        double[] prixachat, prixvente, seuil, prixstock;
+        int[] quantite, demande;
+        int[] lignesValides;      // ligne relative de chaque produit
+        int nbErreurs;
+        int[] lignesErreurs = new int[8];
+        String[] motifs = new String[8];
+
+        private final byte[] b;
+        private final byte separateur;
+        private final int[] debuts = new int[NB_CHAMPS + 1];
+        private final int[] fins = new int[NB_CHAMPS + 1];
+
+        Part(byte[] b, int debut, int fin, byte separateur) {
+            this.b = b;
+            this.separateur = separateur;
+            int capacite = 1;
+            for (int i = debut; i < fin; i++) {
+                if (b[i] == '\n') {
+                    capacite++;
+                }
+            }
+            noms = new String[capacite];
+            cles = new String[capacite];
+            prixachat = new double[capacite];
+            prixvente = new double[capacite];
+            seuil = new double[capacite];
+            prixstock = new double[capacite];
+            quantite = new int[capacite];
+            demande = new int[capacite];
+            lignesValides = new int[capacite];
+
+            int i = debut;
+            while (i < fin) {
+                int nl = finLigne(b, i, fin);
+                int f = nl > i && b[nl - 1] == '\r' ? nl - 1 : nl;
+                if (f == i) {
+                    vides++;
+                } else {
+                    analyser(i, f);
+                }
+                lignes++;
+                i = nl + 1;
+            }
+        }
+
+        private void analyser(int debut, int fin) {
+            int nbChamps = decouper(debut, fin);
+            if (nbChamps != NB_CHAMPS) {
+                erreur("nombre de champs " + nbChamps + " au lieu de " + NB_CHAMPS);
+                return;
+            }
+            String nom = texte(0).trim();
+            if (nom.isEmpty()) {
+                erreur("nom vide");
+                return;
+            }
+            double pa = decimal(1), pv = decimal(2), s = decimal(4), ps = decimal(5);
+            long q = entier(3), d = entier(6);
+            if (!Double.isFinite(pa) || !Double.isFinite(pv) || !Double.isFinite(s) || !Double.isFinite(ps)
+                    || q == Long.MIN_VALUE || d == Long.MIN_VALUE) {
+                erreur("valeur numérique invalide");
+                return;
+            }
+            if (pa < 0 || pv < 0 || s < 0 || ps < 0 || q < 0 || d < 0 || q > Integer.MAX_VALUE
+                    || d > Integer.MAX_VALUE) {
+                erreur("valeur négative ou hors limites");
+                return;
+            }
+            if (pv <= pa) {
+                erreur("le prix de vente doit être supérieur au prix d'achat");
+                return;
+            }
+            int k = taille++;
+            noms[k] = nom;
+            cles[k] = IndexNoms.cle(nom);
+            prixachat[k] = pa;
+            prixvente[k] = pv;
+            quantite[k] = (int) q;
+            seuil[k] = s;
+            prixstock[k] = ps;
+            demande[k] = (int) d;
+            lignesValides[k] = lignes;
+        }
+
+        /**
+         * Repère les champs de la ligne (guillemets gérés)
+         * @return nombre de champs trouvés
+         */
+        private int decouper(int debut, int fin) {
+            int n = 0;
+            int i = debut;
+            while (true) {
+                if (n == NB_CHAMPS + 1) {
+                    return n;
+                }
+                if (i < fin && b[i] == '"') {
+                    int j = i + 1;
+                    while (j < fin && !(b[j] == '"' && (j + 1 >= fin || b[j + 1] != '"'))) {
+                        j += b[j] == '"' ? 2 : 1;
+                    }
+                    debuts[n] = -(i + 1) - 1;      // négatif : champ entre guillemets
+                    fins[n] = j;
+                    i = j + 1;
+                    while (i < fin && b[i] != separateur) {
+                        i++;
+                    }
+                } else {
+                    int j = i;
+                    while (j < fin && b[j] != separateur) {
+                        j++;
+                    }
+                    debuts[n] = i;
+                    fins[n] = j;
+                    i = j;
+                }
+                n++;
+                if (i >= fin) {
+                    return n;
+                }
+                i++;                                // séparateur
+            }
+        }
+
+        private String texte(int champ) {
+            int d = debuts[champ];
+            if (d >= 0) {
+                return new String(b, d, fins[champ] - d, StandardCharsets.UTF_8);
+            }
+            d = -d - 1;
+            return new String(b, d, fins[champ] - d, StandardCharsets.UTF_8).replace("\"\"", "\"");
+        }
+
+        /**
+         * @return valeur entière, ou Long.MIN_VALUE si le champ est invalide
+         */
+        private long entier(int champ) {
+            int i = debuts[champ], f = fins[champ];
+            if (i < 0) {
+                i = -i - 1;
+            }
+            while (i < f && b[i] == ' ') i++;
+            while (f > i && b[f - 1] == ' ') f--;
+            if (i == f || f - i > 18) {
+                return Long.MIN_VALUE;
+            }
+            boolean negatif = b[i] == '-';
+            if (negatif || b[i] == '+') {
+                i++;
+            }
+            long v = 0;
+            for (; i < f; i++) {
+                int c = b[i] - '0';
+                if (c < 0 || c > 9) {
+                    return Long.MIN_VALUE;
+                }
+                v = v * 10 + c;
+            }
+            return negatif ? -v : v;
+        }
+
+        /**
+         * Décimal simple décodé sans allocation (arrondi exact tant que la
+         * mantisse tient sur 53 bits), sinon Double.parseDouble
+         * @return valeur, ou NaN si le champ est invalide ou infini ("Infinity", "1e400")
+         */
+        private double decimal(int champ) {
+            int i = debuts[champ], f = fins[champ];
+            if (i < 0) {
+                i = -i - 1;
+            }
+            while (i < f && b[i] == ' ') i++;
+            while (f > i && b[f - 1] == ' ') f--;
+            if (i == f) {
+                return Double.NaN;
+            }
+            int d = i;
+            boolean negatif = b[i] == '-';
+            if (negatif || b[i] == '+') {
+                i++;
+            }
+            long mantisse = 0;
+            int chiffres = 0, decimales = -1;
+            for (; i < f; i++) {
+                byte c = b[i];
+                if (c >= '0' && c <= '9') {
+                    mantisse = mantisse * 10 + (c - '0');
+                    chiffres++;
+                    if (decimales >= 0) {
+                        decimales++;
+                    }
+                } else if ((c == '.' || (c == ',' && separateur != ',')) && decimales < 0) {
+                    decimales = 0;
+                } else {
+                    break;
+                }
+            }
+            if (i == f && chiffres > 0 && chiffres <= 15) {
+                double v = decimales > 0 ? mantisse / PUISSANCES_10[decimales] : mantisse;
+                return negatif ? -v : v;
+            }
+            try {
+                double v = Double.parseDouble(new String(b, d, f - d, StandardCharsets.US_ASCII).replace(',', '.'));
+                return Double.isFinite(v) ? v : Double.NaN;
+            } catch (NumberFormatException e) {
+                return Double.NaN;
+            }
+        }
+
+        private void erreur(String motif) {
+            if (nbErreurs == lignesErreurs.length) {
+                lignesErreurs = java.util.Arrays.copyOf(lignesErreurs, nbErreurs * 2);
+                motifs = java.util.Arrays.copyOf(motifs, nbErreurs * 2);
+            }
+            lignesErreurs[nbErreurs] = lignes;
+            motifs[nbErreurs++] = motif;
+        }
+
+        void deplacer(int de, int vers) {
+            noms[vers] = noms[de];
+            cles[vers] = cles[de];
+            prixachat[vers] = prixachat[de];
+            prixvente[vers] = prixvente[de];
+            quantite[vers] = quantite[de];
+            seuil[vers] = seuil[de];
+            prixstock[vers] = prixstock[de];
+            demande[vers] = demande[de];
+            lignesValides[vers] = lignesValides[de];
+        }
+    }
+
+    private static int finLigne(byte[] b, int debut, int fin) {
+        for (int i = debut; i < fin; i++) {
+            if (b[i] == '\n') {
+                return i;
+            }
+        }
+        return fin;
+    }
+
+    private static int derniereFinLigne(byte[] b, int fin) {
+        for (int i = fin - 1; i >= 0; i--) {
+            if (b[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static byte detecterSeparateur(byte[] b, int debut, int fin) {
+        int pointsVirgules = 0, virgules = 0;
+        for (int i = debut; i < fin; i++) {
+            if (b[i] == ';') pointsVirgules++;
+            else if (b[i] == ',') virgules++;
+        }
+        return pointsVirgules > 0 || virgules == 0 ? (byte) ';' : (byte) ',';
+    }
+
+    /**
+     * Une ligne d'en-tête n'a pas de prix d'achat numérique
+     */
+    private static boolean estEnTete(byte[] b, int debut, int fin, byte separateur) {
+        int i = debut;
+        while (i < fin && b[i] != separateur) {
+            i++;
+        }
+        i++;
+        while (i < fin && b[i] == ' ') {
+            i++;
+        }
+        return i < fin && !(b[i] >= '0' && b[i] <= '9') && b[i] != '-' && b[i] != '+' && b[i] != '.';
+    }
+}
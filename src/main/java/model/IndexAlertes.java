@@ -0,0 +1,263 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Index des produits ordonnés par criticité : rapport quantité / seuil
+ * (en alerte si rapport <= 1, à X % du seuil si rapport <= 1 + X/100).
+ * Tas binaire minimal indexé par slot, en tableaux primitifs : mise à jour
+ * en O(log n) ; les k produits les plus critiques (ou tous ceux sous un
+ * rapport donné) sont extraits dans l'ordre en O(k log k).
+ *
+ * Les écrivains ne touchent pas au tas : ils marquent le slot modifié
+ * (un CAS, sans verrou si le slot est déjà marqué). Les marques sont
+ * appliquées au tas avant chaque requête.
+ */
+class IndexAlertes {
+    private static final VarHandle MARQUES = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int ABSENT = -1;
+
+    private final Catalogue catalogue;
+
+    // Tas : position -> slot et clé
+    private int[] tas = new int[16];
+    private double[] cles = new double[16];
+    private int taille;
+    private int[] positions = new int[16];     // slot -> position dans le tas (ABSENT si hors tas)
+
+    // Slots modifiés en attente
+    private int[] marques = new int[16];       // slot -> 1 si marqué
+    private int[] attente = new int[16];
+    private int nbAttente;
+
+    IndexAlertes(Catalogue catalogue) {
+        this.catalogue = catalogue;
+        Arrays.fill(positions, ABSENT);
+    }
+
+    /**
+     * Rapport quantité / seuil ; un seuil nul ne met en alerte qu'un stock nul
+     */
+    static double rapport(int quantite, double seuil) {
+        if (seuil > 0) {
+            return quantite / seuil;
+        }
+        return quantite <= seuil ? 0 : Double.POSITIVE_INFINITY;
+    }
+
+    // Appelé sous verrou exclusif du catalogue
+    void reserver(int capaciteSlots) {
+        if (capaciteSlots > positions.length) {
+            int ancienne = positions.length;
+            positions = Arrays.copyOf(positions, capaciteSlots);
+            Arrays.fill(positions, ancienne, capaciteSlots, ABSENT);
+            marques = Arrays.copyOf(marques, capaciteSlots);
+        }
+    }
+
+    // Appelé sous verrou exclusif du catalogue
+    synchronized void ajouter(int slot) {
+        if (taille == tas.length) {
+            tas = Arrays.copyOf(tas, taille * 2);
+            cles = Arrays.copyOf(cles, taille * 2);
+        }
+        int i = taille++;
+        tas[i] = slot;
+        cles[i] = rapport(catalogue.getQuantite(slot), catalogue.getSeuil(slot));
+        positions[slot] = i;
+        monter(i);
+    }
+
+    // Appelé sous verrou exclusif du catalogue
+    synchronized void retirer(int slot) {
+        int i = positions[slot];
+        if (i == ABSENT) {
+            return;
+        }
+        positions[slot] = ABSENT;
+        int dernier = --taille;
+        if (i != dernier) {
+            tas[i] = tas[dernier];
+            cles[i] = cles[dernier];
+            positions[tas[i]] = i;
+            if (!monter(i)) {
+                descendre(i);
+            }
+        }
+    }
+
+    /**
+     * Quantité ou seuil du slot ont changé (appel concurrent, sous verrou partagé)
+     */
+    void marquer(int slot) {
+        if (MARQUES.compareAndSet(marques, slot, 0, 1)) {
+            synchronized (this) {
+                if (nbAttente == attente.length) {
+                    attente = Arrays.copyOf(attente, nbAttente * 2);
+                }
+                attente[nbAttente++] = slot;
+            }
+        }
+    }
+
+    /**
+     * Applique les modifications en attente au tas
+     * La marque est levée avant de relire la clé : une modification
+     * ultérieure marquera de nouveau le slot.
+     */
+    private void appliquer() {
+        for (int k = 0; k < nbAttente; k++) {
+            int slot = attente[k];
+            MARQUES.setVolatile(marques, slot, 0);
+            int i = positions[slot];
+            if (i == ABSENT) {
+                continue;
+            }
+            double cle = rapport(catalogue.getQuantite(slot), catalogue.getSeuil(slot));
+            double ancienne = cles[i];
+            cles[i] = cle;
+            if (cle < ancienne) {
+                monter(i);
+            } else if (cle > ancienne) {
+                descendre(i);
+            }
+        }
+        nbAttente = 0;
+    }
+
+    /**
+     * Slots dont le rapport est <= rapportMax, du plus critique au moins critique
+     * Appelé sous verrou partagé du catalogue.
+     */
+    synchronized int[] slotsSous(double rapportMax) {
+        appliquer();
+        return parcourir(Integer.MAX_VALUE, rapportMax);
+    }
+
+    /**
+     * Les k slots les plus critiques, du plus critique au moins critique
+     * Appelé sous verrou partagé du catalogue.
+     */
+    synchronized int[] plusCritiques(int k) {
+        appliquer();
+        return parcourir(k, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Extrait dans l'ordre au plus max slots de rapport <= rapportMax, sans modifier le tas
+     * Un tas auxiliaire de positions candidates reçoit la racine, puis les
+     * fils de chaque position extraite : O(k log k) pour k résultats.
+     */
+    private int[] parcourir(int max, double rapportMax) {
+        int[] resultat = new int[Math.min(max, 64)];
+        int n = 0;
+        int[] candidats = new int[16];
+        int nbCandidats = 0;
+        if (taille > 0) {
+            candidats[nbCandidats++] = 0;
+        }
+        while (n < max && nbCandidats > 0 && cles[candidats[0]] <= rapportMax) {
+            int i = candidats[0];
+            candidats[0] = candidats[--nbCandidats];
+            if (n == resultat.length) {
+                resultat = Arrays.copyOf(resultat, (int) Math.min(max, 2L * n));
+            }
+            descendreCandidat(candidats, nbCandidats, 0);
+            resultat[n++] = tas[i];
+            if (nbCandidats + 2 > candidats.length) {
+                candidats = Arrays.copyOf(candidats, candidats.length * 2);
+            }
+            int g = 2 * i + 1;
+            if (g < taille) {
+                candidats[nbCandidats] = g;
+                monterCandidat(candidats, nbCandidats++);
+            }
+            if (g + 1 < taille) {
+                candidats[nbCandidats] = g + 1;
+                monterCandidat(candidats, nbCandidats++);
+            }
+        }
+        return n == resultat.length ? resultat : Arrays.copyOf(resultat, n);
+    }
+
+    private boolean monter(int i) {
+        int depart = i;
+        int slot = tas[i];
+        double cle = cles[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (cles[parent] <= cle) {
+                break;
+            }
+            tas[i] = tas[parent];
+            cles[i] = cles[parent];
+            positions[tas[i]] = i;
+            i = parent;
+        }
+        tas[i] = slot;
+        cles[i] = cle;
+        positions[slot] = i;
+        return i != depart;
+    }
+
+    private void descendre(int i) {
+        int slot = tas[i];
+        double cle = cles[i];
+        while (true) {
+            int g = 2 * i + 1;
+            if (g >= taille) {
+                break;
+            }
+            int fils = g + 1 < taille && cles[g + 1] < cles[g] ? g + 1 : g;
+            if (cles[fils] >= cle) {
+                break;
+            }
+            tas[i] = tas[fils];
+            cles[i] = cles[fils];
+            positions[tas[i]] = i;
+            i = fils;
+        }
+        tas[i] = slot;
+        cles[i] = cle;
+        positions[slot] = i;
+    }
+
+    private void monterCandidat(int[] c, int i) {
+        int p = c[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (cles[c[parent]] <= cles[p]) {
+                break;
+            }
+            c[i] = c[parent];
+            i = parent;
+        }
+        c[i] = p;
+    }
+
+    private void descendreCandidat(int[] c, int n, int i) {
+        if (n == 0) {
+            return;
+        }
+        int p = c[i];
+        while (true) {
+            int g = 2 * i + 1;
+            if (g >= n) {
+                break;
+            }
+            int fils = g + 1 < n && cles[c[g + 1]] < cles[c[g]] ? g + 1 : g;
+            if (cles[c[fils]] >= cles[p]) {
+                break;
+            }
+            c[i] = c[fils];
+            i = fils;
+        }
+        c[i] = p;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+/**
+ * Table de hachage à adressage ouvert : identifiant produit -> slot
+ * Sondage linéaire sur des tableaux primitifs (aucun objet par entrée).
+ * La suppression décale les entrées suivantes (backward shift) : pas de
+ * pierres tombales, donc jamais de reconstruction après des suppressions.
+ */
+class IndexIds {
+    private static final long VIDE = 0;   // les identifiants commencent à 1
+
+    private long[] cles;
+    private int[] valeurs;
+    private int masque;
+    private int taille;
+
+    IndexIds() {
+        this(16);
+    }
+
+    IndexIds(int capaciteAttendue) {
+        int n = Integer.highestOneBit(Math.max(capaciteAttendue * 2 - 1, 16)) << 1;
+        cles = new long[n];
+        valeurs = new int[n];
+        masque = n - 1;
+    }
+
+    int taille() {
+        return taille;
+    }
+
+    /**
+     * @return slot associé, ou -1 si l'identifiant est absent
+     */
+    int get(long id) {
+        if (id == VIDE) {
+            return -1;
+        }
+        int i = position(id);
+        while (true) {
+            long k = cles[i];
+            if (k == id) {
+                return valeurs[i];
+            }
+            if (k == VIDE) {
+                return -1;
+            }
+            i = (i + 1) & masque;
+        }
+    }
+
+    void put(long id, int slot) {
+        if (id == VIDE) {
+            throw new IllegalArgumentException("Identifiant invalide: " + id);
+        }
+        if ((taille + 1) * 2 > cles.length) {
+            agrandir();
+        }
+        int i = position(id);
+        while (cles[i] != VIDE) {
+            if (cles[i] == id) {
+                valeurs[i] = slot;
+                return;
+            }
+            i = (i + 1) & masque;
+        }
+        cles[i] = id;
+        valeurs[i] = slot;
+        taille++;
+    }
+
+    /**
+     * Supprime un identifiant en O(1) amorti
+     * @return slot qui était associé, ou -1
+     */
+    int remove(long id) {
+        if (id == VIDE) {
+            return -1;
+        }
+        int i = position(id);
+        while (cles[i] != id) {
+            if (cles[i] == VIDE) {
+                return -1;
+            }
+            i = (i + 1) & masque;
+        }
+        int ancien = valeurs[i];
+        taille--;
+
+        // Recule les entrées de la même grappe qui peuvent combler le trou
+        int trou = i;
+        int j = (i + 1) & masque;
+        while (cles[j] != VIDE) {
+            int ideal = position(cles[j]);
+            if (((j - ideal) & masque) >= ((j - trou) & masque)) {
+                cles[trou] = cles[j];
+                valeurs[trou] = valeurs[j];
+                trou = j;
+            }
+            j = (j + 1) & masque;
+        }
+        cles[trou] = VIDE;
+        return ancien;
+    }
+
+    private int position(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & masque;
+    }
+
+    private void agrandir() {
+        long[] anciennesCles = cles;
+        int[] anciennesValeurs = valeurs;
+        cles = new long[anciennesCles.length * 2];
+        valeurs = new int[cles.length];
+        masque = cles.length - 1;
+        taille = 0;
+        for (int i = 0; i < anciennesCles.length; i++) {
+            if (anciennesCles[i] != VIDE) {
+                put(anciennesCles[i], anciennesValeurs[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Locale;
+
+/**
+ * Index des noms : clé en minuscules -> slot, sans objet par entrée
+ * Seuls le hachage de la clé et le slot sont conservés (tableaux primitifs) ;
+ * les collisions sont départagées en relisant le nom dans le catalogue.
+ * Adressage ouvert, suppression par décalage arrière comme IndexIds.
+ */
+class IndexNoms {
+    private static final int VIDE = -1;
+
+    private final Catalogue catalogue;
+    private int[] hachages;
+    private int[] slots;
+    private int masque;
+    private int taille;
+
+    IndexNoms(Catalogue catalogue) {
+        this.catalogue = catalogue;
+        hachages = new int[32];
+        slots = new int[32];
+        java.util.Arrays.fill(slots, VIDE);
+        masque = 31;
+    }
+
+    /**
+     * Vide l'index en le dimensionnant pour le nombre de clés attendu
+     */
+    void vider(int capaciteAttendue) {
+        int n = Integer.highestOneBit(Math.max(capaciteAttendue * 2, 16) - 1) << 1;
+        hachages = new int[n];
+        slots = new int[n];
+        java.util.Arrays.fill(slots, VIDE);
+        masque = n - 1;
+        taille = 0;
+    }
+
+    static String cle(String nom) {
+        return nom.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return slot associé à la clé, ou -1
+     */
+    int get(String cle) {
+        int h = cle.hashCode();
+        int i = position(h);
+        while (slots[i] != VIDE) {
+            if (hachages[i] == h && cle.equals(cle(catalogue.getNom(slots[i])))) {
+                return slots[i];
+            }
+            i = (i + 1) & masque;
+        }
+        return -1;
+    }
+
+    /**
+     * Associe la clé au slot si elle est absente
+     * @return slot déjà associé à la clé, ou -1 si l'ajout a eu lieu
+     */
+    int putIfAbsent(String cle, int slot) {
+        int existant = get(cle);
+        if (existant >= 0) {
+            return existant;
+        }
+        if ((taille + 1) * 2 > slots.length) {
+            agrandir();
+        }
+        inserer(cle.hashCode(), slot);
+        taille++;
+        return -1;
+    }
+
+    /**
+     * Retire l'entrée d'un slot (le nom du slot doit encore être lisible)
+     */
+    void remove(String cle, int slot) {
+        int h = cle.hashCode();
+        int i = position(h);
+        while (slots[i] != slot) {
+            if (slots[i] == VIDE) {
+                return;
+            }
+            i = (i + 1) & masque;
+        }
+        taille--;
+        int trou = i;
+        int j = (i + 1) & masque;
+        while (slots[j] != VIDE) {
+            int ideal = position(hachages[j]);
+            if (((j - ideal) & masque) >= ((j - trou) & masque)) {
+                hachages[trou] = hachages[j];
+                slots[trou] = slots[j];
+                trou = j;
+            }
+            j = (j + 1) & masque;
+        }
+        slots[trou] = VIDE;
+    }
+
+    /**
+     * Remplace le slot associé à une clé, sans déplacer l'entrée (même clé, même hachage)
+     * @return false si le slot ancien n'était pas indexé sous cette clé
+     */
+    boolean remplacer(String cle, int ancien, int nouveau) {
+        int i = position(cle.hashCode());
+        while (slots[i] != ancien) {
+            if (slots[i] == VIDE) {
+                return false;
+            }
+            i = (i + 1) & masque;
+        }
+        slots[i] = nouveau;
+        return true;
+    }
+
+    private void inserer(int h, int slot) {
+        int i = position(h);
+        while (slots[i] != VIDE) {
+            i = (i + 1) & masque;
+        }
+        hachages[i] = h;
+        slots[i] = slot;
+    }
+
+    private int position(int h) {
+        int x = h * 0x9E3779B9;
+        return (x ^ (x >>> 16)) & masque;
+    }
+
+    private void agrandir() {
+        int[] anciensHachages = hachages;
+        int[] anciensSlots = slots;
+        hachages = new int[anciensSlots.length * 2];
+        slots = new int[hachages.length];
+        java.util.Arrays.fill(slots, VIDE);
+        masque = slots.length - 1;
+        for (int i = 0; i < anciensSlots.length; i++) {
+            if (anciensSlots[i] != VIDE) {
+                inserer(anciensHachages[i], anciensSlots[i]);
+            }
+        }
+    }
+}
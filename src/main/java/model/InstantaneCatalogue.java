@@ -0,0 +1,121 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * Instantané immuable et versionné d'un catalogue
+ * Les colonnes sont copiées dans l'ordre d'affichage ; un lecteur qui garde
+ * l'instantané voit un catalogue cohérent, sans verrou, pendant que les
+ * modifications continuent sur le catalogue vivant.
+ */
+public final class InstantaneCatalogue {
+    private final long version;
+    private final long[] ids;
+    private final String[] noms;
+    private final double[] prixachat;
+    private final double[] prixvente;
+    private final int[] quantite;
+    private final double[] seuil;
+    private final double[] prixstock;
+    private final int[] demandeEstimee;
+    private final double valeurTotale;
+    private final double sommePrixachat;
+    private final List<Produits> produits = new VueProduits();
+
+    /**
+     * Copie l'état du catalogue ; l'appelant garantit qu'aucune modification n'a lieu
+     */
+    InstantaneCatalogue(Catalogue catalogue, long version) {
+        this.version = version;
+        int n = catalogue.taille();
+        ids = new long[n];
+        noms = new String[n];
+        prixachat = new double[n];
+        prixvente = new double[n];
+        quantite = new int[n];
+        seuil = new double[n];
+        prixstock = new double[n];
+        demandeEstimee = new int[n];
+        double valeur = 0, somme = 0;
+        for (int i = 0; i < n; i++) {
+            int s = catalogue.slot(i);
+            ids[i] = catalogue.getId(s);
+            noms[i] = catalogue.getNom(s);
+            prixachat[i] = catalogue.getPrixachat(s);
+            prixvente[i] = catalogue.getPrixvente(s);
+            quantite[i] = catalogue.getQuantite(s);
+            seuil[i] = catalogue.getSeuil(s);
+            prixstock[i] = catalogue.getPrixstock(s);
+            demandeEstimee[i] = catalogue.getDemandeEstimee(s);
+            valeur += quantite[i] * prixachat[i];
+            somme += prixachat[i];
+        }
+        valeurTotale = valeur;
+        sommePrixachat = somme;
+    }
+
+    /**
+     * Version du catalogue au moment de la copie
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int taille() {
+        return ids.length;
+    }
+
+    /**
+     * Valeur totale du stock de l'instantané (calcul exact)
+     */
+    public double getValeurTotale() {
+        return valeurTotale;
+    }
+
+    double getSommePrixachat() {
+        return sommePrixachat;
+    }
+
+    public long getId(int index) { return ids[index]; }
+    public String getNom(int index) { return noms[index]; }
+    public double getPrixachat(int index) { return prixachat[index]; }
+    public double getPrixvente(int index) { return prixvente[index]; }
+    public int getQuantite(int index) { return quantite[index]; }
+    public double getSeuil(int index) { return seuil[index]; }
+    public double getPrixstock(int index) { return prixstock[index]; }
+    public int getDemandeEstimee(int index) { return demandeEstimee[index]; }
+
+    // Colonnes partagées avec les calculs en lot du paquetage (lecture seule)
+    long[] colonneIds() { return ids; }
+    double[] colonnePrixachat() { return prixachat; }
+    int[] colonneQuantite() { return quantite; }
+    double[] colonneSeuil() { return seuil; }
+    double[] colonnePrixstock() { return prixstock; }
+    int[] colonneDemande() { return demandeEstimee; }
+
+    /**
+     * Liste des produits de l'instantané
+     * Chaque élément est une copie détachée : la modifier n'a aucun effet sur le catalogue.
+     */
+    public List<Produits> getProduits() {
+        return produits;
+    }
+
+    private class VueProduits extends AbstractList<Produits> {
+        @Override
+        public Produits get(int index) {
+            return new Produits(ids[index], noms[index], prixachat[index], prixvente[index], quantite[index],
+                                seuil[index], prixstock[index], demandeEstimee[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal append-only des mouvements de stock, dans un fichier mappé en mémoire
+ * Le fichier est découpé en blocs de TAILLE_BLOC octets mappés à la demande ;
+ * un enregistrement ne chevauche jamais deux blocs.
+ *
+ * Format binaire (little-endian), l'octet de type étant écrit en dernier :
+ * - mouvement (24 octets) : type(1) pad(3) quantite(4) id(8) horodatage(8)
+ * - ligne produit (CREATION, MODIFICATION) : type(1) pad(1) longueurNom(2)
+ *   quantite(4) id(8) horodatage(8) prixachat(8) prixvente(8) seuil(8)
+ *   prixstock(8) demande(4) nom UTF-8, complété à un multiple de 8 octets
+ * Un type 0 marque la fin du journal, FIN_BLOC le saut au bloc suivant.
+ *
+ * Durabilité : un bloc est forcé sur disque puis démappé quand l'écriture
+ * passe au suivant ; le bloc courant l'est par forcer(), périodiquement
+ * (forcerPeriodiquement) et à la fermeture. Entre deux forçages, les derniers
+ * enregistrements ne sont que dans le cache de pages du système.
+ */
+public class JournalMouvements implements AutoCloseable {
+
+    /**
+     * Types de mouvements enregistrés
+     */
+    public enum TypeMouvement {
+        CREATION(1), SUPPRESSION(2), VENTE(3), RECEPTION(4), AJUSTEMENT(5), MODIFICATION(6);
+
+        final byte code;
+
+        TypeMouvement(int code) {
+            this.code = (byte) code;
+        }
+
+        static TypeMouvement depuisCode(byte code) {
+            for (TypeMouvement t : values()) {
+                if (t.code == code) {
+                    return t;
+                }
+            }
+            throw new IllegalStateException("Type de mouvement inconnu: " + code);
+        }
+    }
+
+    static final long TAILLE_BLOC = 64L << 20;
+    private static final byte FIN = 0;
+    private static final byte FIN_BLOC = 0x7F;
+    private static final int TAILLE_MOUVEMENT = 24;
+    private static final int ENTETE_LIGNE = 60;
+
+    private final FileChannel canal;
+    private Arena arene;            // mapping du bloc courant, libéré au changement de bloc
+    private MemorySegment segment;
+    private ByteBuffer bloc;
+    private long debutBloc;
+    private long nombre;            // enregistrements écrits depuis l'ouverture
+    private long nombreForce;       // enregistrements déjà forcés sur disque
+    private ScheduledExecutorService forcage;
+
+    /**
+     * Ouvre (ou crée) un journal ; l'écriture reprend après le dernier enregistrement complet
+     */
+    public JournalMouvements(Path fichier) throws IOException {
+        canal = FileChannel.open(fichier, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                 StandardOpenOption.WRITE);
+        debutBloc = 0;
+        mapper(0);
+        // Avance jusqu'à la fin des données déjà présentes
+        while (true) {
+            byte type = bloc.get(bloc.position());
+            if (type == FIN) {
+                break;
+            }
+            if (type == FIN_BLOC) {
+                mapper(debutBloc + TAILLE_BLOC);
+                continue;
+            }
+            bloc.position(bloc.position() + tailleEnregistrement(bloc, bloc.position()));
+        }
+    }
+
+    // Force et démappe le bloc courant, puis mappe celui qui commence à debut
+    private void mapper(long debut) throws IOException {
+        Arena precedente = arene;
+        if (segment != null) {
+            segment.force();
+        }
+        arene = Arena.ofShared();
+        segment = canal.map(FileChannel.MapMode.READ_WRITE, debut, TAILLE_BLOC, arene);
+        bloc = segment.asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        debutBloc = debut;
+        if (precedente != null) {
+            precedente.close();
+        }
+    }
+
+    private static int tailleEnregistrement(ByteBuffer b, int pos) {
+        byte type = b.get(pos);
+        if (type == TypeMouvement.CREATION.code || type == TypeMouvement.MODIFICATION.code) {
+            return arrondir8(ENTETE_LIGNE + (b.getShort(pos + 2) & 0xFFFF));
+        }
+        return TAILLE_MOUVEMENT;
+    }
+
+    private static int arrondir8(int n) {
+        return (n + 7) & ~7;
+    }
+
+    /**
+     * Réserve la place d'un enregistrement dans le bloc courant (ou le suivant)
+     * @return position de l'enregistrement dans le bloc courant
+     */
+    private int reserver(int taille) throws IOException {
+        if (bloc.remaining() < taille + 1) {
+            bloc.put(bloc.position(), FIN_BLOC);
+            mapper(debutBloc + TAILLE_BLOC);
+        }
+        int pos = bloc.position();
+        bloc.position(pos + taille);
+        nombre++;
+        return pos;
+    }
+
+    /**
+     * Enregistre un mouvement de quantité (vente, réception, ajustement, suppression)
+     */
+    public synchronized void enregistrer(TypeMouvement type, long id, int quantite) throws IOException {
+        int pos = reserver(TAILLE_MOUVEMENT);
+        bloc.putInt(pos + 4, quantite);
+        bloc.putLong(pos + 8, id);
+        bloc.putLong(pos + 16, System.currentTimeMillis());
+        bloc.put(pos, type.code);
+    }
+
+    /**
+     * Enregistre l'état complet d'un produit (création ou modification)
+     */
+    public synchronized void enregistrerLigne(TypeMouvement type, long id, String nom, double prixachat,
+                                              double prixvente, int quantite, double seuil, double prixstock,
+                                              int demandeEstimee) throws IOException {
+        byte[] octets = nom.getBytes(StandardCharsets.UTF_8);
+        if (octets.length > 0xFFFF) {
+            throw new IllegalArgumentException("Nom trop long pour le journal: " + octets.length + " octets");
+        }
+        int pos = reserver(arrondir8(ENTETE_LIGNE + octets.length));
+        bloc.putShort(pos + 2, (short) octets.length);
+        bloc.putInt(pos + 4, quantite);
+        bloc.putLong(pos + 8, id);
+        bloc.putLong(pos + 16, System.currentTimeMillis());
+        bloc.putDouble(pos + 24, prixachat);
+        bloc.putDouble(pos + 32, prixvente);
+        bloc.putDouble(pos + 40, seuil);
+        bloc.putDouble(pos + 48, prixstock);
+        bloc.putInt(pos + 56, demandeEstimee);
+        bloc.put(pos + ENTETE_LIGNE, octets);
+        bloc.put(pos, type.code);
+    }
+
+    /**
+     * Nombre d'enregistrements écrits depuis l'ouverture
+     */
+    public synchronized long getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Force l'écriture sur disque du bloc courant (les blocs précédents le sont déjà)
+     */
+    public synchronized void forcer() {
+        if (canal.isOpen() && nombreForce != nombre) {
+            segment.force();
+            nombreForce = nombre;
+        }
+    }
+
+    /**
+     * Force le journal toutes les periodeMs millisecondes (thread démon), jusqu'à la fermeture
+     */
+    public synchronized void forcerPeriodiquement(long periodeMs) {
+        if (periodeMs <= 0) {
+            throw new IllegalArgumentException("Période invalide: " + periodeMs + " ms");
+        }
+        if (forcage != null) {
+            forcage.shutdown();
+        }
+        forcage = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "forcage-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        forcage.scheduleWithFixedDelay(this::forcer, periodeMs, periodeMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Force le bloc courant sur disque, le démappe et ferme le fichier
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (forcage != null) {
+            forcage.shutdown();
+            forcage = null;
+        }
+        if (!canal.isOpen()) {
+            return;
+        }
+        segment.force();
+        nombreForce = nombre;
+        arene.close();
+        canal.close();
+    }
+
+    /**
+     * Reconstruit un catalogue en rejouant tous les mouvements d'un journal
+     * Les identifiants d'origine sont conservés.
+     * @return nombre d'enregistrements rejoués
+     */
+    public static long rejouer(Path fichier, Catalogue catalogue) throws IOException {
+        return parcourir(fichier, (b, pos) -> appliquer(b, pos, catalogue));
+    }
+
+    /**
+     * Reçoit les ventes d'un journal, dans l'ordre d'écriture
+     */
+    interface RecepteurVente {
+        void vente(long id, int quantite, long horodatage);
+    }
+
+    /**
+     * Parcourt les seules ventes d'un journal (historique de la demande)
+     */
+    static void parcourirVentes(Path fichier, RecepteurVente recepteur) throws IOException {
+        parcourir(fichier, (b, pos) -> {
+            if (b.get(pos) == TypeMouvement.VENTE.code) {
+                recepteur.vente(b.getLong(pos + 8), b.getInt(pos + 4), b.getLong(pos + 16));
+            }
+        });
+    }
+
+    private interface Lecteur {
+        void lire(ByteBuffer b, int pos);
+    }
+
+    // Lit chaque enregistrement complet du journal ; renvoie le nombre d'enregistrements lus
+    private static long parcourir(Path fichier, Lecteur lecteur) throws IOException {
+        long lus = 0;
+        try (FileChannel lecture = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            long taille = lecture.size();
+            for (long debut = 0; debut < taille; debut += TAILLE_BLOC) {
+                // Chaque bloc est démappé dès qu'il a été lu
+                try (Arena arena = Arena.ofConfined()) {
+                    ByteBuffer b = lecture.map(FileChannel.MapMode.READ_ONLY, debut,
+                                               Math.min(TAILLE_BLOC, taille - debut), arena)
+                                          .asByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+                    int pos = 0;
+                    while (pos < b.limit()) {
+                        byte code = b.get(pos);
+                        if (code == FIN) {
+                            return lus;
+                        }
+                        if (code == FIN_BLOC) {
+                            break;
+                        }
+                        lecteur.lire(b, pos);
+                        lus++;
+                        pos += tailleEnregistrement(b, pos);
+                    }
+                }
+            }
+        }
+        return lus;
+    }
+
+    private static void appliquer(ByteBuffer b, int pos, Catalogue catalogue) {
+        TypeMouvement type = TypeMouvement.depuisCode(b.get(pos));
+        int quantite = b.getInt(pos + 4);
+        long id = b.getLong(pos + 8);
+        switch (type) {
+            case CREATION:
+            case MODIFICATION: {
+                byte[] octets = new byte[b.getShort(pos + 2) & 0xFFFF];
+                b.get(pos + ENTETE_LIGNE, octets);
+                String nom = new String(octets, StandardCharsets.UTF_8);
+                double prixachat = b.getDouble(pos + 24);
+                double prixvente = b.getDouble(pos + 32);
+                double seuil = b.getDouble(pos + 40);
+                double prixstock = b.getDouble(pos + 48);
+                int demande = b.getInt(pos + 56);
+                if (type == TypeMouvement.CREATION) {
+                    catalogue.ajouterAvecId(id, nom, prixachat, prixvente, quantite, seuil, prixstock, demande);
+                } else {
+                    int s = catalogue.slotParId(id);
+                    if (s >= 0) {
+                        if (!nom.equals(catalogue.getNom(s))) {
+                            catalogue.setNom(s, nom);
+                        }
+                        catalogue.setPrixachat(s, prixachat);
+                        catalogue.setPrixvente(s, prixvente);
+                        catalogue.setPrixstock(s, prixstock);
+                        catalogue.modifierLigne(id, quantite, seuil, demande);
+                    }
+                }
+                break;
+            }
+            case SUPPRESSION:
+                catalogue.supprimerParId(id);
+                break;
+            case VENTE:
+                catalogue.ajusterStock(id, -quantite);
+                break;
+            case RECEPTION:
+            case AJUSTEMENT:
+                catalogue.ajusterStock(id, quantite);
+                break;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+/**
+ * Noyau de calcul des recommandations sur des colonnes entières
+ * (demande, quantité, seuil, prix d'achat, coût de stockage) :
+ * EOQ, seuil automatique, besoin de réapprovisionnement, quantités.
+ *
+ * Utilise l'API vectorielle (jdk.incubator.vector) quand le module est chargé
+ * (--add-modules jdk.incubator.vector) ; sinon, ou avec -Dvectoriel=false,
+ * la version scalaire est utilisée. Les deux donnent des résultats identiques
+ * au bit près à Produits.recommanderReapprovisionnement.
+ */
+public final class NoyauRecommandation {
+    private static final boolean VECTORIEL = detecter();
+
+    private NoyauRecommandation() {
+    }
+
+    private static boolean detecter() {
+        if (!Boolean.parseBoolean(System.getProperty("vectoriel", "true"))
+                || ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return NoyauRecommandationVectoriel.disponible();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Indique si le calcul vectoriel est actif
+     */
+    public static boolean isVectoriel() {
+        return VECTORIEL;
+    }
+
+    /**
+     * Calcule les recommandations des éléments [debut, fin) des colonnes
+     * Les résultats sont écrits aux mêmes index dans les tableaux de sortie.
+     */
+    public static void calculer(int[] demande, int[] quantite, double[] seuil, double[] prixachat,
+                                double[] prixstock, int debut, int fin,
+                                int[] sold, int[] shortage, boolean[] needReorder,
+                                int[] reorderQty, int[] thresholdAuto, int[] eoq) {
+        int i = debut;
+        if (VECTORIEL) {
+            i = NoyauRecommandationVectoriel.calculer(demande, quantite, seuil, prixachat, prixstock, debut, fin,
+                                                      sold, shortage, needReorder, reorderQty, thresholdAuto, eoq);
+        }
+        calculerScalaire(demande, quantite, seuil, prixachat, prixstock, i, fin,
+                         sold, shortage, needReorder, reorderQty, thresholdAuto, eoq);
+    }
+
+    /**
+     * Version scalaire de référence (même arithmétique que recommanderReapprovisionnement)
+     */
+    public static void calculerScalaire(int[] demande, int[] quantite, double[] seuil, double[] prixachat,
+                                        double[] prixstock, int debut, int fin,
+                                        int[] sold, int[] shortage, boolean[] needReorder,
+                                        int[] reorderQty, int[] thresholdAuto, int[] eoq) {
+        for (int i = debut; i < fin; i++) {
+            int d = demande[i];
+            int q = quantite[i];
+            int seuilAuto = Produits.seuilAuto(d, seuil[i]);
+            thresholdAuto[i] = seuilAuto;
+            if (d > q) {
+                int e = Produits.eoq(d, prixachat[i], prixstock[i]);
+                sold[i] = q;
+                shortage[i] = d - q;
+                needReorder[i] = true;
+                eoq[i] = e;
+                reorderQty[i] = d - q + e;
+            } else if (q <= seuilAuto) {
+                int e = Produits.eoq(d, prixachat[i], prixstock[i]);
+                sold[i] = d;
+                shortage[i] = 0;
+                needReorder[i] = true;
+                eoq[i] = e;
+                reorderQty[i] = e;
+            } else {
+                sold[i] = d;
+                shortage[i] = 0;
+                needReorder[i] = false;
+                eoq[i] = 0;
+                reorderQty[i] = 0;
+            }
+        }
+    }
+}
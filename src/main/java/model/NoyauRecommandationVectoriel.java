@@ -0,0 +1,96 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Version vectorielle du noyau de recommandation
+ * Les doubles sont traités sur l'espèce préférée de la machine, les entiers
+ * sur une espèce de même nombre de voies. Les opérations utilisées (produit,
+ * division, racine, conversions) sont arrondies comme en scalaire ; le
+ * plafond est calculé par troncature puis correction, et les conversions
+ * vers int saturent comme le cast Java : résultats identiques au bit près.
+ * Ne charger que si le module jdk.incubator.vector est présent.
+ */
+final class NoyauRecommandationVectoriel {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = DOUBLES.withLanes(long.class);
+    private static final VectorSpecies<Integer> ENTIERS = DOUBLES.length() >= 2
+            ? VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2))
+            : null;
+
+    private NoyauRecommandationVectoriel() {
+    }
+
+    static boolean disponible() {
+        return ENTIERS != null && ENTIERS.length() == DOUBLES.length();
+    }
+
+    /**
+     * Traite les blocs complets de [debut, fin)
+     * @return index du premier élément non traité (reste à faire en scalaire)
+     */
+    static int calculer(int[] demande, int[] quantite, double[] seuil, double[] prixachat,
+                        double[] prixstock, int debut, int fin,
+                        int[] sold, int[] shortage, boolean[] needReorder,
+                        int[] reorderQty, int[] thresholdAuto, int[] eoq) {
+        int voies = DOUBLES.length();
+        int i = debut;
+        for (; i + voies <= fin; i += voies) {
+            IntVector d = IntVector.fromArray(ENTIERS, demande, i);
+            IntVector q = IntVector.fromArray(ENTIERS, quantite, i);
+
+            // Seuil automatique : max(ceil(d * 0.75), ceil(seuil))
+            DoubleVector dd = versDoubles(d);
+            IntVector seuilAuto = plafondEntier(dd.mul(0.75))
+                    .max(plafondEntier(DoubleVector.fromArray(DOUBLES, seuil, i)));
+
+            VectorMask<Integer> penurie = d.compare(VectorOperators.GT, q);
+            VectorMask<Integer> besoin = penurie.or(q.compare(VectorOperators.LE, seuilAuto));
+
+            // EOQ : ceil(sqrt(2 * max(d, 1) * S / H)), coût <= 0 remplacé par 1
+            DoubleVector h = DoubleVector.fromArray(DOUBLES, prixstock, i);
+            h = h.blend(1.0, h.compare(VectorOperators.LE, 0.0));
+            DoubleVector s = DoubleVector.fromArray(DOUBLES, prixachat, i);
+            s = s.blend(1.0, s.compare(VectorOperators.LE, 0.0));
+            DoubleVector dm = versDoubles(d.max(1));
+            IntVector e = plafondEntier(dm.mul(2.0).mul(s).div(h).lanewise(VectorOperators.SQRT));
+            e = IntVector.zero(ENTIERS).blend(e, besoin);
+
+            IntVector manque = d.sub(q);
+            IntVector zero = IntVector.zero(ENTIERS);
+            d.blend(q, penurie).intoArray(sold, i);
+            zero.blend(manque, penurie).intoArray(shortage, i);
+            besoin.intoArray(needReorder, i);
+            e.add(zero.blend(manque, penurie)).intoArray(reorderQty, i);
+            seuilAuto.intoArray(thresholdAuto, i);
+            e.intoArray(eoq, i);
+        }
+        return i;
+    }
+
+    private static DoubleVector versDoubles(IntVector v) {
+        return (DoubleVector) v.convertShape(VectorOperators.I2D, DOUBLES, 0);
+    }
+
+    /**
+     * (int) Math.ceil(x) voie par voie
+     * Troncature par conversion en long (saturante, NaN -> 0), +1 si la
+     * troncature est sous x, puis conversion saturante en int.
+     */
+    private static IntVector plafondEntier(DoubleVector x) {
+        LongVector l = (LongVector) x.convertShape(VectorOperators.D2L, LONGS, 0);
+        DoubleVector t = (DoubleVector) l.convertShape(VectorOperators.L2D, DOUBLES, 0);
+        t = t.add(1.0, t.compare(VectorOperators.LT, x));
+        return (IntVector) t.convertShape(VectorOperators.D2I, ENTIERS, 0);
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prévision incrémentale de la demande de chaque produit
+ * La demande est cumulée par jour ; à la clôture d'un jour, deux modèles sont
+ * mis à jour : lissage exponentiel simple (niveau) et Holt (niveau + tendance).
+ * Chaque vente coûte O(1) : les jours sans vente écoulés depuis la dernière
+ * sont appliqués d'un coup (puissance de (1-α) pour le lissage simple, puissance
+ * de la matrice de Holt par élévation au carré pour Holt).
+ *
+ * L'état est rangé par slot du catalogue dans deux tableaux primitifs
+ * entrelacés (compteurs, puis niveaux et tendance) : une vente ne touche
+ * qu'une ligne de cache tant que le jour ne change pas. Un slot
+ * réutilisé par un autre produit (identifiant différent) repart de zéro. Le
+ * niveau initial est la demande estimée saisie, ramenée au jour.
+ * La prévision d'une période est la somme des prévisions journalières sur
+ * joursParPeriode jours, comparable à demandeEstimee.
+ *
+ * Concurrence : ventes et lectures de produits différents avancent en
+ * parallèle (verrous par groupe de slots) ; l'agrandissement des tableaux
+ * prend le verrou exclusif.
+ */
+public final class PrevisionDemande {
+    private static final long MS_PAR_JOUR = 86_400_000L;
+    private static final int GROUPES = 64;              // verrous par groupe de slots (puissance de 2)
+
+    // Compteurs d'un slot (long[], pas C) : produit suivi (0 : aucun), jour en cours de cumul,
+    // demande du jour en cours, jours clos (observations)
+    private static final int C = 4, ID = 0, JOUR = 1, CUMUL = 2, CLOS = 3;
+    // État d'un slot (double[], pas E) : niveau du lissage simple, niveau et tendance de Holt
+    private static final int E = 3, SIMPLE = 0, NIVEAU = 1, TENDANCE = 2;
+
+    /**
+     * Modèle de prévision
+     */
+    public enum Methode {
+        LISSAGE_SIMPLE("Lissage exponentiel"),
+        HOLT("Holt (tendance)");
+
+        private final String libelle;
+
+        Methode(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    private final double alpha;
+    private final double beta;
+    private final int joursParPeriode;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final Object[] groupes = new Object[GROUPES];
+
+    private long[] compteurs = new long[0];
+    private double[] etat = new double[0];
+    private int capacite;
+
+    /**
+     * @param alpha lissage du niveau, dans ]0, 1]
+     * @param beta lissage de la tendance (Holt), dans ]0, 1]
+     * @param joursParPeriode jours couverts par une prévision (période de demandeEstimee)
+     */
+    public PrevisionDemande(double alpha, double beta, int joursParPeriode) {
+        if (!(alpha > 0 && alpha <= 1) || !(beta > 0 && beta <= 1) || joursParPeriode <= 0) {
+            throw new IllegalArgumentException("Paramètres de prévision invalides: alpha " + alpha
+                    + ", beta " + beta + ", période " + joursParPeriode + " j");
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+        this.joursParPeriode = joursParPeriode;
+        for (int g = 0; g < GROUPES; g++) {
+            groupes[g] = new Object();
+        }
+    }
+
+    public double getAlpha() { return alpha; }
+    public double getBeta() { return beta; }
+    public int getJoursParPeriode() { return joursParPeriode; }
+
+    /**
+     * Jour (depuis l'époque) d'un horodatage en millisecondes
+     */
+    public static int jour(long instant) {
+        return (int) Math.floorDiv(instant, MS_PAR_JOUR);
+    }
+
+    /**
+     * Enregistre une demande (vente) pour le produit d'un slot, en O(1)
+     * @param demandeEstimee demande par période saisie, sert de niveau initial au premier événement
+     * @param instant horodatage en millisecondes ; un événement antérieur au jour en cours compte pour ce jour
+     */
+    public void enregistrer(int slot, long id, int quantite, int demandeEstimee, long instant) {
+        if (slot < 0 || quantite <= 0) {
+            return;
+        }
+        int j = jour(instant);
+        verrou.readLock().lock();
+        try {
+            while (slot >= capacite) {
+                verrou.readLock().unlock();
+                try {
+                    agrandir(slot + 1);
+                } finally {
+                    verrou.readLock().lock();
+                }
+            }
+            synchronized (groupes[slot & (GROUPES - 1)]) {
+                int c = slot * C;
+                if (compteurs[c + ID] != id) {
+                    initialiser(slot, id, demandeEstimee, j);
+                } else if (j > compteurs[c + JOUR]) {
+                    cloturer(slot, j);
+                }
+                compteurs[c + CUMUL] = Math.min(Integer.MAX_VALUE, compteurs[c + CUMUL] + quantite);
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Prévision de la demande de la prochaine période pour le produit d'un slot
+     * Le jour en cours (incomplet) n'est pas pris en compte.
+     * @return prévision, ou -1 si aucune vente n'a encore été observée pour ce produit
+     */
+    public double prevoir(int slot, long id, Methode methode, long instant) {
+        if (slot < 0) {
+            return -1;
+        }
+        verrou.readLock().lock();
+        try {
+            if (slot >= capacite) {
+                return -1;
+            }
+            double niveau;
+            double tendance;
+            synchronized (groupes[slot & (GROUPES - 1)]) {
+                int c = slot * C;
+                int e = slot * E;
+                if (compteurs[c + ID] != id) {
+                    return -1;
+                }
+                long ecart = jour(instant) - compteurs[c + JOUR];
+                double y = compteurs[c + CUMUL];
+                if (methode == Methode.LISSAGE_SIMPLE) {
+                    niveau = etat[e + SIMPLE];
+                    if (ecart > 0) {
+                        niveau = (alpha * y + (1 - alpha) * niveau) * Math.pow(1 - alpha, ecart - 1);
+                    }
+                    tendance = 0;
+                } else {
+                    double[] lt = {etat[e + NIVEAU], etat[e + TENDANCE]};
+                    if (ecart > 0) {
+                        holt(lt, y);
+                        holtSansDemande(lt, ecart - 1);
+                    }
+                    niveau = lt[0];
+                    tendance = lt[1];
+                }
+            }
+            // Somme des prévisions à 1..P jours : P·L + T·P(P+1)/2
+            double p = joursParPeriode;
+            return Math.max(0, p * niveau + tendance * p * (p + 1) / 2);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de jours clos (observations) pour le produit d'un slot, 0 s'il n'est pas suivi
+     */
+    public int getJoursObserves(int slot, long id) {
+        verrou.readLock().lock();
+        try {
+            if (slot < 0 || slot >= capacite) {
+                return 0;
+            }
+            synchronized (groupes[slot & (GROUPES - 1)]) {
+                int c = slot * C;
+                return compteurs[c + ID] == id ? (int) compteurs[c + CLOS] : 0;
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Oublie l'état d'un slot (produit supprimé)
+     */
+    public void oublier(int slot) {
+        verrou.readLock().lock();
+        try {
+            if (slot >= 0 && slot < capacite) {
+                synchronized (groupes[slot & (GROUPES - 1)]) {
+                    compteurs[slot * C + ID] = 0;
+                }
+            }
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private void initialiser(int slot, long id, int demandeEstimee, int j) {
+        double parJour = Math.max(demandeEstimee, 0) / (double) joursParPeriode;
+        int c = slot * C;
+        int e = slot * E;
+        compteurs[c + ID] = id;
+        compteurs[c + JOUR] = j;
+        compteurs[c + CUMUL] = 0;
+        compteurs[c + CLOS] = 0;
+        etat[e + SIMPLE] = parJour;
+        etat[e + NIVEAU] = parJour;
+        etat[e + TENDANCE] = 0;
+    }
+
+    // Clôt le jour en cours du slot et les jours sans vente jusqu'à j (exclu)
+    private void cloturer(int slot, int j) {
+        int c = slot * C;
+        int e = slot * E;
+        long vides = j - compteurs[c + JOUR] - 1;
+        double y = compteurs[c + CUMUL];
+        etat[e + SIMPLE] = (alpha * y + (1 - alpha) * etat[e + SIMPLE]) * Math.pow(1 - alpha, vides);
+        double[] lt = {etat[e + NIVEAU], etat[e + TENDANCE]};
+        holt(lt, y);
+        holtSansDemande(lt, vides);
+        etat[e + NIVEAU] = lt[0];
+        etat[e + TENDANCE] = lt[1];
+        compteurs[c + CLOS] = Math.min(Integer.MAX_VALUE, compteurs[c + CLOS] + vides + 1);
+        compteurs[c + JOUR] = j;
+        compteurs[c + CUMUL] = 0;
+    }
+
+    // Une observation y : L' = αy + (1-α)(L+T), T' = β(L'-L) + (1-β)T
+    private void holt(double[] lt, double y) {
+        double l = alpha * y + (1 - alpha) * (lt[0] + lt[1]);
+        lt[1] = beta * (l - lt[0]) + (1 - beta) * lt[1];
+        lt[0] = l;
+    }
+
+    // n observations nulles : [L, T] ← Mⁿ [L, T], M = [[1-α, 1-α], [-αβ, 1-αβ]]
+    private void holtSansDemande(double[] lt, long n) {
+        if (n <= 0) {
+            return;
+        }
+        double a = 1 - alpha, b = 1 - alpha, c = -alpha * beta, d = 1 - alpha * beta;
+        double ra = 1, rb = 0, rc = 0, rd = 1;
+        while (n > 0) {
+            if ((n & 1) != 0) {
+                double na = ra * a + rb * c, nb = ra * b + rb * d;
+                double nc = rc * a + rd * c, nd = rc * b + rd * d;
+                ra = na; rb = nb; rc = nc; rd = nd;
+            }
+            double na = a * a + b * c, nb = a * b + b * d;
+            double nc = c * a + d * c, nd = c * b + d * d;
+            a = na; b = nb; c = nc; d = nd;
+            n >>>= 1;
+        }
+        double l = ra * lt[0] + rb * lt[1];
+        lt[1] = rc * lt[0] + rd * lt[1];
+        lt[0] = l;
+    }
+
+    private void agrandir(int n) {
+        verrou.writeLock().lock();
+        try {
+            if (n > capacite) {
+                int c = Math.max(n, Math.max(16, capacite + (capacite >> 1)));
+                compteurs = Arrays.copyOf(compteurs, c * C);
+                etat = Arrays.copyOf(etat, c * E);
+                capacite = c;
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+}
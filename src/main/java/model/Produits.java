@@ -7,15 +7,23 @@ package model;
 /**
  * Classe représentant un produit dans le système de gestion des stocks
  * Contient toutes les informations nécessaires pour calculer les recommandations
+ * Un produit ajouté à un catalogue devient une vue sur son slot : ses valeurs
+ * sont alors lues et écrites dans le stockage du catalogue.
  */
 public class Produits {
-    private String nom;
-    private double prixachat;      // Prix d'achat unitaire
-    private double prixvente;      // Prix de vente unitaire
-    private int quantite;          // Stock actuel
-    private double seuil;          // Seuil de réapprovisionnement défini
-    private double prixstock;      // Coût de stockage par unité
-    private int demandeEstimee;    // Demande estimée (hebdomadaire/mensuelle)
+    // Champs accessibles au paquetage : stockage de CatalogueObjets
+    String nom;
+    double prixachat;      // Prix d'achat unitaire
+    double prixvente;      // Prix de vente unitaire
+    int quantite;          // Stock actuel
+    double seuil;          // Seuil de réapprovisionnement défini
+    double prixstock;      // Coût de stockage par unité
+    int demandeEstimee;    // Demande estimée (hebdomadaire/mensuelle)
+
+    private Catalogue catalogue;   // null tant que le produit est autonome
+    private int slot;
+    private long id;               // identifiant conservé hors catalogue (copie, produit supprimé) ;
+                                   // pour une vue, produit attendu dans le slot (0 : non vérifié)
 
     public Produits(String nom, double prixachat, double prixvente, int quantite, 
                     double seuil, double prixstock, int demandeEstimee) {
@@ -28,38 +36,89 @@ public class Produits {
         this.demandeEstimee = demandeEstimee;
     }
 
+    /**
+     * Copie détachée d'un produit, avec son identifiant (instantanés)
+     */
+    Produits(long id, String nom, double prixachat, double prixvente, int quantite,
+             double seuil, double prixstock, int demandeEstimee) {
+        this(nom, prixachat, prixvente, quantite, seuil, prixstock, demandeEstimee);
+        this.id = id;
+    }
+
+    /**
+     * Vue sur un slot de catalogue (valide tant que le produit n'est pas supprimé ;
+     * ensuite, tout accès lève IllegalStateException au lieu de lire le slot réutilisé)
+     */
+    Produits(Catalogue catalogue, int slot) {
+        this.catalogue = catalogue;
+        this.slot = slot;
+        this.id = catalogue.getId(slot);
+    }
+
+    void attacher(Catalogue catalogue, int slot) {
+        attacher(catalogue, slot, 0);
+    }
+
+    void attacher(Catalogue catalogue, int slot, long id) {
+        this.catalogue = catalogue;
+        this.slot = slot;
+        this.id = id;
+    }
+
+    void detacher() {
+        this.id = catalogue.getId(slot);
+        this.catalogue = null;
+    }
+
+    Catalogue getCatalogue() { return catalogue; }
+
+    /**
+     * Identifiant stable attribué par le catalogue (0 si le produit n'y a jamais été ajouté)
+     */
+    public long getId() { return catalogue == null || id != 0 ? id : catalogue.getId(slot); }
+
+    // Slot de la vue, après vérification que le produit y est toujours
+    private int slotVerifie() {
+        if (id != 0 && catalogue.getId(slot) != id) {
+            throw new IllegalStateException("Produit supprimé du catalogue (id " + id + ")");
+        }
+        return slot;
+    }
+
     // Getters et Setters
-    public String getNom() { return nom; }
-    public void setNom(String nom) { this.nom = nom; }
+    public String getNom() { return catalogue == null ? nom : catalogue.getNom(slotVerifie()); }
+    public void setNom(String nom) { if (catalogue == null) this.nom = nom; else catalogue.setNom(slotVerifie(), nom); }
     
-    public double getPrixachat() { return prixachat; }
-    public void setPrixachat(double prixachat) { this.prixachat = prixachat; }
+    public double getPrixachat() { return catalogue == null ? prixachat : catalogue.getPrixachat(slotVerifie()); }
+    public void setPrixachat(double prixachat) { if (catalogue == null) this.prixachat = prixachat; else catalogue.setPrixachat(slotVerifie(), prixachat); }
     
-    public double getPrixvente() { return prixvente; }
-    public void setPrixvente(double prixvente) { this.prixvente = prixvente; }
+    public double getPrixvente() { return catalogue == null ? prixvente : catalogue.getPrixvente(slotVerifie()); }
+    public void setPrixvente(double prixvente) { if (catalogue == null) this.prixvente = prixvente; else catalogue.setPrixvente(slotVerifie(), prixvente); }
     
-    public int getQuantite() { return quantite; }
-    public void setQuantite(int quantite) { this.quantite = quantite; }
+    public int getQuantite() { return catalogue == null ? quantite : catalogue.getQuantite(slotVerifie()); }
+    public void setQuantite(int quantite) { if (catalogue == null) this.quantite = quantite; else catalogue.setQuantite(slotVerifie(), quantite); }
     
-    public double getSeuil() { return seuil; }
-    public void setSeuil(double seuil) { this.seuil = seuil; }
+    public double getSeuil() { return catalogue == null ? seuil : catalogue.getSeuil(slotVerifie()); }
+    public void setSeuil(double seuil) { if (catalogue == null) this.seuil = seuil; else catalogue.setSeuil(slotVerifie(), seuil); }
     
-    public double getPrixstock() { return prixstock; }
-    public void setPrixstock(double prixstock) { this.prixstock = prixstock; }
+    public double getPrixstock() { return catalogue == null ? prixstock : catalogue.getPrixstock(slotVerifie()); }
+    public void setPrixstock(double prixstock) { if (catalogue == null) this.prixstock = prixstock; else catalogue.setPrixstock(slotVerifie(), prixstock); }
     
-    public int getDemandeEstimee() { return demandeEstimee; }
-    public void setDemandeEstimee(int demandeEstimee) { this.demandeEstimee = demandeEstimee; }
+    public int getDemandeEstimee() { return catalogue == null ? demandeEstimee : catalogue.getDemandeEstimee(slotVerifie()); }
+    public void setDemandeEstimee(int demandeEstimee) { if (catalogue == null) this.demandeEstimee = demandeEstimee; else catalogue.setDemandeEstimee(slotVerifie(), demandeEstimee); }
 
     /**
      * Calcule le coût total de stockage
      * @return coût de stockage total
      */
     public double coutstock() {
-        return prixstock * quantite;
+        return getPrixstock() * getQuantite();
     }
 
     /**
      * Classe interne représentant une recommandation de réapprovisionnement
+     * Réutilisable : recommanderReapprovisionnement(demande, resultat) la remplit
+     * sans allocation ; le message explicatif n'est construit qu'à la demande.
      */
     public static class Recommendation {
         public int sold;              // Quantité vendue
@@ -67,8 +126,15 @@ public class Produits {
         public boolean needReorder;   // Besoin de réapprovisionner?
         public int reorderQty;        // Quantité recommandée à commander
         public int thresholdAuto;     // Seuil automatique calculé
-        public String message;        // Message explicatif
         public int eoq;               // Quantité économique de commande
+        public int quantite;          // Stock au moment du calcul
+        private String message;       // Message explicatif (construit à la demande)
+
+        /**
+         * Recommandation vide, à remplir par recommanderReapprovisionnement(demande, resultat)
+         */
+        public Recommendation() {
+        }
 
         public Recommendation(int sold, int shortage, boolean needReorder,
                 int reorderQty, int thresholdAuto, String message, int eoq) {
@@ -80,6 +146,66 @@ public class Produits {
             this.message = message;
             this.eoq = eoq;
         }
+
+        void remplir(int sold, int shortage, boolean needReorder, int reorderQty,
+                     int thresholdAuto, int eoq, int quantite) {
+            this.sold = sold;
+            this.shortage = shortage;
+            this.needReorder = needReorder;
+            this.reorderQty = reorderQty;
+            this.thresholdAuto = thresholdAuto;
+            this.eoq = eoq;
+            this.quantite = quantite;
+            this.message = null;
+        }
+
+        /**
+         * Message explicatif, construit au premier appel
+         */
+        public String getMessage() {
+            if (message == null) {
+                message = construireMessage();
+            }
+            return message;
+        }
+
+        private String construireMessage() {
+            // Cas 1: La demande dépasse le stock actuel
+            if (shortage > 0) {
+                return "⚠️ ALERTE: Demande > Stock actuel\n" +
+                       "Vente possible: " + sold + " unités\n" +
+                       "Pénurie: " + shortage + " unités\n" +
+                       "Commande recommandée: " + reorderQty + " unités (Pénurie + EOQ=" + eoq + ")";
+            }
+            // Cas 2: Stock suffisant pour la demande, mais sous le seuil
+            if (needReorder) {
+                return "⚠️ Stock faible détecté\n" +
+                       "Vente: " + sold + " unités\n" +
+                       "Stock actuel: " + quantite + " ≤ Seuil: " + thresholdAuto + "\n" +
+                       "Commande recommandée: " + eoq + " unités (EOQ)";
+            }
+            return "✓ Stock suffisant\n" +
+                   "Vente: " + sold + " unités\n" +
+                   "Stock restant: " + (quantite - sold) + " unités\n" +
+                   "Pas de réapprovisionnement nécessaire";
+        }
+    }
+
+    /**
+     * Seuil automatique : 75% de la demande, ou le seuil défini s'il est plus haut
+     */
+    static int seuilAuto(int demande, double seuil) {
+        return Math.max((int) Math.ceil(demande * 0.75), (int) Math.ceil(seuil));
+    }
+
+    /**
+     * Quantité économique de commande (EOQ) : ceil(sqrt(2·D·S/H))
+     * Un coût nul ou négatif est remplacé par 1.
+     */
+    static int eoq(int demande, double prixachat, double prixstock) {
+        double storageCostPerUnit = (prixstock <= 0) ? 1.0 : prixstock;
+        double replenishmentCost = (prixachat <= 0) ? 1.0 : prixachat;
+        return (int) Math.ceil(Math.sqrt((2.0 * Math.max(demande, 1) * replenishmentCost) / storageCostPerUnit));
     }
 
     /**
@@ -89,60 +215,45 @@ public class Produits {
      * @return objet Recommendation avec tous les détails
      */
     public Recommendation recommanderReapprovisionnement(int demande) {
+        return recommanderReapprovisionnement(demande, new Recommendation());
+    }
+
+    /**
+     * Recommande un réapprovisionnement dans un résultat fourni par l'appelant
+     * N'alloue rien : le message explicatif ne sera construit que si
+     * resultat.getMessage() est appelé.
+     * @param demande demande attendue
+     * @param resultat recommandation à remplir (réutilisable)
+     * @return resultat
+     */
+    public Recommendation recommanderReapprovisionnement(int demande, Recommendation resultat) {
+        // Lecture unique des champs (le produit peut être une vue sur un catalogue)
+        return recommander(demande, getQuantite(), getSeuil(), getPrixachat(), getPrixstock(), resultat);
+    }
+
+    /**
+     * Calcul de la recommandation à partir des seules valeurs utiles
+     * (produit, scénario ou point d'une grille de simulation)
+     */
+    static Recommendation recommander(int demande, int quantite, double seuil, double prixachat,
+                                      double prixstock, Recommendation resultat) {
         // Calculer le seuil automatique (75% de la demande ou seuil défini)
-        int thresholdAuto = Math.max((int) Math.ceil(demande * 0.75), (int) Math.ceil(this.seuil));
-        
-        int sold = 0;
-        int shortage = 0;
-        boolean needReorder = false;
-        int reorderQty = 0;
-        int eoq = 0;
-        String message;
+        int thresholdAuto = seuilAuto(demande, seuil);
 
         // Cas 1: La demande dépasse le stock actuel
-        if (demande > this.quantite) {
-            sold = this.quantite;
-            shortage = demande - this.quantite;
-            needReorder = true;
-
+        if (demande > quantite) {
             // Calculer EOQ (Economic Order Quantity)
-            double storageCostPerUnit = (this.prixstock <= 0) ? 1.0 : this.prixstock;
-            double replenishmentCost = (this.prixachat <= 0) ? 1.0 : this.prixachat;
-            eoq = (int) Math.ceil(Math.sqrt((2.0 * Math.max(demande, 1) * replenishmentCost) / storageCostPerUnit));
-            reorderQty = shortage + eoq;
-
-            message = "⚠️ ALERTE: Demande > Stock actuel\n" +
-                      "Vente possible: " + sold + " unités\n" +
-                      "Pénurie: " + shortage + " unités\n" +
-                      "Commande recommandée: " + reorderQty + " unités (Pénurie + EOQ=" + eoq + ")";
-        } 
-        // Cas 2: Stock suffisant pour la demande
-        else {
-            sold = demande;
-            shortage = 0;
-            
-            // Vérifier si le stock restant est sous le seuil
-            if (this.quantite <= thresholdAuto) {
-                needReorder = true;
-                double storageCostPerUnit = (this.prixstock <= 0) ? 1.0 : this.prixstock;
-                double replenishmentCost = (this.prixachat <= 0) ? 1.0 : this.prixachat;
-                eoq = (int) Math.ceil(Math.sqrt((2.0 * Math.max(demande, 1) * replenishmentCost) / storageCostPerUnit));
-                reorderQty = eoq;
-                
-                message = "⚠️ Stock faible détecté\n" +
-                          "Vente: " + sold + " unités\n" +
-                          "Stock actuel: " + this.quantite + " ≤ Seuil: " + thresholdAuto + "\n" +
-                          "Commande recommandée: " + eoq + " unités (EOQ)";
-            } else {
-                needReorder = false;
-                reorderQty = 0;
-                message = "✓ Stock suffisant\n" +
-                          "Vente: " + sold + " unités\n" +
-                          "Stock restant: " + (this.quantite - sold) + " unités\n" +
-                          "Pas de réapprovisionnement nécessaire";
-            }
+            int eoq = eoq(demande, prixachat, prixstock);
+            int shortage = demande - quantite;
+            resultat.remplir(quantite, shortage, true, shortage + eoq, thresholdAuto, eoq, quantite);
         }
-
-        return new Recommendation(sold, shortage, needReorder, reorderQty, thresholdAuto, message, eoq);
+        // Cas 2: Stock suffisant pour la demande ; le stock restant est-il sous le seuil ?
+        else if (quantite <= thresholdAuto) {
+            int eoq = eoq(demande, prixachat, prixstock);
+            resultat.remplir(demande, 0, true, eoq, thresholdAuto, eoq, quantite);
+        } else {
+            resultat.remplir(demande, 0, false, 0, thresholdAuto, 0, quantite);
+        }
+        return resultat;
     }
 }
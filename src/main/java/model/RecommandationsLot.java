@@ -0,0 +1,194 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntPredicate;
+
+/**
+ * Recommandations de réapprovisionnement calculées en lot sur un instantané
+ * Même calcul que Produits.recommanderReapprovisionnement, avec la demande
+ * estimée de chaque produit, mais les résultats sont rangés dans des
+ * tableaux primitifs (un élément par produit retenu) au lieu d'un objet
+ * Recommendation par produit. Le travail est découpé en tranches sur un
+ * pool ForkJoin ; sur le catalogue entier, chaque tranche passe par le
+ * noyau vectoriel NoyauRecommandation.
+ *
+ * Les tableaux renvoyés par les accesseurs sont ceux du lot : ne pas les modifier.
+ */
+public final class RecommandationsLot {
+    private static final int TRANCHE = 1 << 12;   // produits par tâche feuille
+
+    private final long version;
+    private final int[] index;          // index dans l'instantané
+    private final boolean complet;      // index[k] == k : colonnes de l'instantané utilisables telles quelles
+    private final long[] ids;
+    private final int[] sold;
+    private final int[] shortage;
+    private final boolean[] needReorder;
+    private final int[] reorderQty;
+    private final int[] thresholdAuto;
+    private final int[] eoq;
+    private int nombreACommander;
+    private long quantiteACommander;
+
+    private RecommandationsLot(long version, int[] index, boolean complet) {
+        this.version = version;
+        this.index = index;
+        this.complet = complet;
+        int n = index.length;
+        ids = new long[n];
+        sold = new int[n];
+        shortage = new int[n];
+        needReorder = new boolean[n];
+        reorderQty = new int[n];
+        thresholdAuto = new int[n];
+        eoq = new int[n];
+    }
+
+    /**
+     * Recommandations pour tout le catalogue de l'instantané
+     */
+    public static RecommandationsLot calculer(InstantaneCatalogue inst) {
+        return calculer(ForkJoinPool.commonPool(), inst, null);
+    }
+
+    /**
+     * Recommandations pour les produits de l'instantané retenus par le filtre
+     * @param filtre reçoit l'index du produit dans l'instantané
+     */
+    public static RecommandationsLot calculer(InstantaneCatalogue inst, IntPredicate filtre) {
+        int n = inst.taille();
+        int[] retenus = new int[n];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            if (filtre.test(i)) {
+                retenus[k++] = i;
+            }
+        }
+        return calculer(ForkJoinPool.commonPool(), inst, Arrays.copyOf(retenus, k));
+    }
+
+    /**
+     * Recommandations pour une sélection d'index de l'instantané (null : tout le catalogue)
+     */
+    public static RecommandationsLot calculer(ForkJoinPool pool, InstantaneCatalogue inst, int[] selection) {
+        int[] retenus = selection;
+        if (retenus == null) {
+            retenus = new int[inst.taille()];
+            Arrays.setAll(retenus, i -> i);
+        }
+        RecommandationsLot lot = new RecommandationsLot(inst.getVersion(), retenus, selection == null);
+        if (retenus.length > 0) {
+            pool.invoke(lot.new Tache(inst, 0, retenus.length));
+        }
+        lot.totaliser();
+        return lot;
+    }
+
+    /**
+     * Tâche ForkJoin : coupe la plage en deux jusqu'à la taille d'une tranche
+     */
+    private class Tache extends RecursiveAction {
+        private final InstantaneCatalogue inst;
+        private final int debut;
+        private final int fin;
+
+        Tache(InstantaneCatalogue inst, int debut, int fin) {
+            this.inst = inst;
+            this.debut = debut;
+            this.fin = fin;
+        }
+
+        @Override
+        protected void compute() {
+            if (fin - debut <= TRANCHE) {
+                calculerPlage(inst, debut, fin);
+                return;
+            }
+            int milieu = (debut + fin) >>> 1;
+            invokeAll(new Tache(inst, debut, milieu), new Tache(inst, milieu, fin));
+        }
+    }
+
+    private void calculerPlage(InstantaneCatalogue inst, int debut, int fin) {
+        if (complet) {
+            System.arraycopy(inst.colonneIds(), debut, ids, debut, fin - debut);
+            NoyauRecommandation.calculer(inst.colonneDemande(), inst.colonneQuantite(), inst.colonneSeuil(),
+                                         inst.colonnePrixachat(), inst.colonnePrixstock(), debut, fin,
+                                         sold, shortage, needReorder, reorderQty, thresholdAuto, eoq);
+            return;
+        }
+        for (int k = debut; k < fin; k++) {
+            int i = index[k];
+            int demande = inst.getDemandeEstimee(i);
+            int quantite = inst.getQuantite(i);
+            int seuilAuto = Produits.seuilAuto(demande, inst.getSeuil(i));
+            ids[k] = inst.getId(i);
+            thresholdAuto[k] = seuilAuto;
+            if (demande > quantite) {
+                int e = Produits.eoq(demande, inst.getPrixachat(i), inst.getPrixstock(i));
+                sold[k] = quantite;
+                shortage[k] = demande - quantite;
+                needReorder[k] = true;
+                eoq[k] = e;
+                reorderQty[k] = demande - quantite + e;
+            } else if (quantite <= seuilAuto) {
+                int e = Produits.eoq(demande, inst.getPrixachat(i), inst.getPrixstock(i));
+                sold[k] = demande;
+                needReorder[k] = true;
+                eoq[k] = e;
+                reorderQty[k] = e;
+            } else {
+                sold[k] = demande;
+            }
+        }
+    }
+
+    private void totaliser() {
+        for (int k = 0; k < index.length; k++) {
+            if (needReorder[k]) {
+                nombreACommander++;
+                quantiteACommander += reorderQty[k];
+            }
+        }
+    }
+
+    /**
+     * Version de l'instantané sur lequel le lot a été calculé
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int taille() {
+        return index.length;
+    }
+
+    /**
+     * Nombre de produits à réapprovisionner
+     */
+    public int getNombreACommander() {
+        return nombreACommander;
+    }
+
+    /**
+     * Somme des quantités recommandées
+     */
+    public long getQuantiteACommander() {
+        return quantiteACommander;
+    }
+
+    public int[] getIndex() { return index; }
+    public long[] getIds() { return ids; }
+    public int[] getSold() { return sold; }
+    public int[] getShortage() { return shortage; }
+    public boolean[] getNeedReorder() { return needReorder; }
+    public int[] getReorderQty() { return reorderQty; }
+    public int[] getThresholdAuto() { return thresholdAuto; }
+    public int[] getEoq() { return eoq; }
+}
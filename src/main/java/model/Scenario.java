@@ -0,0 +1,95 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+/**
+ * Scénario What-If : vue immuable d'un produit dont certains paramètres sont remplacés
+ * Les valeurs du produit de base sont lues une seule fois, à la création ; le
+ * produit du catalogue n'est jamais modifié. Un scénario est un Produits :
+ * recommanderReapprovisionnement, les simulations (Monte Carlo, stock, grille)
+ * l'acceptent tel quel, et plusieurs scénarios peuvent être évalués en
+ * parallèle sur le même catalogue.
+ *
+ * Les setters lèvent UnsupportedOperationException ; les méthodes avec...()
+ * renvoient un nouveau scénario.
+ */
+public final class Scenario extends Produits {
+
+    private Scenario(long id, String nom, double prixachat, double prixvente, int quantite,
+                     double seuil, double prixstock, int demandeEstimee) {
+        super(id, nom, prixachat, prixvente, quantite, seuil, prixstock, demandeEstimee);
+    }
+
+    /**
+     * Scénario initialisé avec les valeurs actuelles du produit (même identifiant)
+     */
+    public static Scenario de(Produits base) {
+        if (base instanceof Scenario) {
+            return (Scenario) base;
+        }
+        return new Scenario(base.getId(), base.getNom(), base.getPrixachat(), base.getPrixvente(),
+                            base.getQuantite(), base.getSeuil(), base.getPrixstock(), base.getDemandeEstimee());
+    }
+
+    private Scenario copie() {
+        return new Scenario(getId(), nom, prixachat, prixvente, quantite, seuil, prixstock, demandeEstimee);
+    }
+
+    public Scenario avecPrixachat(double prixachat) {
+        Scenario s = copie();
+        s.prixachat = prixachat;
+        return s;
+    }
+
+    public Scenario avecPrixvente(double prixvente) {
+        Scenario s = copie();
+        s.prixvente = prixvente;
+        return s;
+    }
+
+    public Scenario avecQuantite(int quantite) {
+        Scenario s = copie();
+        s.quantite = quantite;
+        return s;
+    }
+
+    public Scenario avecSeuil(double seuil) {
+        Scenario s = copie();
+        s.seuil = seuil;
+        return s;
+    }
+
+    public Scenario avecPrixstock(double prixstock) {
+        Scenario s = copie();
+        s.prixstock = prixstock;
+        return s;
+    }
+
+    public Scenario avecDemandeEstimee(int demandeEstimee) {
+        Scenario s = copie();
+        s.demandeEstimee = demandeEstimee;
+        return s;
+    }
+
+    // Un scénario est immuable
+    @Override
+    public void setNom(String nom) { throw immuable(); }
+    @Override
+    public void setPrixachat(double prixachat) { throw immuable(); }
+    @Override
+    public void setPrixvente(double prixvente) { throw immuable(); }
+    @Override
+    public void setQuantite(int quantite) { throw immuable(); }
+    @Override
+    public void setSeuil(double seuil) { throw immuable(); }
+    @Override
+    public void setPrixstock(double prixstock) { throw immuable(); }
+    @Override
+    public void setDemandeEstimee(int demandeEstimee) { throw immuable(); }
+
+    private UnsupportedOperationException immuable() {
+        return new UnsupportedOperationException("Scénario immuable: utiliser avec...()");
+    }
+}
@@ -0,0 +1,594 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Historique compressé en mémoire du stock, des ventes et des réceptions par produit
+ * Chaque série (produit, mesure) est une suite de blocs de BLOC points au plus,
+ * compressés au fil de l'eau :
+ *   horodatage : delta-of-delta en ticks de la résolution, codé sur 1 bit
+ *                (écart régulier) à 26 bits (quelques jours à la seconde),
+ *                38 ou 70 bits au-delà ;
+ *   valeur : XOR avec la valeur précédente, 1 bit si elle est inchangée, sinon
+ *            seuls les bits significatifs du XOR (fenêtre réutilisée si possible).
+ * Un mouvement de stock typique tient en quelques octets ; le bloc en cours
+ * grandit par mots de 64 bits et les blocs pleins sont ajustés à leur taille.
+ * Chaque bloc connaît son premier et son dernier horodatage : une requête sur
+ * une plage ne décode que les blocs qui la recoupent.
+ *
+ * Les horodatages d'une série sont croissants : un point antérieur au dernier
+ * est enregistré au dernier horodatage. Écritures et lectures d'une même série
+ * sont synchronisées sur la série ; les séries différentes sont indépendantes.
+ */
+public final class SeriesTemporelles {
+    private static final int BLOC = 128;        // points par bloc
+
+    /**
+     * Grandeurs enregistrées par produit
+     */
+    public enum Mesure {
+        QUANTITE("Stock"),
+        VENTES("Ventes"),
+        RECEPTIONS("Réceptions");
+
+        private final String libelle;
+
+        Mesure(String libelle) {
+            this.libelle = libelle;
+        }
+
+        public String getLibelle() {
+            return libelle;
+        }
+    }
+
+    /**
+     * Agrégation des points d'un intervalle lors du sous-échantillonnage
+     */
+    public enum Agregat {
+        SOMME, MOYENNE, MIN, MAX,
+        /** dernière valeur connue, reportée sur les intervalles sans point (niveau de stock) */
+        DERNIERE
+    }
+
+    /**
+     * Reçoit les points d'une lecture, dans l'ordre chronologique
+     */
+    public interface Visiteur {
+        void point(long instant, double valeur);
+    }
+
+    /**
+     * Point d'une série, avec son produit et sa mesure
+     */
+    public static final class Evenement {
+        private final long id;
+        private final Mesure mesure;
+        private final long instant;
+        private final double valeur;
+
+        Evenement(long id, Mesure mesure, long instant, double valeur) {
+            this.id = id;
+            this.mesure = mesure;
+            this.instant = instant;
+            this.valeur = valeur;
+        }
+
+        public long getId() { return id; }
+        public Mesure getMesure() { return mesure; }
+        public long getInstant() { return instant; }
+        public double getValeur() { return valeur; }
+    }
+
+    private static final Mesure[] MESURES = Mesure.values();
+
+    private final long resolution;
+    private final Map<Long, Serie[]> series = new ConcurrentHashMap<>();
+
+    /**
+     * @param resolution précision des horodatages en millisecondes (1000 : à la seconde)
+     */
+    public SeriesTemporelles(long resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Résolution invalide: " + resolution + " ms");
+        }
+        this.resolution = resolution;
+    }
+
+    public long getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Ajoute un point à la série d'un produit
+     * @param instant horodatage en millisecondes
+     */
+    public void enregistrer(long id, Mesure mesure, long instant, double valeur) {
+        Serie[] s = series.computeIfAbsent(id, k -> new Serie[MESURES.length]);
+        Serie serie;
+        synchronized (s) {
+            serie = s[mesure.ordinal()];
+            if (serie == null) {
+                serie = s[mesure.ordinal()] = new Serie();
+            }
+        }
+        serie.ajouter(Math.floorDiv(instant, resolution), valeur);
+    }
+
+    /**
+     * Parcourt les points d'une série dont l'horodatage est dans [debut, fin)
+     */
+    public void lire(long id, Mesure mesure, long debut, long fin, Visiteur visiteur) {
+        Serie serie = serie(id, mesure);
+        if (serie != null) {
+            serie.parcourir(tick(debut), tick(fin), false, (t, v) -> visiteur.point(t * resolution, v));
+        }
+    }
+
+    /**
+     * Sous-échantillonne une série sur [debut, fin) en intervalles de pas millisecondes
+     * @return une valeur par intervalle, NaN pour un intervalle sans point
+     *         (DERNIERE reporte la dernière valeur connue, y compris antérieure à debut)
+     */
+    public double[] echantillonner(long id, Mesure mesure, long debut, long fin, long pas, Agregat agregat) {
+        if (pas <= 0 || fin < debut) {
+            throw new IllegalArgumentException("Plage ou pas invalide: [" + debut + ", " + fin + ") / " + pas);
+        }
+        int n = (int) Math.min(Integer.MAX_VALUE - 8, (fin - debut + pas - 1) / pas);
+        double[] valeurs = new double[n];
+        Arrays.fill(valeurs, Double.NaN);
+        int[] nombres = agregat == Agregat.MOYENNE ? new int[n] : null;
+        double[] precedente = {Double.NaN};
+        Serie serie = serie(id, mesure);
+        if (serie != null) {
+            serie.parcourir(tick(debut), tick(fin), agregat == Agregat.DERNIERE, (t, v) -> {
+                long instant = t * resolution;
+                if (instant < debut) {
+                    precedente[0] = v;
+                    return;
+                }
+                int i = (int) ((instant - debut) / pas);
+                if (i >= n) {
+                    return;
+                }
+                double a = valeurs[i];
+                switch (agregat) {
+                    case SOMME:
+                    case MOYENNE:
+                        valeurs[i] = Double.isNaN(a) ? v : a + v;
+                        if (nombres != null) {
+                            nombres[i]++;
+                        }
+                        break;
+                    case MIN:
+                        valeurs[i] = Double.isNaN(a) ? v : Math.min(a, v);
+                        break;
+                    case MAX:
+                        valeurs[i] = Double.isNaN(a) ? v : Math.max(a, v);
+                        break;
+                    default:
+                        valeurs[i] = v;
+                }
+            });
+        }
+        if (nombres != null) {
+            for (int i = 0; i < n; i++) {
+                if (nombres[i] > 0) {
+                    valeurs[i] /= nombres[i];
+                }
+            }
+        } else if (agregat == Agregat.DERNIERE) {
+            double v = precedente[0];
+            for (int i = 0; i < n; i++) {
+                if (Double.isNaN(valeurs[i])) {
+                    valeurs[i] = v;
+                } else {
+                    v = valeurs[i];
+                }
+            }
+        }
+        return valeurs;
+    }
+
+    /**
+     * Somme d'une mesure sur tous les produits entre debut et fin (ex: unités vendues sur 24 h)
+     */
+    public double total(Mesure mesure, long debut, long fin) {
+        long td = tick(debut), tf = tick(fin);
+        double[] somme = {0};
+        for (Serie[] s : series.values()) {
+            Serie serie = s[mesure.ordinal()];
+            if (serie != null && serie.dernier >= td) {
+                serie.parcourir(td, tf, false, (t, v) -> somme[0] += v);
+            }
+        }
+        return somme[0];
+    }
+
+    /**
+     * Les n points les plus récents postérieurs à depuis, tous produits confondus, du plus récent au plus ancien
+     */
+    public List<Evenement> derniers(int n, long depuis, Mesure... mesures) {
+        if (n <= 0) {
+            return Collections.emptyList();
+        }
+        long td = tick(depuis);
+        // Séries actives depuis td, de la plus récemment alimentée à la moins récente : on s'arrête
+        // dès qu'une série ne peut plus fournir de point plus récent que les n déjà retenus
+        List<Candidate> candidates = new ArrayList<>();
+        for (Map.Entry<Long, Serie[]> e : series.entrySet()) {
+            for (Mesure m : mesures) {
+                Serie serie = e.getValue()[m.ordinal()];
+                if (serie != null && serie.dernier >= td) {
+                    candidates.add(new Candidate(e.getKey(), m, serie, serie.dernier));
+                }
+            }
+        }
+        candidates.sort((a, b) -> Long.compare(b.dernier, a.dernier));
+        PriorityQueue<Evenement> plusRecents = new PriorityQueue<>(n + 1,
+                (a, b) -> Long.compare(a.instant, b.instant));
+        for (Candidate c : candidates) {
+            if (plusRecents.size() == n && c.dernier * resolution <= plusRecents.peek().instant) {
+                break;
+            }
+            c.serie.parcourir(td, Long.MAX_VALUE, false, (t, v) -> {
+                long instant = t * resolution;
+                if (plusRecents.size() < n || instant > plusRecents.peek().instant) {
+                    plusRecents.add(new Evenement(c.id, c.mesure, instant, v));
+                    if (plusRecents.size() > n) {
+                        plusRecents.poll();
+                    }
+                }
+            });
+        }
+        List<Evenement> liste = new ArrayList<>(plusRecents);
+        liste.sort((a, b) -> Long.compare(b.instant, a.instant));
+        return liste;
+    }
+
+    private static final class Candidate {
+        final long id;
+        final Mesure mesure;
+        final Serie serie;
+        final long dernier;
+
+        Candidate(long id, Mesure mesure, Serie serie, long dernier) {
+            this.id = id;
+            this.mesure = mesure;
+            this.serie = serie;
+            this.dernier = dernier;
+        }
+    }
+
+    /**
+     * Supprime les blocs entièrement antérieurs à un instant (rétention)
+     * @return nombre de points supprimés
+     */
+    public long purgerAvant(long instant) {
+        long t = tick(instant);
+        long supprimes = 0;
+        for (Serie[] s : series.values()) {
+            for (Serie serie : s) {
+                if (serie != null) {
+                    supprimes += serie.purgerAvant(t);
+                }
+            }
+        }
+        return supprimes;
+    }
+
+    /**
+     * Oublie l'historique d'un produit (supprimé)
+     */
+    public void oublier(long id) {
+        series.remove(id);
+    }
+
+    public long getNombrePoints() {
+        long n = 0;
+        for (Serie[] s : series.values()) {
+            for (Serie serie : s) {
+                if (serie != null) {
+                    n += serie.nombrePoints();
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * Mémoire occupée par les données compressées, en octets (en-têtes d'objets estimés)
+     */
+    public long getOctets() {
+        long octets = 0;
+        for (Serie[] s : series.values()) {
+            octets += 64;
+            for (Serie serie : s) {
+                if (serie != null) {
+                    octets += serie.octets();
+                }
+            }
+        }
+        return octets;
+    }
+
+    private Serie serie(long id, Mesure mesure) {
+        Serie[] s = series.get(id);
+        return s == null ? null : s[mesure.ordinal()];
+    }
+
+    private long tick(long instant) {
+        return Math.floorDiv(instant, resolution);
+    }
+
+    /**
+     * Blocs d'une série, du plus ancien au plus récent (le dernier est ouvert)
+     */
+    private static final class Serie {
+        private Bloc[] blocs = new Bloc[2];
+        private int nombre;
+        volatile long dernier = Long.MIN_VALUE;     // dernier horodatage (ticks), lisible sans verrou
+
+        synchronized void ajouter(long t, double v) {
+            Bloc courant = nombre == 0 ? null : blocs[nombre - 1];
+            if (courant != null && t < courant.dernier) {
+                t = courant.dernier;
+            }
+            if (courant == null || courant.nombre == BLOC) {
+                if (courant != null) {
+                    courant.fermer();
+                }
+                if (nombre == blocs.length) {
+                    blocs = Arrays.copyOf(blocs, nombre * 2);
+                }
+                courant = blocs[nombre++] = new Bloc();
+            }
+            courant.ajouter(t, v);
+            dernier = t;
+        }
+
+        // avecPrecedent : commence au bloc contenant le dernier point antérieur à debut
+        synchronized void parcourir(long debut, long fin, boolean avecPrecedent, Visiteur visiteur) {
+            int premier = 0;
+            while (premier < nombre && blocs[premier].dernier < debut) {
+                premier++;
+            }
+            if (avecPrecedent && premier > 0 && (premier == nombre || blocs[premier].premier >= debut)) {
+                premier--;
+            }
+            for (int b = premier; b < nombre && blocs[b].premier < fin; b++) {
+                blocs[b].decoder(debut, fin, avecPrecedent, visiteur);
+            }
+        }
+
+        synchronized int purgerAvant(long t) {
+            int k = 0;
+            int points = 0;
+            // Le bloc ouvert est conservé
+            while (k < nombre - 1 && blocs[k].dernier < t) {
+                points += blocs[k].nombre;
+                k++;
+            }
+            if (k > 0) {
+                System.arraycopy(blocs, k, blocs, 0, nombre - k);
+                Arrays.fill(blocs, nombre - k, nombre, null);
+                nombre -= k;
+            }
+            return points;
+        }
+
+        synchronized long nombrePoints() {
+            long n = 0;
+            for (int b = 0; b < nombre; b++) {
+                n += blocs[b].nombre;
+            }
+            return n;
+        }
+
+        synchronized long octets() {
+            long octets = 16 + 16 + 4L * blocs.length;
+            for (int b = 0; b < nombre; b++) {
+                octets += blocs[b].octets();
+            }
+            return octets;
+        }
+    }
+
+    /**
+     * Bloc compressé : flux de bits (mots de 64 bits, bit de poids fort en premier)
+     */
+    private static final class Bloc {
+        private long[] bits = new long[2];
+        private int position;               // bits écrits
+        private int nombre;
+        private long premier;               // horodatages extrêmes (ticks)
+        private long dernier;
+        // État de l'encodeur
+        private long deltaPrecedent;
+        private long valeurPrecedente;      // bits de la valeur précédente
+        private int zerosTete = -1;         // fenêtre du dernier XOR significatif (-1 : aucune)
+        private int zerosQueue;
+
+        void ajouter(long t, double v) {
+            long valeur = Double.doubleToRawLongBits(v);
+            if (nombre == 0) {
+                premier = t;
+                ecrire(t, 64);
+                ecrire(valeur, 64);
+            } else {
+                long delta = t - dernier;
+                ecrireDeltaDeDelta(delta - deltaPrecedent);
+                deltaPrecedent = delta;
+                ecrireXor(valeur ^ valeurPrecedente);
+            }
+            dernier = t;
+            valeurPrecedente = valeur;
+            nombre++;
+        }
+
+        void fermer() {
+            bits = Arrays.copyOf(bits, (position + 63) >>> 6);
+        }
+
+        long octets() {
+            return 72 + 16 + 8L * bits.length;
+        }
+
+        // 0 | 10+7 | 110+9 | 1110+12 | 11110+21 | 111110+32 | 111111+64
+        private void ecrireDeltaDeDelta(long dod) {
+            if (dod == 0) {
+                ecrire(0, 1);
+            } else if (dod >= -63 && dod <= 64) {
+                ecrire(0b10, 2);
+                ecrire(dod + 63, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                ecrire(0b110, 3);
+                ecrire(dod + 255, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                ecrire(0b1110, 4);
+                ecrire(dod + 2047, 12);
+            } else if (dod >= -(1 << 20) + 1 && dod <= 1 << 20) {
+                ecrire(0b11110, 5);
+                ecrire(dod + (1 << 20) - 1, 21);
+            } else if (dod >= Integer.MIN_VALUE && dod <= Integer.MAX_VALUE) {
+                ecrire(0b111110, 6);
+                ecrire(dod, 32);
+            } else {
+                ecrire(0b111111, 6);
+                ecrire(dod, 64);
+            }
+        }
+
+        // 0 : inchangée | 10 + bits dans la fenêtre précédente | 11 + 5 bits tête + 6 bits longueur - 1 + bits
+        private void ecrireXor(long xor) {
+            if (xor == 0) {
+                ecrire(0, 1);
+                return;
+            }
+            int tete = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int queue = Long.numberOfTrailingZeros(xor);
+            if (zerosTete >= 0 && tete >= zerosTete && queue >= zerosQueue) {
+                ecrire(0b10, 2);
+                ecrire(xor >>> zerosQueue, 64 - zerosTete - zerosQueue);
+            } else {
+                int significatifs = 64 - tete - queue;
+                ecrire(0b11, 2);
+                ecrire(tete, 5);
+                ecrire(significatifs - 1, 6);
+                ecrire(xor >>> queue, significatifs);
+                zerosTete = tete;
+                zerosQueue = queue;
+            }
+        }
+
+        private void ecrire(long valeur, int n) {
+            int mots = (position + n + 63) >>> 6;
+            if (mots > bits.length) {
+                bits = Arrays.copyOf(bits, Math.max(mots, bits.length * 2));
+            }
+            int mot = position >>> 6;
+            int libre = 64 - (position & 63);
+            long v = valeur & masque(n);
+            if (n <= libre) {
+                bits[mot] |= v << (libre - n);
+            } else {
+                int reste = n - libre;
+                bits[mot] |= v >>> reste;
+                bits[mot + 1] |= v << (64 - reste);
+            }
+            position += n;
+        }
+
+        // Décode le bloc ; transmet les points de [debut, fin), et ceux d'avant si avecPrecedent
+        void decoder(long debut, long fin, boolean avecPrecedent, Visiteur visiteur) {
+            Lecteur l = new Lecteur(bits);
+            long t = l.lire(64);
+            long valeur = l.lire(64);
+            long delta = 0;
+            int tete = 0, queue = 0;
+            for (int i = 0; ; ) {
+                if (t >= fin) {
+                    return;
+                }
+                if (t >= debut || avecPrecedent) {
+                    visiteur.point(t, Double.longBitsToDouble(valeur));
+                }
+                if (++i == nombre) {
+                    return;
+                }
+                delta += lireDeltaDeDelta(l);
+                t += delta;
+                if (l.lire(1) != 0) {
+                    if (l.lire(1) != 0) {
+                        tete = (int) l.lire(5);
+                        int significatifs = (int) l.lire(6) + 1;
+                        queue = 64 - tete - significatifs;
+                    }
+                    valeur ^= l.lire(64 - tete - queue) << queue;
+                }
+            }
+        }
+
+        private static long lireDeltaDeDelta(Lecteur l) {
+            if (l.lire(1) == 0) {
+                return 0;
+            }
+            if (l.lire(1) == 0) {
+                return l.lire(7) - 63;
+            }
+            if (l.lire(1) == 0) {
+                return l.lire(9) - 255;
+            }
+            if (l.lire(1) == 0) {
+                return l.lire(12) - 2047;
+            }
+            if (l.lire(1) == 0) {
+                return l.lire(21) - (1 << 20) + 1;
+            }
+            if (l.lire(1) == 0) {
+                return (int) l.lire(32);
+            }
+            return l.lire(64);
+        }
+    }
+
+    private static final class Lecteur {
+        private final long[] bits;
+        private int position;
+
+        Lecteur(long[] bits) {
+            this.bits = bits;
+        }
+
+        long lire(int n) {
+            if (n == 0) {
+                return 0;
+            }
+            int mot = position >>> 6;
+            int libre = 64 - (position & 63);
+            long r;
+            if (n <= libre) {
+                r = (bits[mot] >>> (libre - n)) & masque(n);
+            } else {
+                int reste = n - libre;
+                r = ((bits[mot] & masque(libre)) << reste) | (bits[mot + 1] >>> (64 - reste));
+            }
+            position += n;
+            return r;
+        }
+    }
+
+    private static long masque(int n) {
+        return n == 64 ? -1L : (1L << n) - 1;
+    }
+}
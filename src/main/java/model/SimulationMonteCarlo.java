@@ -0,0 +1,409 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Simulation Monte Carlo de la demande d'une période pour un produit
+ * La demande est tirée d'une loi (normale, Poisson, empirique) ; chaque essai
+ * vend min(demande, stock), le reste de la demande est une pénurie et le
+ * stock invendu supporte le coût de stockage :
+ *   profit = (prixvente - prixachat) × vendu - prixstock × invendu
+ *
+ * Les essais sont répartis en tranches sur tous les cœurs. Chaque tranche a
+ * son propre flux SplittableRandom, dérivé de la graine dans l'ordre des
+ * tranches : le résultat ne dépend que de la graine, pas du nombre de cœurs.
+ * Les essais ne sont pas conservés : seul l'histogramme des demandes l'est,
+ * et toutes les statistiques en sont déduites exactement.
+ * Une Progression, appelée après chaque tranche, suit l'avancement et peut
+ * interrompre la simulation : les tranches non commencées sont sautées.
+ */
+public final class SimulationMonteCarlo {
+    private static final int TRANCHE = 1 << 16;             // essais par flux aléatoire
+    private static final int LIMITE_PENURIE = 1 << 20;      // au-delà, pénuries cumulées dans la dernière case
+
+    private SimulationMonteCarlo() {
+    }
+
+    /**
+     * Suivi d'une simulation, appelé après chaque tranche (depuis n'importe quel thread)
+     */
+    public interface Progression {
+        /**
+         * @return false pour interrompre la simulation
+         */
+        boolean avancer(long essaisFaits, long essaisTotal);
+    }
+
+    /**
+     * Loi de la demande d'une période (tirage entier >= 0)
+     * Une implémentation ne doit pas avoir d'état mutable : elle est partagée par les tranches.
+     */
+    public interface LoiDemande {
+        int tirer(SplittableRandom alea);
+    }
+
+    /**
+     * Demande normale arrondie, tronquée à 0
+     */
+    public static LoiDemande normale(double moyenne, double ecartType) {
+        if (ecartType < 0) {
+            throw new IllegalArgumentException("Écart-type négatif: " + ecartType);
+        }
+        return alea -> {
+            double d = Math.rint(moyenne + ecartType * alea.nextGaussian());
+            return d <= 0 ? 0 : (int) d;
+        };
+    }
+
+    /**
+     * Demande de Poisson de moyenne lambda
+     */
+    public static LoiDemande poisson(double lambda) {
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("Moyenne de Poisson invalide: " + lambda);
+        }
+        return lambda < 10 ? new PoissonInversion(lambda) : new PoissonPtrs(lambda);
+    }
+
+    /**
+     * Demande tirée uniformément parmi des observations (historique de ventes)
+     */
+    public static LoiDemande empirique(int[] observations) {
+        if (observations.length == 0) {
+            throw new IllegalArgumentException("Aucune observation");
+        }
+        int[] valeurs = observations.clone();
+        for (int v : valeurs) {
+            if (v < 0) {
+                throw new IllegalArgumentException("Observation négative: " + v);
+            }
+        }
+        return alea -> valeurs[alea.nextInt(valeurs.length)];
+    }
+
+    // Petite moyenne : produit d'uniformes (Knuth)
+    private static final class PoissonInversion implements LoiDemande {
+        private final double limite;
+
+        PoissonInversion(double lambda) {
+            limite = Math.exp(-lambda);
+        }
+
+        @Override
+        public int tirer(SplittableRandom alea) {
+            int k = 0;
+            double p = alea.nextDouble();
+            while (p > limite) {
+                k++;
+                p *= alea.nextDouble();
+            }
+            return k;
+        }
+    }
+
+    // Grande moyenne : rejet transformé PTRS (Hörmann, 1993), coût constant
+    private static final class PoissonPtrs implements LoiDemande {
+        private final double lambda;
+        private final double logLambda;
+        private final double b;
+        private final double a;
+        private final double logInvAlpha;
+        private final double vr;
+
+        PoissonPtrs(double lambda) {
+            this.lambda = lambda;
+            logLambda = Math.log(lambda);
+            double racine = Math.sqrt(lambda);
+            b = 0.931 + 2.53 * racine;
+            a = -0.059 + 0.02483 * b;
+            logInvAlpha = Math.log(1.1239 + 1.1328 / (b - 3.4));
+            vr = 0.9277 - 3.6224 / (b - 2);
+        }
+
+        @Override
+        public int tirer(SplittableRandom alea) {
+            while (true) {
+                double u = alea.nextDouble() - 0.5;
+                double v = alea.nextDouble();
+                double us = 0.5 - Math.abs(u);
+                double k = Math.floor((2 * a / us + b) * u + lambda + 0.43);
+                if (us >= 0.07 && v <= vr) {
+                    return (int) k;
+                }
+                if (k < 0 || (us < 0.013 && v > us)) {
+                    continue;
+                }
+                if (Math.log(v) + logInvAlpha - Math.log(a / (us * us) + b)
+                        <= -lambda + k * logLambda - logFactorielle((int) k)) {
+                    return (int) k;
+                }
+            }
+        }
+    }
+
+    private static final double[] LOG_FACTORIELLES = new double[256];
+
+    static {
+        for (int k = 1; k < LOG_FACTORIELLES.length; k++) {
+            LOG_FACTORIELLES[k] = LOG_FACTORIELLES[k - 1] + Math.log(k);
+        }
+    }
+
+    // ln(k!) : table, puis série de Stirling
+    private static double logFactorielle(int k) {
+        if (k < LOG_FACTORIELLES.length) {
+            return LOG_FACTORIELLES[k];
+        }
+        double x = k + 1.0;
+        double inv2 = 1 / (x * x);
+        return (x - 0.5) * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI)
+               + (1 / 12.0 - inv2 * (1 / 360.0 - inv2 / 1260.0)) / x;
+    }
+
+    /**
+     * Simule une période avec le stock actuel du produit
+     */
+    public static Resultat simuler(Produits produit, LoiDemande loi, long essais, long graine) {
+        return simuler(produit, produit.getQuantite(), loi, essais, graine, null);
+    }
+
+    /**
+     * Simule une période avec le stock actuel du produit, avec suivi
+     * @return null si la progression a interrompu la simulation
+     */
+    public static Resultat simuler(Produits produit, LoiDemande loi, long essais, long graine,
+                                   Progression progression) {
+        return simuler(produit, produit.getQuantite(), loi, essais, graine, progression);
+    }
+
+    /**
+     * Simule une période avec un stock donné (ex. stock actuel + commande)
+     * @param essais nombre de tirages
+     * @param graine graine du générateur : même graine, même résultat
+     */
+    public static Resultat simuler(Produits produit, int stock, LoiDemande loi, long essais, long graine) {
+        return simuler(produit, stock, loi, essais, graine, null);
+    }
+
+    /**
+     * Simule une période avec un stock donné, avec suivi
+     * @param progression appelée après chaque tranche (null : pas de suivi)
+     * @return null si la progression a interrompu la simulation
+     */
+    public static Resultat simuler(Produits produit, int stock, LoiDemande loi, long essais, long graine,
+                                   Progression progression) {
+        if (essais <= 0) {
+            throw new IllegalArgumentException("Nombre d'essais invalide: " + essais);
+        }
+        int q = Math.max(stock, 0);
+        long nbTranches = (essais + TRANCHE - 1) / TRANCHE;
+        if (nbTranches > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Trop d'essais: " + essais);
+        }
+        // Un flux par tranche, dérivé dans l'ordre : indépendant du parallélisme
+        SplittableRandom racine = new SplittableRandom(graine);
+        SplittableRandom[] flux = new SplittableRandom[(int) nbTranches];
+        for (int t = 0; t < flux.length; t++) {
+            flux[t] = racine.split();
+        }
+        AtomicLong faits = new AtomicLong();
+        AtomicBoolean arret = new AtomicBoolean();
+        Histogramme h = IntStream.range(0, flux.length).parallel().collect(
+                () -> new Histogramme(q),
+                (acc, t) -> {
+                    if (arret.get()) {
+                        return;
+                    }
+                    int n = (int) Math.min(TRANCHE, essais - (long) t * TRANCHE);
+                    acc.tirer(loi, flux[t], n);
+                    if (progression != null && !progression.avancer(faits.addAndGet(n), essais)) {
+                        arret.set(true);
+                    }
+                },
+                Histogramme::fusionner);
+        if (arret.get()) {
+            return null;
+        }
+        return new Resultat(h, q, produit.getPrixvente() - produit.getPrixachat(), produit.getPrixstock());
+    }
+
+    /**
+     * Histogramme des demandes tirées (cases 0..stock + LIMITE_PENURIE)
+     */
+    private static final class Histogramme {
+        final int stock;
+        long[] comptes = new long[64];
+        long sommeDemande;
+        long sommeDepassement;      // demande au-delà de la dernière case (pénurie moyenne exacte)
+
+        Histogramme(int stock) {
+            this.stock = stock;
+        }
+
+        void tirer(LoiDemande loi, SplittableRandom alea, int n) {
+            int derniere = (int) Math.min(Integer.MAX_VALUE - 8L, (long) stock + LIMITE_PENURIE);
+            long[] c = comptes;
+            for (int i = 0; i < n; i++) {
+                int d = loi.tirer(alea);
+                sommeDemande += d;
+                if (d > derniere) {
+                    sommeDepassement += d - derniere;
+                    d = derniere;
+                }
+                if (d >= c.length) {
+                    c = Arrays.copyOf(c, (int) Math.min((long) derniere + 1, Math.max(2L * c.length, d + 1L)));
+                }
+                c[d]++;
+            }
+            comptes = c;
+        }
+
+        void fusionner(Histogramme autre) {
+            if (autre.comptes.length > comptes.length) {
+                long[] c = comptes;
+                comptes = autre.comptes;
+                autre.comptes = c;
+            }
+            for (int d = 0; d < autre.comptes.length; d++) {
+                comptes[d] += autre.comptes[d];
+            }
+            sommeDemande += autre.sommeDemande;
+            sommeDepassement += autre.sommeDepassement;
+        }
+    }
+
+    /**
+     * Résultat d'une simulation : rupture, pénurie, profit et taux de service
+     */
+    public static final class Resultat {
+        private final long essais;
+        private final int stock;
+        private final double marge;
+        private final double prixstock;
+        private final long[] penuries;      // pénurie (unités) -> nombre d'essais ; [0] : pas de pénurie
+        private final long[] vendus;        // unités vendues -> nombre d'essais (jusqu'au stock)
+        private final long ruptures;
+        private final double penurieMoyenne;
+        private final double venduMoyen;
+        private final double tauxService;
+
+        private Resultat(Histogramme h, int stock, double marge, double prixstock) {
+            this.stock = stock;
+            this.marge = marge;
+            this.prixstock = prixstock;
+            long[] c = h.comptes;
+            long n = 0;
+            long sommeVendus = 0;
+            long sommePenuries = h.sommeDepassement;
+            vendus = new long[Math.min(stock, c.length - 1) + 1];
+            penuries = new long[Math.max(1, c.length - stock)];
+            for (int d = 0; d < c.length; d++) {
+                if (c[d] == 0) {
+                    continue;
+                }
+                n += c[d];
+                int vendu = Math.min(d, stock);
+                vendus[vendu] += c[d];
+                sommeVendus += (long) vendu * c[d];
+                int penurie = d - vendu;
+                penuries[penurie] += c[d];
+                sommePenuries += (long) penurie * c[d];
+            }
+            essais = n;
+            ruptures = n - penuries[0];
+            penurieMoyenne = (double) sommePenuries / n;
+            venduMoyen = (double) sommeVendus / n;
+            tauxService = h.sommeDemande == 0 ? 1.0 : (double) sommeVendus / h.sommeDemande;
+        }
+
+        public long getEssais() {
+            return essais;
+        }
+
+        public int getStock() {
+            return stock;
+        }
+
+        /**
+         * Probabilité que la demande dépasse le stock
+         */
+        public double getProbabiliteRupture() {
+            return (double) ruptures / essais;
+        }
+
+        /**
+         * Pénurie moyenne par période (unités)
+         */
+        public double getPenurieMoyenne() {
+            return penurieMoyenne;
+        }
+
+        /**
+         * Pénurie moyenne sachant qu'il y a rupture
+         */
+        public double getPenurieMoyenneSiRupture() {
+            return ruptures == 0 ? 0 : penurieMoyenne * essais / ruptures;
+        }
+
+        /**
+         * Distribution des pénuries : case k = nombre d'essais avec k unités manquantes
+         * La dernière case cumule les pénuries plus grandes. Tableau partagé, ne pas modifier.
+         */
+        public long[] getDistributionPenurie() {
+            return penuries;
+        }
+
+        /**
+         * Percentile de la pénurie (rang le plus proche)
+         * @param p percentile, de 0 à 100
+         */
+        public int getPenuriePercentile(double p) {
+            return rang(penuries, p);
+        }
+
+        /**
+         * Taux de service (fill rate) : part de la demande totale servie
+         */
+        public double getTauxService() {
+            return tauxService;
+        }
+
+        public double getProfitMoyen() {
+            return profit(venduMoyen);
+        }
+
+        /**
+         * Percentile du profit (rang le plus proche)
+         * Le profit est affine en unités vendues : son percentile se lit sur
+         * la distribution des ventes, dans le sens de la pente.
+         */
+        public double getProfitPercentile(double p) {
+            double pente = marge + prixstock;
+            return profit(rang(vendus, pente >= 0 ? p : 100 - p));
+        }
+
+        private double profit(double vendu) {
+            return marge * vendu - prixstock * (stock - vendu);
+        }
+
+        private int rang(long[] comptes, double p) {
+            long cible = Math.max(1, (long) Math.ceil(Math.min(Math.max(p, 0), 100) / 100 * essais));
+            long cumul = 0;
+            for (int k = 0; k < comptes.length; k++) {
+                cumul += comptes[k];
+                if (cumul >= cible) {
+                    return k;
+                }
+            }
+            return comptes.length - 1;
+        }
+    }
+}
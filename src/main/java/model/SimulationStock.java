@@ -0,0 +1,410 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Simulation à événements discrets du stock d'un produit sur plusieurs mois
+ * Chaque jour, une demande de Poisson (demande estimée / jours par période)
+ * est servie dans la limite du stock ; la demande non servie est perdue.
+ * Quand la position de stock (stock + commandes en cours) passe au seuil de
+ * commande (seuil du produit ou seuil automatique), une commande de l'EOQ
+ * est passée et reçue après le délai de livraison.
+ *
+ * Les événements (demande du jour, réception) sont ordonnés par un tas
+ * binaire de clés long (jour, type) et de quantités int : aucun objet n'est
+ * créé par événement. En lot, les produits sont simulés en parallèle, chaque
+ * tâche réutilisant son moteur ; chaque produit a son flux aléatoire dérivé
+ * de la graine et de son identifiant : le résultat ne dépend ni du parallélisme
+ * ni de la position du produit, et simuler() reproduit la ligne de simulerLot().
+ * Une Progression suit l'avancement (jours simulés pour un produit, produits
+ * pour un lot) et peut interrompre la simulation.
+ */
+public final class SimulationStock {
+    private static final int RECEPTION = 0;     // le même jour, les réceptions passent avant la demande
+    private static final int DEMANDE = 1;
+    private static final int TRANCHE = 256;     // produits par tâche en lot
+    private static final int JOURS_SUIVI = 32;  // jours simulés entre deux appels du suivi
+
+    private SimulationStock() {
+    }
+
+    /**
+     * Suivi d'une simulation (appel possible depuis n'importe quel thread)
+     */
+    public interface Progression {
+        /**
+         * @return false pour interrompre la simulation
+         */
+        boolean avancer(long faits, long total);
+    }
+
+    /**
+     * Paramètres d'une simulation
+     */
+    public static final class Parametres {
+        private final int horizonJours;
+        private final int delaiLivraison;
+        private final int joursParPeriode;
+        private final boolean seuilAutomatique;
+        private final long graine;
+
+        /**
+         * @param horizonJours nombre de jours simulés
+         * @param delaiLivraison jours entre la commande et la réception
+         * @param joursParPeriode jours couverts par la demande estimée et le coût de stockage
+         * @param seuilAutomatique commander au seuil automatique (sinon au seuil du produit)
+         * @param graine graine du générateur : même graine, même résultat
+         */
+        public Parametres(int horizonJours, int delaiLivraison, int joursParPeriode,
+                          boolean seuilAutomatique, long graine) {
+            if (horizonJours <= 0 || delaiLivraison < 0 || joursParPeriode <= 0) {
+                throw new IllegalArgumentException("Paramètres de simulation invalides");
+            }
+            this.horizonJours = horizonJours;
+            this.delaiLivraison = delaiLivraison;
+            this.joursParPeriode = joursParPeriode;
+            this.seuilAutomatique = seuilAutomatique;
+            this.graine = graine;
+        }
+
+        public int getHorizonJours() { return horizonJours; }
+        public int getDelaiLivraison() { return delaiLivraison; }
+        public int getJoursParPeriode() { return joursParPeriode; }
+        public boolean isSeuilAutomatique() { return seuilAutomatique; }
+        public long getGraine() { return graine; }
+    }
+
+    /**
+     * Simule un produit et garde sa trajectoire jour par jour
+     */
+    public static Trajectoire simuler(Produits produit, Parametres parametres) {
+        return simuler(produit, parametres, null);
+    }
+
+    /**
+     * Simule un produit avec suivi, appelé tous les JOURS_SUIVI jours simulés
+     * @return null si la progression a interrompu la simulation
+     */
+    public static Trajectoire simuler(Produits produit, Parametres parametres, Progression progression) {
+        Trajectoire t = new Trajectoire(parametres.horizonJours);
+        boolean complet = new Moteur().simuler(produit.getQuantite(), produit.getSeuil(), produit.getDemandeEstimee(),
+                                               produit.getPrixachat(), produit.getPrixvente(), produit.getPrixstock(),
+                                               parametres, produit.getId(), t.totaux, 0, t, progression);
+        return complet ? t : null;
+    }
+
+    /**
+     * Simule tous les produits d'un instantané en parallèle (totaux seulement)
+     */
+    public static ResultatLot simulerLot(InstantaneCatalogue inst, Parametres parametres) {
+        return simulerLot(inst, parametres, null);
+    }
+
+    /**
+     * Simule tous les produits d'un instantané avec suivi, appelé après chaque tranche
+     * @return null si la progression a interrompu la simulation
+     */
+    public static ResultatLot simulerLot(InstantaneCatalogue inst, Parametres parametres, Progression progression) {
+        ResultatLot r = new ResultatLot(inst);
+        int n = inst.taille();
+        AtomicLong faits = new AtomicLong();
+        AtomicBoolean arret = new AtomicBoolean();
+        IntStream.range(0, (n + TRANCHE - 1) / TRANCHE).parallel().forEach(t -> {
+            if (arret.get()) {
+                return;
+            }
+            Moteur moteur = new Moteur();
+            int fin = Math.min(n, t * TRANCHE + TRANCHE);
+            for (int i = t * TRANCHE; i < fin; i++) {
+                moteur.simuler(inst.getQuantite(i), inst.getSeuil(i), inst.getDemandeEstimee(i),
+                               inst.getPrixachat(i), inst.getPrixvente(i), inst.getPrixstock(i),
+                               parametres, inst.getId(i), r.totaux, i, null, null);
+            }
+            if (progression != null && !progression.avancer(faits.addAndGet(fin - t * TRANCHE), n)) {
+                arret.set(true);
+            }
+        });
+        return arret.get() ? null : r;
+    }
+
+    // Colonnes des totaux par produit
+    private static final int CHIFFRE_AFFAIRES = 0;
+    private static final int COUT_ACHAT = 1;
+    private static final int COUT_STOCKAGE = 2;
+    private static final int MARGE_PERDUE = 3;
+    private static final int NB_COLONNES_DOUBLES = 4;
+    private static final int VENTES = 0;
+    private static final int VENTES_PERDUES = 1;
+    private static final int COMMANDES = 2;
+    private static final int JOURS_RUPTURE = 3;
+    private static final int STOCK_FINAL = 4;
+    private static final int NB_COLONNES_ENTIERS = 5;
+
+    /**
+     * Totaux par produit, en colonnes
+     */
+    static final class Totaux {
+        final double[][] montants = new double[NB_COLONNES_DOUBLES][];
+        final long[][] compteurs = new long[NB_COLONNES_ENTIERS][];
+
+        Totaux(int n) {
+            for (int c = 0; c < NB_COLONNES_DOUBLES; c++) {
+                montants[c] = new double[n];
+            }
+            for (int c = 0; c < NB_COLONNES_ENTIERS; c++) {
+                compteurs[c] = new long[n];
+            }
+        }
+    }
+
+    /**
+     * Moteur d'un thread : tas d'événements et état du produit courant, réutilisés
+     */
+    private static final class Moteur {
+        private long[] cles = new long[16];         // jour * 2 + type
+        private int[] quantites = new int[16];
+        private int taille;
+
+        /**
+         * @return false si la progression a interrompu la simulation (totaux non écrits)
+         */
+        boolean simuler(int quantite, double seuil, int demandeEstimee, double prixachat, double prixvente,
+                        double prixstock, Parametres p, long id, Totaux totaux, int ligne, Trajectoire trajectoire,
+                        Progression progression) {
+            SplittableRandom alea = new SplittableRandom(p.graine + id * 0x9E3779B97F4A7C15L);
+            SimulationMonteCarlo.LoiDemande loi =
+                    SimulationMonteCarlo.poisson(Math.max(demandeEstimee, 0) / (double) p.joursParPeriode);
+            int pointCommande = p.seuilAutomatique ? Produits.seuilAuto(demandeEstimee, seuil) : (int) Math.ceil(seuil);
+            int lot = Math.max(1, Produits.eoq(demandeEstimee, prixachat, prixstock));
+            double stockageJour = prixstock / p.joursParPeriode;
+            double marge = prixvente - prixachat;
+
+            int stock = Math.max(quantite, 0);
+            long enCommande = 0;
+            double chiffreAffaires = 0, coutAchat = 0, coutStockage = 0, margePerdue = 0;
+            long ventes = 0, perdues = 0, commandes = 0, joursRupture = 0;
+
+            taille = 0;
+            pousser(DEMANDE, 0);
+            while (taille > 0) {
+                long cle = cles[0];
+                int q = quantites[0];
+                retirerRacine();
+                int jour = (int) (cle >>> 1);
+                if ((cle & 1) == RECEPTION) {
+                    stock += q;
+                    enCommande -= q;
+                    if (trajectoire != null) {
+                        trajectoire.recu[jour] += q;
+                    }
+                    continue;
+                }
+                if (progression != null && jour % JOURS_SUIVI == 0
+                        && !progression.avancer(jour, p.horizonJours)) {
+                    return false;
+                }
+                // Demande du jour
+                int demande = loi.tirer(alea);
+                int vendu = Math.min(demande, stock);
+                stock -= vendu;
+                ventes += vendu;
+                chiffreAffaires += vendu * prixvente;
+                if (vendu < demande) {
+                    perdues += demande - vendu;
+                    margePerdue += (demande - vendu) * marge;
+                    joursRupture++;
+                }
+                if (stock + enCommande <= pointCommande) {
+                    commandes++;
+                    enCommande += lot;
+                    coutAchat += lot * prixachat;
+                    if (jour + p.delaiLivraison < p.horizonJours) {
+                        pousser(RECEPTION, jour + p.delaiLivraison, lot);
+                    }
+                }
+                coutStockage += stock * stockageJour;
+                if (trajectoire != null) {
+                    trajectoire.demande[jour] = demande;
+                    trajectoire.ventes[jour] = vendu;
+                    trajectoire.stock[jour] = stock;
+                }
+                if (jour + 1 < p.horizonJours) {
+                    pousser(DEMANDE, jour + 1);
+                }
+            }
+            double[][] m = totaux.montants;
+            m[CHIFFRE_AFFAIRES][ligne] = chiffreAffaires;
+            m[COUT_ACHAT][ligne] = coutAchat;
+            m[COUT_STOCKAGE][ligne] = coutStockage;
+            m[MARGE_PERDUE][ligne] = margePerdue;
+            long[][] c = totaux.compteurs;
+            c[VENTES][ligne] = ventes;
+            c[VENTES_PERDUES][ligne] = perdues;
+            c[COMMANDES][ligne] = commandes;
+            c[JOURS_RUPTURE][ligne] = joursRupture;
+            c[STOCK_FINAL][ligne] = stock;
+            return true;
+        }
+
+        private void pousser(int type, int jour) {
+            pousser(type, jour, 0);
+        }
+
+        private void pousser(int type, int jour, int quantite) {
+            if (taille == cles.length) {
+                cles = Arrays.copyOf(cles, taille * 2);
+                quantites = Arrays.copyOf(quantites, taille * 2);
+            }
+            long cle = ((long) jour << 1) | type;
+            int i = taille++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (cles[parent] <= cle) {
+                    break;
+                }
+                cles[i] = cles[parent];
+                quantites[i] = quantites[parent];
+                i = parent;
+            }
+            cles[i] = cle;
+            quantites[i] = quantite;
+        }
+
+        private void retirerRacine() {
+            int dernier = --taille;
+            if (dernier == 0) {
+                return;
+            }
+            long cle = cles[dernier];
+            int quantite = quantites[dernier];
+            int i = 0;
+            while (true) {
+                int g = 2 * i + 1;
+                if (g >= dernier) {
+                    break;
+                }
+                int fils = g + 1 < dernier && cles[g + 1] < cles[g] ? g + 1 : g;
+                if (cles[fils] >= cle) {
+                    break;
+                }
+                cles[i] = cles[fils];
+                quantites[i] = quantites[fils];
+                i = fils;
+            }
+            cles[i] = cle;
+            quantites[i] = quantite;
+        }
+    }
+
+    /**
+     * Totaux communs au résultat d'un produit et d'un lot
+     */
+    abstract static class Bilan {
+        final Totaux totaux;
+
+        Bilan(int n) {
+            totaux = new Totaux(n);
+        }
+
+        double somme(int colonne) {
+            double s = 0;
+            for (double v : totaux.montants[colonne]) {
+                s += v;
+            }
+            return s;
+        }
+
+        long compte(int colonne) {
+            long s = 0;
+            for (long v : totaux.compteurs[colonne]) {
+                s += v;
+            }
+            return s;
+        }
+
+        public double getChiffreAffaires() { return somme(CHIFFRE_AFFAIRES); }
+        public double getCoutAchat() { return somme(COUT_ACHAT); }
+        public double getCoutStockage() { return somme(COUT_STOCKAGE); }
+        /** Marge des ventes perdues par rupture */
+        public double getMargePerdue() { return somme(MARGE_PERDUE); }
+        public long getVentes() { return compte(VENTES); }
+        public long getVentesPerdues() { return compte(VENTES_PERDUES); }
+        public long getCommandes() { return compte(COMMANDES); }
+
+        /**
+         * Taux de service : part de la demande servie
+         */
+        public double getTauxService() {
+            long ventes = getVentes();
+            long demande = ventes + getVentesPerdues();
+            return demande == 0 ? 1.0 : (double) ventes / demande;
+        }
+
+        /**
+         * Profit de la période : ventes - achats - stockage
+         */
+        public double getProfit() {
+            return getChiffreAffaires() - getCoutAchat() - getCoutStockage();
+        }
+    }
+
+    /**
+     * Résultat d'un produit : trajectoire jour par jour et totaux
+     */
+    public static final class Trajectoire extends Bilan {
+        private final int[] stock;
+        private final int[] demande;
+        private final int[] ventes;
+        private final int[] recu;
+
+        Trajectoire(int jours) {
+            super(1);
+            stock = new int[jours];
+            demande = new int[jours];
+            ventes = new int[jours];
+            recu = new int[jours];
+        }
+
+        public int getJours() { return stock.length; }
+        /** Stock en fin de journée */
+        public int getStock(int jour) { return stock[jour]; }
+        public int getDemande(int jour) { return demande[jour]; }
+        public int getVentes(int jour) { return ventes[jour]; }
+        /** Quantité reçue en début de journée */
+        public int getRecu(int jour) { return recu[jour]; }
+        public long getJoursRupture() { return compte(JOURS_RUPTURE); }
+    }
+
+    /**
+     * Résultat d'un lot : totaux par produit (dans l'ordre de l'instantané) et globaux
+     */
+    public static final class ResultatLot extends Bilan {
+        private final long[] ids;
+
+        ResultatLot(InstantaneCatalogue inst) {
+            super(inst.taille());
+            ids = new long[inst.taille()];
+            Arrays.setAll(ids, inst::getId);
+        }
+
+        public int taille() { return ids.length; }
+        public long getId(int i) { return ids[i]; }
+        public double getChiffreAffaires(int i) { return totaux.montants[CHIFFRE_AFFAIRES][i]; }
+        public double getCoutAchat(int i) { return totaux.montants[COUT_ACHAT][i]; }
+        public double getCoutStockage(int i) { return totaux.montants[COUT_STOCKAGE][i]; }
+        public double getMargePerdue(int i) { return totaux.montants[MARGE_PERDUE][i]; }
+        public long getVentes(int i) { return totaux.compteurs[VENTES][i]; }
+        public long getVentesPerdues(int i) { return totaux.compteurs[VENTES_PERDUES][i]; }
+        public long getCommandes(int i) { return totaux.compteurs[COMMANDES][i]; }
+        public long getJoursRupture(int i) { return totaux.compteurs[JOURS_RUPTURE][i]; }
+        public int getStockFinal(int i) { return (int) totaux.compteurs[STOCK_FINAL][i]; }
+    }
+}
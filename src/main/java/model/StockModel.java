@@ -4,98 +4,562 @@
  */
 package model;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import model.JournalMouvements.TypeMouvement;
+import model.SeriesTemporelles.Mesure;
 
 
 /**
  * Modèle de données principal pour le système
  * Gère la liste des produits et fournit des données pour les simulations
+ * Le stockage est délégué à un Catalogue (objets par défaut, colonnes
+ * pour les grands catalogues)
+ * Les mouvements peuvent être enregistrés dans un JournalMouvements, à partir
+ * duquel le modèle est reconstructible (les modifications faites directement
+ * via les setters de Produits ne sont pas journalisées).
+ * Chaque mouvement de stock alimente aussi un historique compressé en mémoire
+ * (niveau de stock, ventes, réceptions) consultable par plage de dates.
  */
 public class StockModel {
-    private List<Produits> produits;
+    private final Catalogue catalogue;
+    private final List<Produits> produits;
+    private JournalMouvements journal;
+    private volatile StockSecurite.Parametres parametresSecurite = StockSecurite.Parametres.PAR_DEFAUT;
+    private volatile StockSecurite.Resultat stockSecurite;     // dernier calcul (version + paramètres)
+    private final PrevisionDemande prevision = new PrevisionDemande(0.3, 0.1, 30);
+    private volatile BacktestPrevisions.Resultat modelesRetenus;   // dernière évaluation des prévisions
+    private final SeriesTemporelles series = new SeriesTemporelles(1000);
 
     public StockModel() {
-        produits = new ArrayList<>();
-        initialiserProduitsExemples();
+        this(new CatalogueObjets());
+    }
+
+    /**
+     * Crée le modèle sur un stockage donné (ex: new CatalogueColonnes())
+     */
+    public StockModel(Catalogue catalogue) {
+        this(catalogue, true);
+    }
+
+    /**
+     * @param avecExemples false pour partir d'un catalogue vide (rejeu, import)
+     */
+    public StockModel(Catalogue catalogue, boolean avecExemples) {
+        this.catalogue = catalogue;
+        this.produits = new VueProduits();
+        if (avecExemples) {
+            initialiserProduitsExemples();
+        }
+    }
+
+    /**
+     * Charge un modèle depuis un fichier catalogue binaire (voir FichierCatalogue)
+     */
+    public static StockModel depuisFichier(Path fichier, Catalogue catalogue) throws IOException {
+        StockModel model = new StockModel(catalogue, false);
+        FichierCatalogue.charger(fichier, catalogue);
+        return model;
+    }
+
+    /**
+     * Sauvegarde un instantané cohérent du catalogue au format binaire
+     */
+    public void sauvegarder(Path fichier) throws IOException {
+        FichierCatalogue.ecrire(fichier, catalogue.instantane());
+    }
+
+    /**
+     * Reconstruit un modèle en rejouant un journal, puis continue à y écrire
+     */
+    public static StockModel depuisJournal(Path fichier, Catalogue catalogue) throws IOException {
+        StockModel model = new StockModel(catalogue, false);
+        JournalMouvements.rejouer(fichier, catalogue);
+        model.setJournal(new JournalMouvements(fichier));
+        return model;
     }
 
     /**
      * Initialise 7 produits d'exemple pour le système
      */
     private void initialiserProduitsExemples() {
-        produits.add(new Produits("Laptop Dell", 45000, 65000, 25, 10, 500, 15));
-        produits.add(new Produits("Souris Sans Fil", 1500, 2500, 50, 15, 20, 30));
-        produits.add(new Produits("Clavier Mécanique", 3500, 5500, 30, 12, 50, 20));
-        produits.add(new Produits("Écran 24\"", 18000, 28000, 15, 8, 300, 10));
-        produits.add(new Produits("Casque Audio", 4000, 7000, 40, 18, 40, 25));
-        produits.add(new Produits("Disque SSD 1TB", 8000, 12000, 20, 10, 80, 12));
-        produits.add(new Produits("Webcam HD", 5500, 8500, 35, 14, 60, 18));
+        catalogue.ajouter("Laptop Dell", 45000, 65000, 25, 10, 500, 15);
+        catalogue.ajouter("Souris Sans Fil", 1500, 2500, 50, 15, 20, 30);
+        catalogue.ajouter("Clavier Mécanique", 3500, 5500, 30, 12, 50, 20);
+        catalogue.ajouter("Écran 24\"", 18000, 28000, 15, 8, 300, 10);
+        catalogue.ajouter("Casque Audio", 4000, 7000, 40, 18, 40, 25);
+        catalogue.ajouter("Disque SSD 1TB", 8000, 12000, 20, 10, 80, 12);
+        catalogue.ajouter("Webcam HD", 5500, 8500, 35, 14, 60, 18);
     }
 
     public List<Produits> getProduits() {
         return produits;
     }
 
-    public void ajouterProduit(Produits p) {
-        produits.add(p);
+    public Catalogue getCatalogue() {
+        return catalogue;
     }
 
-    public void supprimerProduit(int index) {
-        if (index >= 0 && index < produits.size()) {
-            produits.remove(index);
+    /**
+     * Agrégats du stock tenus à jour par le catalogue
+     */
+    public AgregatsStock getAgregats() {
+        return catalogue.getAgregats();
+    }
+
+    /**
+     * Produits en alerte, du plus critique au moins critique (index ordonné, sans parcours)
+     */
+    public List<Produits> getProduitsEnAlerte() {
+        return versProduits(catalogue.idsEnAlerte());
+    }
+
+    /**
+     * Produits dont le stock est à moins de pourcentage % au-dessus du seuil (alertes comprises)
+     */
+    public List<Produits> getProduitsProchesDuSeuil(double pourcentage) {
+        return versProduits(catalogue.idsProchesDuSeuil(pourcentage));
+    }
+
+    /**
+     * Les k produits les plus critiques (plus faible rapport quantité / seuil)
+     */
+    public List<Produits> getProduitsPlusCritiques(int k) {
+        return versProduits(catalogue.idsPlusCritiques(k));
+    }
+
+    private List<Produits> versProduits(long[] ids) {
+        List<Produits> resultat = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Produits p = catalogue.getProduitParId(id);
+            if (p != null) {
+                resultat.add(p);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Instantané immuable du catalogue, à épingler par les lecteurs
+     * (tableau de bord, graphiques, exports, tâches de fond)
+     */
+    public InstantaneCatalogue getInstantane() {
+        return catalogue.instantane();
+    }
+
+    /**
+     * Recommandations de réapprovisionnement de tout le catalogue, calculées en parallèle
+     */
+    public RecommandationsLot recommanderTout() {
+        return RecommandationsLot.calculer(catalogue.instantane());
+    }
+
+    /**
+     * Recommandations des seuls produits en alerte (quantité <= seuil)
+     */
+    public RecommandationsLot recommanderEnAlerte() {
+        InstantaneCatalogue inst = catalogue.instantane();
+        return RecommandationsLot.calculer(inst, i -> inst.getQuantite(i) <= inst.getSeuil(i));
+    }
+
+    /**
+     * Compare les modèles de prévision sur l'historique et retient le meilleur par produit
+     * @return null si la progression a interrompu l'évaluation (modèles retenus inchangés)
+     */
+    public BacktestPrevisions.Resultat evaluerPrevisions(HistoriqueVentes historique,
+                                                         BacktestPrevisions.Parametres parametres,
+                                                         BacktestPrevisions.Progression progression) {
+        BacktestPrevisions.Resultat r = BacktestPrevisions.evaluer(historique, parametres, progression);
+        if (r != null) {
+            modelesRetenus = r;
+        }
+        return r;
+    }
+
+    /**
+     * Dernière évaluation des modèles de prévision (null si aucune)
+     */
+    public BacktestPrevisions.Resultat getModelesRetenus() {
+        return modelesRetenus;
+    }
+
+    /**
+     * Modèle de prévision retenu pour un produit (null sans évaluation ou sans historique suffisant)
+     */
+    public BacktestPrevisions.Modele getModeleRetenu(long id) {
+        BacktestPrevisions.Resultat r = modelesRetenus;
+        int k = r == null ? -1 : r.indexDe(id);
+        return k < 0 ? null : r.getMeilleur(k);
+    }
+
+    /**
+     * Remplace la demande estimée de chaque produit évalué par la prévision de son modèle retenu
+     * @return nombre de produits mis à jour
+     */
+    public int appliquerPrevisions(BacktestPrevisions.Resultat r) {
+        int modifies = 0;
+        for (int k = 0; k < r.taille(); k++) {
+            int demande = r.getPrevisionRetenue(k);
+            long id = r.getId(k);
+            int s = catalogue.slotParId(id);
+            if (demande < 0 || s < 0) {
+                continue;
+            }
+            if (catalogue.getDemandeEstimee(s) != demande) {
+                catalogue.setDemandeEstimee(s, demande);
+                journaliserLigne(TypeMouvement.MODIFICATION, id);
+                modifies++;
+            }
+        }
+        return modifies;
+    }
+
+    /**
+     * Paramètres du stock de sécurité (niveau de service, variabilité, délai)
+     */
+    public void setParametresSecurite(StockSecurite.Parametres parametres) {
+        this.parametresSecurite = parametres;
+    }
+
+    public StockSecurite.Parametres getParametresSecurite() {
+        return parametresSecurite;
+    }
+
+    /**
+     * Stock de sécurité et point de commande de tout le catalogue
+     * Le résultat est conservé et réutilisé tant que ni l'instantané ni les paramètres ne changent.
+     */
+    public StockSecurite.Resultat getStockSecurite() {
+        return getStockSecurite(catalogue.instantane());
+    }
+
+    /**
+     * Stock de sécurité calculé sur un instantané épinglé par l'appelant (index alignés)
+     */
+    public StockSecurite.Resultat getStockSecurite(InstantaneCatalogue inst) {
+        StockSecurite.Parametres parametres = parametresSecurite;
+        StockSecurite.Resultat r = stockSecurite;
+        if (r == null || r.getVersion() != inst.getVersion() || !r.getParametres().equals(parametres)) {
+            StockSecurite.Resultat precedent = r;
+            r = StockSecurite.calculer(inst, parametres);
+            if (precedent == null || r.getVersion() >= precedent.getVersion()) {
+                stockSecurite = r;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Active la journalisation des mouvements (null pour la désactiver)
+     */
+    public void setJournal(JournalMouvements journal) {
+        this.journal = journal;
+    }
+
+    public JournalMouvements getJournal() {
+        return journal;
+    }
+
+    /**
+     * Journalise tous les produits présents (création), ex: après les exemples
+     */
+    public void journaliserCatalogue() {
+        for (int i = 0; i < catalogue.taille(); i++) {
+            journaliserLigne(TypeMouvement.CREATION, catalogue.getId(catalogue.slot(i)));
         }
     }
 
+    private void journaliser(TypeMouvement type, long id, int quantite) {
+        if (journal != null) {
+            try {
+                journal.enregistrer(type, id, quantite);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void journaliserLigne(TypeMouvement type, long id) {
+        if (journal != null) {
+            int s = catalogue.slotParId(id);
+            if (s < 0) {
+                return;
+            }
+            try {
+                journal.enregistrerLigne(type, id, catalogue.getNom(s), catalogue.getPrixachat(s),
+                                         catalogue.getPrixvente(s), catalogue.getQuantite(s), catalogue.getSeuil(s),
+                                         catalogue.getPrixstock(s), catalogue.getDemandeEstimee(s));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Ajoute un produit
+     * @return identifiant stable attribué
+     */
+    public long ajouterProduit(Produits p) {
+        long id = catalogue.getId(catalogue.ajouter(p));
+        journaliserLigne(TypeMouvement.CREATION, id);
+        return id;
+    }
+
+    public void supprimerProduit(int index) {
+        supprimerProduitParId(getId(index));
+    }
+
     public Produits getProduit(int index) {
-        if (index >= 0 && index < produits.size()) {
-            return produits.get(index);
+        if (index >= 0 && index < catalogue.taille()) {
+            return catalogue.getProduit(index);
         }
         return null;
     }
+
+    /**
+     * Obtient l'identifiant du produit affiché à un index (0 si hors limites)
+     */
+    public long getId(int index) {
+        if (index >= 0 && index < catalogue.taille()) {
+            return catalogue.getId(catalogue.slot(index));
+        }
+        return 0;
+    }
+
+    /**
+     * Trouve un produit par identifiant
+     */
+    public Produits getProduitParId(long id) {
+        return catalogue.getProduitParId(id);
+    }
+
+    /**
+     * Supprime un produit par identifiant (O(1), les autres identifiants restent valides)
+     */
+    public boolean supprimerProduitParId(long id) {
+        int s = catalogue.slotParId(id);
+        boolean supprime = catalogue.supprimerParId(id);
+        if (supprime) {
+            prevision.oublier(s);
+            series.oublier(id);
+            journaliser(TypeMouvement.SUPPRESSION, id, 0);
+        }
+        return supprime;
+    }
     
     /**
      * Ajoute un nouveau produit avec tous les paramètres
+     * @return identifiant stable attribué
      */
-    public void ajouterProduit(String nom, int quantite, double prixAchat, double prixVente, 
+    public long ajouterProduit(String nom, int quantite, double prixAchat, double prixVente, 
                               int seuil, double prixStock, int demande) {
-        Produits nouveauProduit = new Produits(nom, prixAchat, prixVente, quantite, seuil, prixStock, demande);
-        produits.add(nouveauProduit);
+        long id = catalogue.getId(catalogue.ajouter(nom, prixAchat, prixVente, quantite, seuil, prixStock, demande));
+        journaliserLigne(TypeMouvement.CREATION, id);
+        return id;
     }
     
+    /**
+     * Insère un lot de produits (import) ; les identifiants attribués sont écrits dans ids
+     */
+    void ajouterLot(long[] ids, String[] noms, double[] prixachat, double[] prixvente, int[] quantite,
+                    double[] seuil, double[] prixstock, int[] demande, int longueur) {
+        catalogue.ajouterLot(ids, noms, prixachat, prixvente, quantite, seuil, prixstock, demande, 0, longueur);
+        if (journal != null) {
+            for (int i = 0; i < longueur; i++) {
+                journaliserLigne(TypeMouvement.CREATION, ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Importe des produits depuis un fichier CSV (voir ImportCsv)
+     */
+    public ImportCsv.Rapport importerCsv(Path fichier, ImportCsv.Progression progression) throws IOException {
+        return new ImportCsv(this).importer(fichier, progression);
+    }
+
     /**
      * Modifie les paramètres d'un produit existant
      */
     public void modifierStock(int index, int nouvelleQuantite, int nouveauSeuil, int nouvelleDemande) {
-        if (index >= 0 && index < produits.size()) {
-            Produits p = produits.get(index);
-            p.setQuantite(nouvelleQuantite);
-            p.setSeuil(nouveauSeuil);
-            p.setDemandeEstimee(nouvelleDemande);
+        modifierStockParId(getId(index), nouvelleQuantite, nouveauSeuil, nouvelleDemande);
+    }
+
+    /**
+     * Modifie les paramètres d'un produit identifié
+     */
+    public void modifierStockParId(long id, int nouvelleQuantite, int nouveauSeuil, int nouvelleDemande) {
+        if (catalogue.modifierLigne(id, nouvelleQuantite, nouveauSeuil, nouvelleDemande)) {
+            journaliserLigne(TypeMouvement.MODIFICATION, id);
+            historiserStock(id, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Ajuste atomiquement le stock d'un produit (réception si delta > 0)
+     * @return false si le produit n'existe pas
+     */
+    public boolean ajusterStock(long id, int delta) {
+        boolean ajuste = catalogue.ajusterStock(id, delta);
+        if (ajuste) {
+            journaliser(TypeMouvement.AJUSTEMENT, id, delta);
+            historiserStock(id, System.currentTimeMillis());
+        }
+        return ajuste;
+    }
+
+    /**
+     * Enregistre une réception de marchandise (réapprovisionnement)
+     * @return false si le produit n'existe pas
+     */
+    public boolean recevoirStock(long id, int quantite) {
+        boolean recu = catalogue.ajusterStock(id, quantite);
+        if (recu) {
+            journaliser(TypeMouvement.RECEPTION, id, quantite);
+            long maintenant = System.currentTimeMillis();
+            series.enregistrer(id, Mesure.RECEPTIONS, maintenant, quantite);
+            historiserStock(id, maintenant);
+        }
+        return recu;
+    }
+
+    /**
+     * Retire atomiquement des unités vendues, sans passer sous zéro
+     * La quantité demandée (servie ou non) alimente la prévision de demande.
+     * @return unités effectivement retirées
+     */
+    public int retirerStock(long id, int quantite) {
+        int retire = catalogue.retirerStock(id, quantite);
+        long maintenant = System.currentTimeMillis();
+        if (retire > 0) {
+            journaliser(TypeMouvement.VENTE, id, retire);
+            series.enregistrer(id, Mesure.VENTES, maintenant, retire);
+            historiserStock(id, maintenant);
+        }
+        int s = catalogue.slotParId(id);
+        if (s >= 0) {
+            prevision.enregistrer(s, id, quantite, catalogue.getDemandeEstimee(s), maintenant);
+        }
+        return retire;
+    }
+
+    /**
+     * Historique en mémoire des niveaux de stock, ventes et réceptions
+     */
+    public SeriesTemporelles getSeries() {
+        return series;
+    }
+
+    // Niveau de stock courant du produit, dans l'historique
+    private void historiserStock(long id, long instant) {
+        int s = catalogue.slotParId(id);
+        if (s >= 0) {
+            series.enregistrer(id, Mesure.QUANTITE, instant, catalogue.getQuantite(s));
         }
     }
+
+    /**
+     * Prévision de demande tenue à jour à chaque vente
+     */
+    public PrevisionDemande getPrevision() {
+        return prevision;
+    }
+
+    /**
+     * Demande prévue pour la prochaine période (arrondie)
+     * @return -1 si aucune vente n'a été observée pour ce produit
+     */
+    public int getDemandePrevue(long id, PrevisionDemande.Methode methode) {
+        double d = prevision.prevoir(catalogue.slotParId(id), id, methode, System.currentTimeMillis());
+        return d < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, Math.round(d));
+    }
+
+    /**
+     * Recommandation basée sur la demande prévue (demande estimée saisie tant qu'aucune vente n'est observée)
+     */
+    public Produits.Recommendation recommanderSelonPrevision(long id, PrevisionDemande.Methode methode) {
+        Produits p = catalogue.getProduitParId(id);
+        if (p == null) {
+            return null;
+        }
+        int demande = getDemandePrevue(id, methode);
+        return p.recommanderReapprovisionnement(demande < 0 ? p.getDemandeEstimee() : demande);
+    }
+
+    /**
+     * Remplace le stock s'il vaut encore la valeur attendue (compare-and-set)
+     */
+    public boolean comparerEchangerStock(long id, int attendue, int nouvelle) {
+        boolean echange = catalogue.comparerEchangerStock(id, attendue, nouvelle);
+        if (echange) {
+            journaliser(TypeMouvement.AJUSTEMENT, id, nouvelle - attendue);
+            series.enregistrer(id, Mesure.QUANTITE, System.currentTimeMillis(), nouvelle);
+        }
+        return echange;
+    }
     
     /**
      * Obtient le nombre total de produits
      */
     public int getNombreProduits() {
-        return produits.size();
+        return catalogue.taille();
     }
     
     /**
      * Vérifie si un produit existe par son nom
      */
     public boolean produitExiste(String nom) {
-        return produits.stream().anyMatch(p -> p.getNom().equalsIgnoreCase(nom));
+        return catalogue.chercher(nom) >= 0;
     }
     
     /**
      * Trouve un produit par son nom
      */
     public Produits getProduitParNom(String nom) {
-        return produits.stream()
-                      .filter(p -> p.getNom().equalsIgnoreCase(nom))
-                      .findFirst()
-                      .orElse(null);
+        int s = catalogue.chercher(nom);
+        return s >= 0 ? catalogue.vue(s) : null;
+    }
+    
+    /**
+     * Liste indexée sur le catalogue (lecture et suppression)
+     */
+    /**
+     * Liste des produits du catalogue : ajout et suppression passent par le
+     * modèle (journal, prévisions, historique)
+     */
+    private class VueProduits extends AbstractList<Produits> {
+        @Override
+        public Produits get(int index) {
+            return catalogue.getProduit(index);
+        }
+
+        @Override
+        public int size() {
+            return catalogue.taille();
+        }
+
+        @Override
+        public void add(int index, Produits p) {
+            if (index != catalogue.taille()) {
+                throw new UnsupportedOperationException("Ajout uniquement en fin de catalogue");
+            }
+            ajouterProduit(p);
+        }
+
+        /**
+         * @return copie détachée du produit, prise avant la suppression
+         */
+        @Override
+        public Produits remove(int index) {
+            Produits p = catalogue.getProduit(index);
+            Produits copie = new Produits(p.getId(), p.getNom(), p.getPrixachat(), p.getPrixvente(),
+                                          p.getQuantite(), p.getSeuil(), p.getPrixstock(), p.getDemandeEstimee());
+            supprimerProduitParId(copie.getId());
+            return copie;
+        }
     }
 }
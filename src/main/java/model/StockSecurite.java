@@ -0,0 +1,226 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import java.util.Objects;
+
+/**
+ * Stock de sécurité et point de commande pilotés par un niveau de service
+ * La demande d'un produit sur l'horizon de protection (délai en jours) a pour
+ * moyenne D × L / P et pour écart-type cv × D × √(L / P), où D est la demande
+ * estimée par période de P jours et cv la variabilité relative de la demande.
+ * Pour un niveau de service α (probabilité de ne pas rompre) :
+ *   stock de sécurité = ⌈z(α) × cv × D × √(L / P)⌉
+ *   point de commande = ⌈D × L / P⌉ + stock de sécurité
+ * z(α) est le quantile de la loi normale (approximation rationnelle d'Acklam,
+ * erreur relative < 1.2e-9), calculé une seule fois par jeu de paramètres.
+ */
+public final class StockSecurite {
+
+    private StockSecurite() {
+    }
+
+    /**
+     * Paramètres du calcul (immuables, comparables : clé du cache de StockModel)
+     */
+    public static final class Parametres {
+        public static final Parametres PAR_DEFAUT = new Parametres(0.95, 0.15, 7, 30);
+
+        private final double niveauService;
+        private final double variabilite;
+        private final int delaiJours;
+        private final int joursParPeriode;
+        private final double z;
+        private final double facteurMoyenne;     // L / P
+        private final double facteurSecurite;    // z × cv × √(L / P)
+
+        /**
+         * @param niveauService probabilité de ne pas rompre, dans [0.5, 1)
+         * @param variabilite écart-type relatif de la demande d'une période (0.15 : 15%)
+         * @param delaiJours horizon de protection (délai de réapprovisionnement), en jours
+         * @param joursParPeriode durée de la période de la demande estimée, en jours
+         */
+        public Parametres(double niveauService, double variabilite, int delaiJours, int joursParPeriode) {
+            if (!(niveauService >= 0.5 && niveauService < 1) || !(variabilite >= 0)
+                    || delaiJours < 0 || joursParPeriode <= 0) {
+                throw new IllegalArgumentException("Paramètres de stock de sécurité invalides: service "
+                        + niveauService + ", variabilité " + variabilite + ", délai " + delaiJours
+                        + " j, période " + joursParPeriode + " j");
+            }
+            this.niveauService = niveauService;
+            this.variabilite = variabilite;
+            this.delaiJours = delaiJours;
+            this.joursParPeriode = joursParPeriode;
+            z = inverseNormale(niveauService);
+            facteurMoyenne = (double) delaiJours / joursParPeriode;
+            facteurSecurite = z * variabilite * Math.sqrt(facteurMoyenne);
+        }
+
+        public double getNiveauService() { return niveauService; }
+        public double getVariabilite() { return variabilite; }
+        public int getDelaiJours() { return delaiJours; }
+        public int getJoursParPeriode() { return joursParPeriode; }
+
+        /**
+         * Facteur de sécurité z : quantile normal du niveau de service
+         */
+        public double getZ() { return z; }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Parametres)) {
+                return false;
+            }
+            Parametres p = (Parametres) o;
+            return Double.compare(niveauService, p.niveauService) == 0
+                   && Double.compare(variabilite, p.variabilite) == 0
+                   && delaiJours == p.delaiJours && joursParPeriode == p.joursParPeriode;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(niveauService, variabilite, delaiJours, joursParPeriode);
+        }
+    }
+
+    // Coefficients de l'approximation d'Acklam
+    private static final double A1 = -3.969683028665376e+01, A2 = 2.209460984245205e+02,
+                                A3 = -2.759285104469687e+02, A4 = 1.383577518672690e+02,
+                                A5 = -3.066479806614716e+01, A6 = 2.506628277459239e+00;
+    private static final double B1 = -5.447609879822406e+01, B2 = 1.615858368580409e+02,
+                                B3 = -1.556989798598866e+02, B4 = 6.680131188771972e+01,
+                                B5 = -1.328068155288572e+01;
+    private static final double C1 = -7.784894002430293e-03, C2 = -3.223964580411365e-01,
+                                C3 = -2.400758277161838e+00, C4 = -2.549732539343734e+00,
+                                C5 = 4.374664141464968e+00, C6 = 2.938163982698783e+00;
+    private static final double D1 = 7.784695709041462e-03, D2 = 3.224671290700398e-01,
+                                D3 = 2.445134137142996e+00, D4 = 3.754408661907416e+00;
+    private static final double P_BAS = 0.02425;
+
+    /**
+     * Quantile de la loi normale centrée réduite
+     * @param p probabilité, dans ]0, 1[
+     */
+    public static double inverseNormale(double p) {
+        if (!(p > 0 && p < 1)) {
+            throw new IllegalArgumentException("Probabilité hors de ]0, 1[: " + p);
+        }
+        if (p < P_BAS) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((C1 * q + C2) * q + C3) * q + C4) * q + C5) * q + C6)
+                   / ((((D1 * q + D2) * q + D3) * q + D4) * q + 1);
+        }
+        if (p > 1 - P_BAS) {
+            double q = Math.sqrt(-2 * Math.log1p(-p));
+            return -(((((C1 * q + C2) * q + C3) * q + C4) * q + C5) * q + C6)
+                   / ((((D1 * q + D2) * q + D3) * q + D4) * q + 1);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((A1 * r + A2) * r + A3) * r + A4) * r + A5) * r + A6) * q
+               / (((((B1 * r + B2) * r + B3) * r + B4) * r + B5) * r + 1);
+    }
+
+    /**
+     * Stock de sécurité d'un produit de demande estimée donnée
+     */
+    public static int stockSecurite(int demande, Parametres parametres) {
+        return (int) Math.ceil(parametres.facteurSecurite * Math.max(demande, 0));
+    }
+
+    /**
+     * Point de commande : demande moyenne sur le délai + stock de sécurité
+     */
+    public static int pointCommande(int demande, Parametres parametres) {
+        return (int) Math.ceil(parametres.facteurMoyenne * Math.max(demande, 0)) + stockSecurite(demande, parametres);
+    }
+
+    /**
+     * Calcule en une passe le stock de sécurité et le point de commande de tout l'instantané
+     */
+    public static Resultat calculer(InstantaneCatalogue inst, Parametres parametres) {
+        int[] demande = inst.colonneDemande();
+        int[] quantite = inst.colonneQuantite();
+        int n = demande.length;
+        Resultat r = new Resultat(inst.getVersion(), parametres, inst.colonneIds(), n);
+        double fm = parametres.facteurMoyenne;
+        double fs = parametres.facteurSecurite;
+        for (int i = 0; i < n; i++) {
+            double d = Math.max(demande[i], 0);
+            int ss = (int) Math.ceil(fs * d);
+            int rop = (int) Math.ceil(fm * d) + ss;
+            r.stockSecurite[i] = ss;
+            r.pointCommande[i] = rop;
+            r.stockSecuriteTotal += ss;
+            if (quantite[i] <= rop && rop > 0) {
+                r.sousPointCommande[i] = true;
+                r.nombreSousPointCommande++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Résultat d'une passe : colonnes alignées sur l'instantané (mêmes index)
+     * Les tableaux renvoyés par les accesseurs sont ceux du résultat : ne pas les modifier.
+     */
+    public static final class Resultat {
+        private final long version;
+        private final Parametres parametres;
+        private final long[] ids;
+        private final int[] stockSecurite;
+        private final int[] pointCommande;
+        private final boolean[] sousPointCommande;
+        private long stockSecuriteTotal;
+        private int nombreSousPointCommande;
+
+        private Resultat(long version, Parametres parametres, long[] ids, int n) {
+            this.version = version;
+            this.parametres = parametres;
+            this.ids = ids;
+            stockSecurite = new int[n];
+            pointCommande = new int[n];
+            sousPointCommande = new boolean[n];
+        }
+
+        /**
+         * Version de l'instantané sur lequel le résultat a été calculé
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public Parametres getParametres() {
+            return parametres;
+        }
+
+        public int taille() {
+            return ids.length;
+        }
+
+        /**
+         * Somme des stocks de sécurité du catalogue
+         */
+        public long getStockSecuriteTotal() {
+            return stockSecuriteTotal;
+        }
+
+        /**
+         * Nombre de produits dont le stock est au point de commande ou en dessous
+         */
+        public int getNombreSousPointCommande() {
+            return nombreSousPointCommande;
+        }
+
+        public long getId(int index) { return ids[index]; }
+        public int getStockSecurite(int index) { return stockSecurite[index]; }
+        public int getPointCommande(int index) { return pointCommande[index]; }
+        public boolean isSousPointCommande(int index) { return sousPointCommande[index]; }
+
+        public int[] getStockSecurite() { return stockSecurite; }
+        public int[] getPointCommande() { return pointCommande; }
+        public boolean[] getSousPointCommande() { return sousPointCommande; }
+    }
+}
@@ -5,6 +5,7 @@
 package view;
 
 import controller.StockController;
+import model.AgregatsStock;
 import model.Produits;
 import javax.swing.*;
 import java.awt.*;
@@ -728,66 +729,81 @@ public class ChartPanel extends JPanel {
     }
 
     private void exportCharts() {
-        try {
+        List<Produits> produits = controller.getProduits();
+        if (produits.isEmpty()) {
+            JOptionPane.showMessageDialog(this, 
+                "Aucune donnée à exporter.", 
+                "Export impossible", 
+                JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        // Generate timestamp for unique filenames
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd_HHmmss");
+        String timestamp = sdf.format(new Date());
+        
+        // Rendering and file writes run off the EDT; errors are reported by TacheFond
+        TacheFond.lancer(this, "Export des graphiques", suivi -> {
             // Create export directory
             File exportDir = new File("exports");
             if (!exportDir.exists()) {
                 exportDir.mkdirs();
             }
             
-            // Generate timestamp for unique filenames
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd_HHmmss");
-            String timestamp = sdf.format(new Date());
-            
-            List<Produits> produits = controller.getProduits();
-            if (produits.isEmpty()) {
-                JOptionPane.showMessageDialog(this, 
-                    "Aucune donnée à exporter.", 
-                    "Export impossible", 
-                    JOptionPane.WARNING_MESSAGE);
-                return;
-            }
-            
             // Export each chart type
+            suivi.avancer(0, "Analyse des niveaux de stock");
             exportSingleChart("stock_analysis_" + timestamp + ".png", 
                             "Analyse des Niveaux de Stock", produits, "STOCK_BAR");
+            if (suivi.isAnnule()) {
+                return null;
+            }
             
+            suivi.avancer(200, "Répartition de la valeur");
             exportSingleChart("value_distribution_" + timestamp + ".png", 
                             "Répartition de la Valeur du Stock", produits, "PIE");
+            if (suivi.isAnnule()) {
+                return null;
+            }
             
+            suivi.avancer(400, "Demande vs stock");
             exportSingleChart("demand_analysis_" + timestamp + ".png", 
                             "Analyse Demande vs Stock", produits, "LINE");
+            if (suivi.isAnnule()) {
+                return null;
+            }
             
+            suivi.avancer(600, "Status des stocks");
             exportSingleChart("threshold_status_" + timestamp + ".png", 
                             "Status des Stocks", produits, "THRESHOLD");
+            if (suivi.isAnnule()) {
+                return null;
+            }
             
             // Create summary report
+            suivi.avancer(800, "Rapport");
             createExportReport(timestamp, produits);
-            
-            // Show success message
-            int result = JOptionPane.showConfirmDialog(this,
-                "Export terminé avec succès!\n" +
-                "4 graphiques et 1 rapport générés dans le dossier 'exports'.\n\n" +
-                "Voulez-vous ouvrir le dossier d'export?",
-                "Export Réussi",
-                JOptionPane.YES_NO_OPTION,
-                JOptionPane.INFORMATION_MESSAGE);
-            
-            if (result == JOptionPane.YES_OPTION) {
-                try {
-                    Desktop.getDesktop().open(exportDir);
-                } catch (Exception e) {
-                    JOptionPane.showMessageDialog(this, 
-                        "Impossible d'ouvrir le dossier: " + exportDir.getAbsolutePath(),
-                        "Information", JOptionPane.INFORMATION_MESSAGE);
-                }
+            return exportDir;
+        }, this::confirmerExport);
+    }
+    
+    private void confirmerExport(File exportDir) {
+        // Show success message
+        int result = JOptionPane.showConfirmDialog(this,
+            "Export terminé avec succès!\n" +
+            "4 graphiques et 1 rapport générés dans le dossier 'exports'.\n\n" +
+            "Voulez-vous ouvrir le dossier d'export?",
+            "Export Réussi",
+            JOptionPane.YES_NO_OPTION,
+            JOptionPane.INFORMATION_MESSAGE);
+        
+        if (result == JOptionPane.YES_OPTION) {
+            try {
+                Desktop.getDesktop().open(exportDir);
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this, 
+                    "Impossible d'ouvrir le dossier: " + exportDir.getAbsolutePath(),
+                    "Information", JOptionPane.INFORMATION_MESSAGE);
             }
-            
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this,
-                "Erreur lors de l'export: " + e.getMessage(),
-                "Erreur d'Export",
-                JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -1104,18 +1120,11 @@ public class ChartPanel extends JPanel {
         report.append("==================\n");
         report.append("Nombre total de produits: ").append(produits.size()).append("\n");
         
-        // Calculate summary stats
-        int alertes = 0;
-        double valeurTotale = 0;
-        int stockTotal = 0;
-        
-        for (Produits p : produits) {
-            if (p.getQuantite() <= p.getSeuil()) {
-                alertes++;
-            }
-            valeurTotale += p.getQuantite() * p.getPrixachat();
-            stockTotal += p.getQuantite();
-        }
+        // Summary stats from the maintained aggregates
+        AgregatsStock agregats = controller.getAgregats();
+        int alertes = agregats.getNombreAlertes();
+        double valeurTotale = agregats.getValeurTotale();
+        long stockTotal = agregats.getUnitesTotales();
         
         report.append("Produits en alerte: ").append(alertes).append("\n");
         report.append("Valeur totale du stock: ").append(String.format("%.2f", valeurTotale)).append(" DA\n");
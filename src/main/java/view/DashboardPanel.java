@@ -1,10 +1,15 @@
 package view;
 
 import controller.StockController;
+import model.AgregatsStock;
 import model.Produits;
+import model.SeriesTemporelles;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -12,6 +17,7 @@ import java.util.List;
  * Provides real-time insights into inventory performance
  */
 public class DashboardPanel extends JPanel {
+    private static final long JOUR_MS = 86_400_000L;
     private StockController controller;
     private JPanel kpiPanel;
     private JPanel alertsPanel;
@@ -178,21 +184,12 @@ public class DashboardPanel extends JPanel {
     private void updateKPIs() {
         kpiPanel.removeAll();
         
-        List<Produits> produits = controller.getProduits();
-        
-        // Calculate KPIs
-        int totalProducts = produits.size();
-        int lowStockItems = 0;
-        double totalValue = 0;
-        int totalStock = 0;
-        
-        for (Produits p : produits) {
-            if (p.getQuantite() <= p.getSeuil()) {
-                lowStockItems++;
-            }
-            totalValue += p.getQuantite() * p.getPrixachat();
-            totalStock += p.getQuantite();
-        }
+        // KPIs read from the maintained aggregates: cost does not depend on catalogue size
+        AgregatsStock agregats = controller.getAgregats();
+        int totalProducts = agregats.getNombreProduits();
+        int lowStockItems = agregats.getNombreAlertes();
+        double totalValue = agregats.getValeurTotale();
+        long totalStock = agregats.getUnitesTotales();
 
         // Create KPI cards
         kpiPanel.add(createKPICard("Produits Total", 
@@ -226,20 +223,18 @@ public class DashboardPanel extends JPanel {
             alertsPanel.remove(components[i]);
         }
 
-        List<Produits> produits = controller.getProduits();
+        // Most critical first, straight from the ordered alert index (no catalogue scan)
+        List<Produits> alertes = controller.getProduitsEnAlerte();
         
         JPanel contentPanel = new JPanel();
         contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
         contentPanel.setOpaque(false);
 
-        boolean hasAlerts = false;
-        for (Produits p : produits) {
-            if (p.getQuantite() <= p.getSeuil()) {
-                hasAlerts = true;
-                JPanel alertItem = createAlertItem(p);
-                contentPanel.add(alertItem);
-                contentPanel.add(Box.createRigidArea(new Dimension(0, 8)));
-            }
+        boolean hasAlerts = !alertes.isEmpty();
+        for (Produits p : alertes) {
+            JPanel alertItem = createAlertItem(p);
+            contentPanel.add(alertItem);
+            contentPanel.add(Box.createRigidArea(new Dimension(0, 8)));
         }
 
         if (!hasAlerts) {
@@ -290,16 +285,15 @@ public class DashboardPanel extends JPanel {
             quickStatsPanel.remove(components[i]);
         }
 
-        List<Produits> produits = controller.getProduits();
-        
         JPanel contentPanel = new JPanel(new GridLayout(4, 1, 0, 10));
         contentPanel.setOpaque(false);
 
         // Calculate stats
-        double avgPrice = produits.stream().mapToDouble(Produits::getPrixachat).average().orElse(0);
-        double totalDemand = produits.stream().mapToInt(Produits::getDemandeEstimee).sum();
-        double avgStock = produits.stream().mapToInt(Produits::getQuantite).average().orElse(0);
-        long criticalItems = produits.stream().filter(p -> p.getQuantite() <= p.getSeuil() * 0.5).count();
+        AgregatsStock agregats = controller.getAgregats();
+        double avgPrice = agregats.getPrixachatMoyen();
+        double totalDemand = agregats.getDemandeTotale();
+        double avgStock = agregats.getStockMoyen();
+        long criticalItems = controller.getNombreCritiques();
 
         contentPanel.add(createStatItem("Prix Moyen:", String.format("%.2f DA", avgPrice)));
         contentPanel.add(createStatItem("Demande Totale:", String.format("%.0f unités", totalDemand)));
@@ -340,14 +334,25 @@ public class DashboardPanel extends JPanel {
         contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
         contentPanel.setOpaque(false);
 
-        // Simulate recent activities
-        String[] activities = {
-            "[UPD] Stock mis à jour pour: Laptop Dell",
-            "[ANA] Analyse de demande effectuée",
-            "[ALR] Alerte générée: Souris Sans Fil",
-            "[RPT] Rapport de performance généré",
-            "[CFG] Paramètres système modifiés"
-        };
+        // Sales and receipts of the last 7 days, read from the model's history
+        long maintenant = System.currentTimeMillis();
+        List<String> activities = new ArrayList<>();
+        activities.add(String.format("Dernières 24 h : %.0f unités vendues, %.0f reçues",
+                controller.getTotalMouvements(SeriesTemporelles.Mesure.VENTES, maintenant - JOUR_MS, maintenant + 1),
+                controller.getTotalMouvements(SeriesTemporelles.Mesure.RECEPTIONS, maintenant - JOUR_MS, maintenant + 1)));
+        List<SeriesTemporelles.Evenement> mouvements = controller.getDerniersMouvements(4, maintenant - 7 * JOUR_MS);
+        SimpleDateFormat heure = new SimpleDateFormat("dd/MM HH:mm");
+        for (SeriesTemporelles.Evenement e : mouvements) {
+            Produits p = controller.getProduitParId(e.getId());
+            String nom = p != null ? p.getNom() : "#" + e.getId();
+            boolean vente = e.getMesure() == SeriesTemporelles.Mesure.VENTES;
+            activities.add(String.format("%s %s - %.0f unités %s: %s",
+                    vente ? "[VTE]" : "[REC]", heure.format(new Date(e.getInstant())),
+                    e.getValeur(), vente ? "vendues" : "reçues", nom));
+        }
+        if (mouvements.isEmpty()) {
+            activities.add("Aucune vente ni réception sur les 7 derniers jours");
+        }
 
         for (String activity : activities) {
             JLabel activityLabel = new JLabel(activity);
@@ -6,10 +6,16 @@ package view;
 
 
 import controller.StockController;
+import model.BacktestPrevisions;
+import model.HistoriqueVentes;
+import model.ImportCsv;
+import model.PrevisionDemande;
 import model.Produits;
+import model.StockSecurite;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.io.File;
 import java.util.List;
 
 /**
@@ -21,6 +27,8 @@ public class ProductPanel extends JPanel {
     private JTable table;
     private DefaultTableModel tableModel;
     private JTextArea detailsArea;
+    private long[] idsLignes = new long[0];   // ligne de la table -> identifiant produit
+    private TacheFond<String> analyseEnCours;     // recommandation calculée hors EDT
 
     public ProductPanel(StockController controller) {
         this.controller = controller;
@@ -80,17 +88,32 @@ public class ProductPanel extends JPanel {
         addBtn.setPreferredSize(new Dimension(140, 35));
         addBtn.addActionListener(e -> addProduct());
         
+        JButton venteBtn = new JButton("Enregistrer Vente");
+        venteBtn.setPreferredSize(new Dimension(150, 35));
+        venteBtn.addActionListener(e -> sellProduct());
+        
         JButton editBtn = new JButton("Modifier Stock");
         editBtn.setPreferredSize(new Dimension(140, 35));
         editBtn.addActionListener(e -> editStock());
         
+        JButton importBtn = new JButton("Importer CSV");
+        importBtn.setPreferredSize(new Dimension(130, 35));
+        importBtn.addActionListener(e -> importCsv());
+        
+        JButton backtestBtn = new JButton("Évaluer Prévisions");
+        backtestBtn.setPreferredSize(new Dimension(150, 35));
+        backtestBtn.addActionListener(e -> evaluerPrevisions());
+        
         JButton deleteBtn = new JButton("Supprimer");
         deleteBtn.setPreferredSize(new Dimension(120, 35));
         deleteBtn.addActionListener(e -> deleteProduct());
         
         buttonsPanel.add(recommandBtn);
         buttonsPanel.add(addBtn);
+        buttonsPanel.add(venteBtn);
         buttonsPanel.add(editBtn);
+        buttonsPanel.add(importBtn);
+        buttonsPanel.add(backtestBtn);
         buttonsPanel.add(deleteBtn);
         
         detailsPanel.add(buttonsPanel, BorderLayout.SOUTH);
@@ -104,8 +127,10 @@ public class ProductPanel extends JPanel {
     public void refreshTable() {
         tableModel.setRowCount(0);
         List<Produits> produits = controller.getProduits();
+        idsLignes = new long[produits.size()];
         
         for (Produits p : produits) {
+            idsLignes[tableModel.getRowCount()] = p.getId();
             Object[] row = {
                 p.getNom(),
                 p.getQuantite(),
@@ -119,10 +144,31 @@ public class ProductPanel extends JPanel {
         }
     }
 
-    private void showProductDetails() {
+    /**
+     * Identifiant du produit sélectionné (0 si aucune sélection)
+     */
+    private long getSelectedId() {
         int selectedRow = table.getSelectedRow();
-        if (selectedRow >= 0) {
-            Produits p = controller.getProduit(selectedRow);
+        return selectedRow >= 0 && selectedRow < idsLignes.length ? idsLignes[selectedRow] : 0;
+    }
+
+    /**
+     * Produit sélectionné, ou null s'il a été supprimé entre-temps (la table est alors rafraîchie)
+     */
+    private Produits getProduitExistant(long id) {
+        Produits p = controller.getProduitParId(id);
+        if (p == null) {
+            refreshTable();
+            JOptionPane.showMessageDialog(this, "Ce produit n'existe plus.",
+                                        "Produit supprimé", JOptionPane.WARNING_MESSAGE);
+        }
+        return p;
+    }
+
+    private void showProductDetails() {
+        long id = getSelectedId();
+        if (id != 0) {
+            Produits p = controller.getProduitParId(id);
             if (p != null) {
                 StringBuilder sb = new StringBuilder();
                 sb.append("═══════════════════════════════════════════\n");
@@ -145,8 +191,8 @@ public class ProductPanel extends JPanel {
     }
 
     private void getRecommandation() {
-        int selectedRow = table.getSelectedRow();
-        if (selectedRow < 0) {
+        long id = getSelectedId();
+        if (id == 0) {
             JOptionPane.showMessageDialog(this, 
                 "Veuillez sélectionner un produit dans la table.", 
                 "Aucun produit sélectionné", 
@@ -154,40 +200,69 @@ public class ProductPanel extends JPanel {
             return;
         }
 
-        Produits p = controller.getProduit(selectedRow);
-        String demandeStr = JOptionPane.showInputDialog(this, 
-            "Entrez la demande attendue pour " + p.getNom() + ":", 
-            p.getDemandeEstimee());
+        Produits p = getProduitExistant(id);
+        if (p == null) {
+            return;
+        }
+        // Proposer la prévision (Holt) quand des ventes ont été observées
+        int prevueSimple = controller.getDemandePrevue(id, PrevisionDemande.Methode.LISSAGE_SIMPLE);
+        int prevueHolt = controller.getDemandePrevue(id, PrevisionDemande.Methode.HOLT);
+        String message = "Entrez la demande attendue pour " + p.getNom() + ":";
+        if (prevueHolt >= 0) {
+            message += "\n(saisie: " + p.getDemandeEstimee() + ", prévision lissage: " + prevueSimple
+                     + ", Holt: " + prevueHolt + ")";
+        }
+        String demandeStr = JOptionPane.showInputDialog(this, message,
+            prevueHolt >= 0 ? prevueHolt : p.getDemandeEstimee());
         
         if (demandeStr != null && !demandeStr.isEmpty()) {
+            int demande;
             try {
-                int demande = Integer.parseInt(demandeStr);
-                Produits.Recommendation rec = controller.getRecommandation(selectedRow, demande);
-                
-                if (rec != null) {
-                    StringBuilder sb = new StringBuilder();
-                    sb.append("═══════════════════════════════════════════\n");
-                    sb.append("    ANALYSE DE RÉAPPROVISIONNEMENT\n");
-                    sb.append("═══════════════════════════════════════════\n\n");
-                    sb.append(rec.message).append("\n\n");
-                    sb.append("───────────────────────────────────────────\n");
-                    sb.append("DÉTAILS DE L'ANALYSE:\n");
-                    sb.append("───────────────────────────────────────────\n");
-                    sb.append(String.format("Seuil automatique:  %d unités\n", rec.thresholdAuto));
-                    sb.append(String.format("EOQ calculé:        %d unités\n", rec.eoq));
-                    sb.append(String.format("Coût commande:      %.2f DA\n", 
-                        controller.calculerCoutReappro(selectedRow, rec.reorderQty)));
-                    sb.append(String.format("Profit potentiel:   %.2f DA\n", 
-                        controller.calculerProfitPotentiel(selectedRow, rec.sold)));
-                    
-                    detailsArea.setText(sb.toString());
-                }
+                demande = Integer.parseInt(demandeStr);
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, 
                     "Veuillez entrer un nombre valide.", 
                     "Erreur", 
                     JOptionPane.ERROR_MESSAGE);
+                return;
             }
+            // Calcul hors de l'EDT ; une analyse précédente encore en cours est abandonnée
+            if (analyseEnCours != null) {
+                analyseEnCours.annuler();
+            }
+            StockSecurite.Parametres securite = controller.getParametresSecurite();
+            // Prévision acceptée telle quelle : la recommandation suit la demande prévue
+            boolean selonPrevision = prevueHolt >= 0 && demande == prevueHolt;
+            analyseEnCours = TacheFond.lancer(this, "Analyse de réapprovisionnement", suivi -> {
+                Produits.Recommendation rec = selonPrevision
+                        ? controller.getRecommandationPrevueParId(id, PrevisionDemande.Methode.HOLT)
+                        : controller.getRecommandationParId(id, demande);
+                if (rec == null) {
+                    return null;
+                }
+                StringBuilder sb = new StringBuilder();
+                sb.append("═══════════════════════════════════════════\n");
+                sb.append("    ANALYSE DE RÉAPPROVISIONNEMENT\n");
+                sb.append("═══════════════════════════════════════════\n\n");
+                if (selonPrevision) {
+                    sb.append("Demande prévue (Holt, ventes observées)\n\n");
+                }
+                sb.append(rec.getMessage()).append("\n\n");
+                sb.append("───────────────────────────────────────────\n");
+                sb.append("DÉTAILS DE L'ANALYSE:\n");
+                sb.append("───────────────────────────────────────────\n");
+                sb.append(String.format("Seuil automatique:  %d unités\n", rec.thresholdAuto));
+                sb.append(String.format("EOQ calculé:        %d unités\n", rec.eoq));
+                sb.append(String.format("Stock de sécurité:  %d unités (service %.1f%%)\n",
+                    StockSecurite.stockSecurite(demande, securite), securite.getNiveauService() * 100));
+                sb.append(String.format("Point de commande:  %d unités (délai %d j)\n",
+                    StockSecurite.pointCommande(demande, securite), securite.getDelaiJours()));
+                sb.append(String.format("Coût commande:      %.2f DA\n", 
+                    controller.calculerCoutReapproParId(id, rec.reorderQty)));
+                sb.append(String.format("Profit potentiel:   %.2f DA\n", 
+                    controller.calculerProfitPotentielParId(id, rec.sold)));
+                return sb.toString();
+            }, detailsArea::setText);
         }
     }
     
@@ -236,6 +311,11 @@ public class ProductPanel extends JPanel {
                                             "Erreur", JOptionPane.ERROR_MESSAGE);
                 return;
             }
+            if (controller.produitExiste(nom)) {
+                JOptionPane.showMessageDialog(this, "Un produit nommé '" + nom + "' existe déjà.", 
+                                            "Erreur", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             
             try {
                 int quantite = (Integer) quantiteSpinner.getValue();
@@ -262,15 +342,56 @@ public class ProductPanel extends JPanel {
         }
     }
     
+    /**
+     * Enregistre une vente : le stock baisse et la prévision de demande du produit est mise à jour
+     */
+    private void sellProduct() {
+        long id = getSelectedId();
+        if (id == 0) {
+            JOptionPane.showMessageDialog(this, "Veuillez sélectionner un produit.", 
+                                        "Aucun produit sélectionné", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        Produits p = getProduitExistant(id);
+        if (p == null) {
+            return;
+        }
+        JSpinner quantiteSpinner = new JSpinner(new SpinnerNumberModel(1, 1, 100000, 1));
+        JPanel panel = new JPanel(new GridLayout(2, 1, 5, 5));
+        panel.add(new JLabel("Quantité demandée pour " + p.getNom() + " (stock: " + p.getQuantite() + "):"));
+        panel.add(quantiteSpinner);
+        
+        int result = JOptionPane.showConfirmDialog(this, panel, "Enregistrer une vente", 
+                                                 JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        
+        if (result == JOptionPane.OK_OPTION) {
+            int demandee = (Integer) quantiteSpinner.getValue();
+            int vendue = controller.vendre(id, demandee);
+            refreshTable();
+            showProductDetails();
+            if (vendue < demandee) {
+                JOptionPane.showMessageDialog(this, vendue + " unités vendues, " + (demandee - vendue)
+                                            + " non servies (stock insuffisant).",
+                                            "Vente partielle", JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, vendue + " unités vendues.");
+            }
+        }
+    }
+    
     private void editStock() {
-        int selectedRow = table.getSelectedRow();
-        if (selectedRow < 0) {
+        long id = getSelectedId();
+        if (id == 0) {
             JOptionPane.showMessageDialog(this, "Veuillez sélectionner un produit.", 
                                         "Aucun produit sélectionné", JOptionPane.WARNING_MESSAGE);
             return;
         }
         
-        Produits p = controller.getProduit(selectedRow);
+        Produits p = getProduitExistant(id);
+        if (p == null) {
+            return;
+        }
         JPanel panel = new JPanel(new GridBagLayout());
         GridBagConstraints gbc = new GridBagConstraints();
         gbc.insets = new Insets(5, 5, 5, 5);
@@ -298,7 +419,7 @@ public class ProductPanel extends JPanel {
             int nouveauSeuil = (Integer) seuilSpinner.getValue();
             int nouvelleDemande = (Integer) demandeSpinner.getValue();
             
-            controller.modifierStock(selectedRow, nouvelleQuantite, nouveauSeuil, nouvelleDemande);
+            controller.modifierStockParId(id, nouvelleQuantite, nouveauSeuil, nouvelleDemande);
             refreshTable();
             showProductDetails();
             JOptionPane.showMessageDialog(this, "Stock mis à jour avec succès!");
@@ -306,24 +427,118 @@ public class ProductPanel extends JPanel {
     }
     
     private void deleteProduct() {
-        int selectedRow = table.getSelectedRow();
-        if (selectedRow < 0) {
+        long id = getSelectedId();
+        if (id == 0) {
             JOptionPane.showMessageDialog(this, "Veuillez sélectionner un produit.", 
                                         "Aucun produit sélectionné", JOptionPane.WARNING_MESSAGE);
             return;
         }
         
-        Produits p = controller.getProduit(selectedRow);
+        Produits p = getProduitExistant(id);
+        if (p == null) {
+            return;
+        }
         int confirm = JOptionPane.showConfirmDialog(this, 
                 "Êtes-vous sûr de vouloir supprimer le produit '" + p.getNom() + "' ?", 
                 "Confirmation de suppression", 
                 JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            controller.supprimerProduit(selectedRow);
+            controller.supprimerProduitParId(id);
             refreshTable();
             detailsArea.setText("Produit supprimé. Sélectionnez un autre produit pour voir les détails.");
             JOptionPane.showMessageDialog(this, "Produit supprimé avec succès!");
         }
     }
+
+    /**
+     * Évalue les modèles de prévision sur l'historique d'un journal de mouvements,
+     * puis propose de remplacer les demandes estimées par la prévision du modèle retenu
+     */
+    private void evaluerPrevisions() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Journal de mouvements à évaluer");
+        String journal = System.getProperty("journal");
+        if (journal != null) {
+            chooser.setSelectedFile(new File(journal));
+        }
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File fichier = chooser.getSelectedFile();
+        TacheFond.lancer(this, "Évaluation des prévisions", suivi -> {
+            suivi.avancer(0, "Lecture du journal...");
+            HistoriqueVentes historique = controller.chargerHistorique(fichier.toPath());
+            if (suivi.isAnnule()) {
+                return null;
+            }
+            // Lecture du journal : 30 % ; évaluation : le reste
+            suivi.avancer(300, historique.taille() + " produits à évaluer");
+            return controller.evaluerPrevisions(historique, (faits, total) -> {
+                suivi.avancer(300 + (int) (faits * 700 / total), faits + " / " + total + " produits évalués");
+                return !suivi.isAnnule();
+            });
+        }, this::proposerPrevisions);
+    }
+
+    private void proposerPrevisions(BacktestPrevisions.Resultat r) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("═══════════════════════════════════════════\n");
+        sb.append("    ÉVALUATION DES MODÈLES DE PRÉVISION\n");
+        sb.append("═══════════════════════════════════════════\n\n");
+        sb.append(String.format("Produits avec historique: %d\n\n", r.taille()));
+        sb.append("Modèle retenu (plus petit MASE):\n");
+        int retenus = 0;
+        for (BacktestPrevisions.Modele m : BacktestPrevisions.Modele.values()) {
+            sb.append(String.format("  %-28s %d produits\n", m.getLibelle(), r.getVictoires(m)));
+            retenus += r.getVictoires(m);
+        }
+        detailsArea.setText(sb.toString());
+        if (retenus == 0) {
+            JOptionPane.showMessageDialog(this, "Historique trop court : aucun modèle n'a pu être retenu.");
+            return;
+        }
+        int confirm = JOptionPane.showConfirmDialog(this,
+                "Remplacer la demande estimée de " + retenus + " produits par la prévision de leur modèle retenu ?",
+                "Appliquer les prévisions", JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+        if (confirm == JOptionPane.YES_OPTION) {
+            int modifies = controller.appliquerPrevisions(r);
+            refreshTable();
+            JOptionPane.showMessageDialog(this, modifies + " demandes estimées mises à jour.");
+        }
+    }
+
+    /**
+     * Import CSV en tâche de fond, avec progression et annulation
+     * Format attendu : nom;prixachat;prixvente;quantite;seuil;prixstock;demande
+     */
+    private void importCsv() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Importer un catalogue CSV");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File fichier = chooser.getSelectedFile();
+        TacheFond.lancer(this, "Import de " + fichier.getName(), suivi -> {
+            try {
+                return controller.importerCsv(fichier.toPath(), (lus, total, importees) -> {
+                    suivi.avancer(total > 0 ? (int) (lus * 1000 / total) : 1000, importees + " produits importés");
+                    return !suivi.isAnnule();
+                });
+            } finally {
+                // Les blocs déjà insérés restent, même après une erreur
+                suivi.afficher(this::refreshTable);
+            }
+        }, rapport -> {
+            StringBuilder sb = new StringBuilder();
+            sb.append(rapport.isInterrompu() ? "Import interrompu.\n" : "Import terminé.\n");
+            sb.append("Lignes lues: ").append(rapport.getLignesLues()).append("\n");
+            sb.append("Produits importés: ").append(rapport.getLignesImportees()).append("\n");
+            sb.append("Lignes rejetées: ").append(rapport.getLignesRejetees()).append("\n");
+            for (String erreur : rapport.getErreurs().subList(0, Math.min(10, rapport.getErreurs().size()))) {
+                sb.append("  ").append(erreur).append("\n");
+            }
+            JOptionPane.showMessageDialog(this, sb.toString(), "Import CSV", JOptionPane.INFORMATION_MESSAGE);
+        });
+    }
 }
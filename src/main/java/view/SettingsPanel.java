@@ -18,12 +18,13 @@ public class SettingsPanel extends JPanel {
     // Composants d'interface
     private JSpinner coutCommandeDefautSpinner;
     private JSpinner seuilAlerteSpinner;
-    private JSpinner stockSecuriteSpinner;
+    private JSpinner delaiLivraisonSpinner;
     private JCheckBox alertesActivesCheckBox;
     private JCheckBox calculAutoEOQCheckBox;
     private JCheckBox sauvegardeAutoCheckBox;
     private JComboBox<String> deviseComboBox;
     private JSlider margeSecuriteSlider;
+    private JSpinner niveauServiceSpinner;
     private JTextArea rapportArea;
 
     public SettingsPanel(StockController controller) {
@@ -114,13 +115,13 @@ public class SettingsPanel extends JPanel {
         seuilAlerteSpinner.setPreferredSize(new Dimension(100, 25));
         panel.add(seuilAlerteSpinner, gbc);
         
-        // Stock de sécurité par défaut
+        // Délai de livraison (L du stock de sécurité)
         gbc.gridx = 0; gbc.gridy = 3;
-        panel.add(createLabel("Stock de sécurité (jours):"), gbc);
+        panel.add(createLabel("Délai de livraison (jours):"), gbc);
         gbc.gridx = 1;
-        stockSecuriteSpinner = new JSpinner(new SpinnerNumberModel(7, 1, 30, 1));
-        stockSecuriteSpinner.setPreferredSize(new Dimension(100, 25));
-        panel.add(stockSecuriteSpinner, gbc);
+        delaiLivraisonSpinner = new JSpinner(new SpinnerNumberModel(7, 0, 365, 1));
+        delaiLivraisonSpinner.setPreferredSize(new Dimension(100, 25));
+        panel.add(delaiLivraisonSpinner, gbc);
         
         // Marge de sécurité
         gbc.gridx = 0; gbc.gridy = 4;
@@ -135,6 +136,14 @@ public class SettingsPanel extends JPanel {
         margeSecuriteSlider.setForeground(Color.WHITE);
         panel.add(margeSecuriteSlider, gbc);
         
+        // Niveau de service visé (stock de sécurité)
+        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 1;
+        panel.add(createLabel("Niveau de service (%):"), gbc);
+        gbc.gridx = 1;
+        niveauServiceSpinner = new JSpinner(new SpinnerNumberModel(95.0, 50.0, 99.9, 0.5));
+        niveauServiceSpinner.setPreferredSize(new Dimension(100, 25));
+        panel.add(niveauServiceSpinner, gbc);
+        
         return panel;
     }
 
@@ -187,7 +196,9 @@ public class SettingsPanel extends JPanel {
             "• EOQ = √(2 × D × S / H)\n" +
             "  D = Demande annuelle, S = Coût de commande, H = Coût de stockage\n\n" +
             "• Point de commande = (D × L) + Stock de sécurité\n" +
-            "  L = Délai de livraison\n\n" +
+            "  L = Délai de livraison (jours), D = Demande par jour\n" +
+            "• Stock de sécurité = z × σ × √L\n" +
+            "  z = quantile du niveau de service, σ = Marge de sécurité × D\n\n" +
             "• Coût total = (D/Q × S) + (Q/2 × H)\n" +
             "  Q = Quantité commandée"
         );
@@ -301,24 +312,40 @@ public class SettingsPanel extends JPanel {
         // Charger les paramètres sauvegardés
         coutCommandeDefautSpinner.setValue(prefs.getDouble("coutCommande", 100.0));
         seuilAlerteSpinner.setValue(prefs.getInt("seuilAlerte", 20));
-        stockSecuriteSpinner.setValue(prefs.getInt("stockSecurite", 7));
+        // Ancienne préférence "stockSecurite" : c'était déjà le délai L
+        delaiLivraisonSpinner.setValue(prefs.getInt("delaiLivraison", prefs.getInt("stockSecurite", 7)));
         margeSecuriteSlider.setValue(prefs.getInt("margeSecurite", 15));
         alertesActivesCheckBox.setSelected(prefs.getBoolean("alertesActives", true));
         calculAutoEOQCheckBox.setSelected(prefs.getBoolean("calculAutoEOQ", true));
         sauvegardeAutoCheckBox.setSelected(prefs.getBoolean("sauvegardeAuto", false));
         deviseComboBox.setSelectedIndex(prefs.getInt("devise", 0));
+        niveauServiceSpinner.setValue(prefs.getDouble("niveauService", 95.0));
+        appliquerStockSecurite();
+    }
+
+    /**
+     * Transmet le niveau de service, la marge (variabilité de la demande) et
+     * le délai de livraison L (jours) au calcul du stock de sécurité
+     */
+    private void appliquerStockSecurite() {
+        controller.configurerStockSecurite((Double) niveauServiceSpinner.getValue(),
+                                           margeSecuriteSlider.getValue(),
+                                           (Integer) delaiLivraisonSpinner.getValue());
     }
 
     private void saveSettings() {
         // Sauvegarder les paramètres
         prefs.putDouble("coutCommande", (Double) coutCommandeDefautSpinner.getValue());
         prefs.putInt("seuilAlerte", (Integer) seuilAlerteSpinner.getValue());
-        prefs.putInt("stockSecurite", (Integer) stockSecuriteSpinner.getValue());
+        prefs.putInt("delaiLivraison", (Integer) delaiLivraisonSpinner.getValue());
+        prefs.remove("stockSecurite");
         prefs.putInt("margeSecurite", margeSecuriteSlider.getValue());
         prefs.putBoolean("alertesActives", alertesActivesCheckBox.isSelected());
         prefs.putBoolean("calculAutoEOQ", calculAutoEOQCheckBox.isSelected());
         prefs.putBoolean("sauvegardeAuto", sauvegardeAutoCheckBox.isSelected());
         prefs.putInt("devise", deviseComboBox.getSelectedIndex());
+        prefs.putDouble("niveauService", (Double) niveauServiceSpinner.getValue());
+        appliquerStockSecurite();
         
         JOptionPane.showMessageDialog(this, "Paramètres sauvegardés avec succès!", 
                                       "Confirmation", JOptionPane.INFORMATION_MESSAGE);
@@ -333,12 +360,14 @@ public class SettingsPanel extends JPanel {
             // Remettre les valeurs par défaut
             coutCommandeDefautSpinner.setValue(100.0);
             seuilAlerteSpinner.setValue(20);
-            stockSecuriteSpinner.setValue(7);
+            delaiLivraisonSpinner.setValue(7);
             margeSecuriteSlider.setValue(15);
             alertesActivesCheckBox.setSelected(true);
             calculAutoEOQCheckBox.setSelected(true);
             sauvegardeAutoCheckBox.setSelected(false);
             deviseComboBox.setSelectedIndex(0);
+            niveauServiceSpinner.setValue(95.0);
+            appliquerStockSecurite();
             
             JOptionPane.showMessageDialog(this, "Paramètres réinitialisés!");
         }
@@ -352,8 +381,9 @@ public class SettingsPanel extends JPanel {
         sb.append("- Devise: ").append(deviseComboBox.getSelectedItem()).append("\n");
         sb.append("- Coût commande: ").append(coutCommandeDefautSpinner.getValue()).append("\n");
         sb.append("- Seuil alerte: ").append(seuilAlerteSpinner.getValue()).append("%\n");
-        sb.append("- Stock sécurité: ").append(stockSecuriteSpinner.getValue()).append(" jours\n");
-        sb.append("- Marge sécurité: ").append(margeSecuriteSlider.getValue()).append("%\n\n");
+        sb.append("- Délai livraison: ").append(delaiLivraisonSpinner.getValue()).append(" jours\n");
+        sb.append("- Marge sécurité: ").append(margeSecuriteSlider.getValue()).append("%\n");
+        sb.append("- Niveau de service: ").append(niveauServiceSpinner.getValue()).append("%\n\n");
         
         sb.append("Options activées:\n");
         sb.append("- Calcul auto EOQ: ").append(calculAutoEOQCheckBox.isSelected() ? "OUI" : "NON").append("\n");
@@ -377,7 +407,7 @@ public class SettingsPanel extends JPanel {
         sb.append("- Mémoire totale: ").append(Runtime.getRuntime().totalMemory() / 1024 / 1024).append(" MB\n\n");
         
         sb.append("Configuration DSS:\n");
-        sb.append("- Nombre de produits: ").append(controller.getProduits().size()).append("\n");
+        sb.append("- Nombre de produits: ").append(controller.getNombreProduits()).append("\n");
         sb.append("- Alertes actives: ").append(alertesActivesCheckBox.isSelected() ? "OUI" : "NON").append("\n");
         sb.append("- Calcul EOQ: ").append(calculAutoEOQCheckBox.isSelected() ? "ACTIVÉ" : "DÉSACTIVÉ").append("\n");
         
@@ -390,20 +420,13 @@ public class SettingsPanel extends JPanel {
         sb.append("====================\n\n");
         sb.append("Date: ").append(new java.util.Date()).append("\n\n");
         
-        var produits = controller.getProduits();
-        if (produits.isEmpty()) {
+        if (controller.getNombreProduits() == 0) {
             sb.append("Aucun produit en stock.\n");
         } else {
-            int totalProduits = produits.size();
-            int alertes = 0;
-            double valeurTotale = 0;
-            
-            for (var p : produits) {
-                if (p.getQuantite() <= p.getSeuil()) {
-                    alertes++;
-                }
-                valeurTotale += p.getQuantite() * p.getPrixachat();
-            }
+            var agregats = controller.getAgregats();
+            int totalProduits = agregats.getNombreProduits();
+            int alertes = agregats.getNombreAlertes();
+            double valeurTotale = agregats.getValeurTotale();
             
             sb.append("Statistiques générales:\n");
             sb.append("- Total produits: ").append(totalProduits).append("\n");
@@ -414,11 +437,26 @@ public class SettingsPanel extends JPanel {
             if (alertes == 0) {
                 sb.append("Aucune alerte active.\n");
             } else {
-                for (var p : produits) {
-                    if (p.getQuantite() <= p.getSeuil()) {
-                        sb.append("- ").append(p.getNom()).append(": ").append(p.getQuantite())
-                          .append("/").append((int)p.getSeuil()).append(" unités\n");
-                    }
+                for (var p : controller.getProduitsEnAlerte()) {
+                    sb.append("- ").append(p.getNom()).append(": ").append(p.getQuantite())
+                      .append("/").append((int)p.getSeuil()).append(" unités\n");
+                }
+            }
+            
+            var produits = controller.getInstantane();
+            var securite = controller.getStockSecurite(produits);
+            var parametres = securite.getParametres();
+            sb.append(String.format("\nStock de sécurité (service %.1f%%, z = %.3f, délai %d j):\n",
+                parametres.getNiveauService() * 100, parametres.getZ(), parametres.getDelaiJours()));
+            sb.append("- Stock de sécurité total: ").append(securite.getStockSecuriteTotal()).append(" unités\n");
+            sb.append("- Sous le point de commande: ").append(securite.getNombreSousPointCommande()).append(" produits\n");
+            int listes = 0;
+            for (int i = 0; i < securite.taille() && listes < 50; i++) {
+                if (securite.isSousPointCommande(i)) {
+                    sb.append("  - ").append(produits.getNom(i)).append(": ").append(produits.getQuantite(i))
+                      .append(" / point de commande ").append(securite.getPointCommande(i))
+                      .append(" (sécurité ").append(securite.getStockSecurite(i)).append(")\n");
+                    listes++;
                 }
             }
         }
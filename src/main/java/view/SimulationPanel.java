@@ -6,10 +6,19 @@ package view;
 
 
 import controller.StockController;
+import model.AnalyseSensibilite;
+import model.BalayageScenarios;
 import model.Produits;
+import model.Scenario;
+import model.SimulationMonteCarlo;
+import model.SimulationStock;
 import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Panneau de simulation "What-If"
@@ -21,7 +30,20 @@ public class SimulationPanel extends JPanel {
     private JSpinner demandeSpinner;
     private JSpinner prixAchatSpinner;
     private JSpinner prixStockSpinner;
+    private JComboBox<String> loiCombo;
+    private JSpinner delaiSpinner;
     private JTextArea resultArea;
+    private JPanel resultCards;
+    private CardLayout resultLayout;
+    private ModeleBalayage modeleBalayage;
+    private JLabel balayageStatus;
+    private AnalyseSensibilite sensibilite;
+    private JComboBox<AnalyseSensibilite.Indicateur> indicateurCombo;
+    private GraphiqueTornado tornado;
+    private JPanel tornadoPanel;
+    private JLabel tornadoStatus;
+    private TacheFond<?> tacheEnCours;          // calcul hors EDT en cours (annulé par le suivant)
+    private long[] idsProduits = new long[0];   // entrée de la liste -> identifiant produit
 
     public SimulationPanel(StockController controller) {
         this.controller = controller;
@@ -77,11 +99,26 @@ public class SimulationPanel extends JPanel {
         prixStockSpinner.setPreferredSize(new Dimension(100, 25));
         paramsPanel.add(prixStockSpinner, gbc);
 
+        // Loi de la demande (Monte Carlo)
+        gbc.gridx = 0; gbc.gridy = 4;
+        paramsPanel.add(new JLabel("Loi de la demande:"), gbc);
+        gbc.gridx = 1;
+        loiCombo = new JComboBox<>(new String[]{"Normale (σ = 25%)", "Poisson"});
+        paramsPanel.add(loiCombo, gbc);
+
+        // Délai de livraison (simulation sur un an)
+        gbc.gridx = 0; gbc.gridy = 5;
+        paramsPanel.add(new JLabel("Délai livraison (jours):"), gbc);
+        gbc.gridx = 1;
+        delaiSpinner = new JSpinner(new SpinnerNumberModel(7, 0, 180, 1));
+        delaiSpinner.setPreferredSize(new Dimension(100, 25));
+        paramsPanel.add(delaiSpinner, gbc);
+
         // Boutons de simulation
-        gbc.gridx = 0; gbc.gridy = 4; gbc.gridwidth = 2;
+        gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 2;
         gbc.anchor = GridBagConstraints.CENTER;
         
-        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JPanel buttonPanel = new JPanel(new GridLayout(2, 3, 5, 5));
         JButton simulateBtn = new JButton("Lancer Simulation");
         simulateBtn.setPreferredSize(new Dimension(150, 35));
         simulateBtn.addActionListener(e -> runSimulation());
@@ -90,12 +127,27 @@ public class SimulationPanel extends JPanel {
         compareBtn.setPreferredSize(new Dimension(150, 35));
         compareBtn.addActionListener(e -> compareScenarios());
         
+        JButton monteCarloBtn = new JButton("Monte Carlo");
+        monteCarloBtn.setPreferredSize(new Dimension(150, 35));
+        monteCarloBtn.addActionListener(e -> runMonteCarlo());
+
+        JButton anneeBtn = new JButton("Simuler 1 an");
+        anneeBtn.setPreferredSize(new Dimension(150, 35));
+        anneeBtn.addActionListener(e -> runSimulationAnnee());
+
+        JButton sensibiliteBtn = new JButton("Sensibilité");
+        sensibiliteBtn.setPreferredSize(new Dimension(150, 35));
+        sensibiliteBtn.addActionListener(e -> afficherSensibilite());
+
         JButton resetBtn = new JButton("Réinitialiser");
         resetBtn.setPreferredSize(new Dimension(120, 35));
         resetBtn.addActionListener(e -> resetSimulation());
         
         buttonPanel.add(simulateBtn);
         buttonPanel.add(compareBtn);
+        buttonPanel.add(monteCarloBtn);
+        buttonPanel.add(anneeBtn);
+        buttonPanel.add(sensibiliteBtn);
         buttonPanel.add(resetBtn);
         paramsPanel.add(buttonPanel, gbc);
 
@@ -109,7 +161,41 @@ public class SimulationPanel extends JPanel {
         resultArea.setEditable(false);
         resultArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
         JScrollPane scrollPane = new JScrollPane(resultArea);
-        resultPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Table des résultats du balayage de scénarios (triable)
+        modeleBalayage = new ModeleBalayage();
+        JTable tableBalayage = new JTable(modeleBalayage);
+        tableBalayage.setAutoCreateRowSorter(true);
+        tableBalayage.setDefaultRenderer(Integer.class, new RenduBalayage());
+        tableBalayage.setDefaultRenderer(Double.class, new RenduBalayage());
+        balayageStatus = new JLabel(" ");
+        JPanel grillePanel = new JPanel(new BorderLayout(5, 5));
+        grillePanel.add(new JScrollPane(tableBalayage), BorderLayout.CENTER);
+        grillePanel.add(balayageStatus, BorderLayout.SOUTH);
+
+        resultLayout = new CardLayout();
+        resultCards = new JPanel(resultLayout);
+        resultCards.add(scrollPane, "texte");
+        resultCards.add(grillePanel, "grille");
+
+        // Tornado de sensibilité, recalculé à chaque changement des paramètres
+        sensibilite = controller.creerAnalyseSensibilite(0.2, 21);
+        indicateurCombo = new JComboBox<>(AnalyseSensibilite.Indicateur.values());
+        indicateurCombo.addActionListener(e -> majSensibilite());
+        tornado = new GraphiqueTornado();
+        tornadoStatus = new JLabel(" ");
+        JPanel indicateurPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        indicateurPanel.add(new JLabel("Indicateur:"));
+        indicateurPanel.add(indicateurCombo);
+        tornadoPanel = new JPanel(new BorderLayout(5, 5));
+        tornadoPanel.add(indicateurPanel, BorderLayout.NORTH);
+        tornadoPanel.add(tornado, BorderLayout.CENTER);
+        tornadoPanel.add(tornadoStatus, BorderLayout.SOUTH);
+        resultCards.add(tornadoPanel, "tornado");
+        demandeSpinner.addChangeListener(e -> majSensibilite());
+        prixAchatSpinner.addChangeListener(e -> majSensibilite());
+        prixStockSpinner.addChangeListener(e -> majSensibilite());
+        resultPanel.add(resultCards, BorderLayout.CENTER);
 
         add(resultPanel, BorderLayout.CENTER);
 
@@ -119,7 +205,9 @@ public class SimulationPanel extends JPanel {
     public void refreshProductList() {
         productCombo.removeAllItems();
         List<Produits> produits = controller.getProduits();
+        idsProduits = new long[produits.size()];
         for (Produits p : produits) {
+            idsProduits[productCombo.getItemCount()] = p.getId();
             productCombo.addItem(p.getNom());
         }
         if (produits.size() > 0) {
@@ -127,16 +215,25 @@ public class SimulationPanel extends JPanel {
         }
     }
 
+    /**
+     * Produit sélectionné dans la liste (null si aucun)
+     */
+    private Produits getSelectedProduit() {
+        int index = productCombo.getSelectedIndex();
+        return index >= 0 && index < idsProduits.length ? controller.getProduitParId(idsProduits[index]) : null;
+    }
+
     private void updateSpinners() {
         int index = productCombo.getSelectedIndex();
         if (index >= 0) {
-            Produits p = controller.getProduit(index);
+            Produits p = getSelectedProduit();
             if (p != null) {
                 demandeSpinner.setValue(p.getDemandeEstimee());
                 prixAchatSpinner.setValue(p.getPrixachat());
                 prixStockSpinner.setValue(p.getPrixstock());
             }
         }
+        majSensibilite();
     }
 
     private void runSimulation() {
@@ -146,128 +243,562 @@ public class SimulationPanel extends JPanel {
             return;
         }
 
-        Produits p = controller.getProduit(index);
+        Produits p = getSelectedProduit();
         int demandeSim = (Integer) demandeSpinner.getValue();
         double prixAchatSim = (Double) prixAchatSpinner.getValue();
         double prixStockSim = (Double) prixStockSpinner.getValue();
 
-        // Sauvegarder valeurs originales
-        double oldPrixAchat = p.getPrixachat();
-        double oldPrixStock = p.getPrixstock();
+        // Scénario immuable : le produit du catalogue n'est pas touché
+        Scenario simule = Scenario.de(p).avecPrixachat(prixAchatSim).avecPrixstock(prixStockSim);
 
-        // Appliquer valeurs simulées
-        p.setPrixachat(prixAchatSim);
-        p.setPrixstock(prixStockSim);
+        lancer("Simulation", suivi -> {
+            Produits.Recommendation rec = simule.recommanderReapprovisionnement(demandeSim);
 
-        // Obtenir recommandation
-        Produits.Recommendation rec = p.recommanderReapprovisionnement(demandeSim);
-
-        // Restaurer valeurs originales
-        p.setPrixachat(oldPrixAchat);
-        p.setPrixstock(oldPrixStock);
-
-        // Afficher résultats
-        StringBuilder sb = new StringBuilder();
-        sb.append("╔════════════════════════════════════════════════════════╗\n");
-        sb.append("║          RÉSULTATS DE LA SIMULATION                    ║\n");
-        sb.append("╚════════════════════════════════════════════════════════╝\n\n");
-        sb.append("Produit: ").append(p.getNom()).append("\n");
-        sb.append("Stock actuel: ").append(p.getQuantite()).append(" unités\n\n");
+            // Afficher résultats
+            StringBuilder sb = new StringBuilder();
+            sb.append("╔════════════════════════════════════════════════════════╗\n");
+            sb.append("║          RÉSULTATS DE LA SIMULATION                    ║\n");
+            sb.append("╚════════════════════════════════════════════════════════╝\n\n");
+            sb.append("Produit: ").append(simule.getNom()).append("\n");
+            sb.append("Stock actuel: ").append(simule.getQuantite()).append(" unités\n\n");
         
-        sb.append("┌─ PARAMÈTRES DE SIMULATION ─────────────────────────┐\n");
-        sb.append(String.format("│ Demande simulée:        %d unités\n", demandeSim));
-        sb.append(String.format("│ Prix d'achat simulé:    %.2f DA\n", prixAchatSim));
-        sb.append(String.format("│ Coût stockage simulé:   %.2f DA/unité\n", prixStockSim));
-        sb.append("└────────────────────────────────────────────────────┘\n\n");
+            sb.append("┌─ PARAMÈTRES DE SIMULATION ─────────────────────────┐\n");
+            sb.append(String.format("│ Demande simulée:        %d unités\n", demandeSim));
+            sb.append(String.format("│ Prix d'achat simulé:    %.2f DA\n", prixAchatSim));
+            sb.append(String.format("│ Coût stockage simulé:   %.2f DA/unité\n", prixStockSim));
+            sb.append("└────────────────────────────────────────────────────┘\n\n");
         
-        sb.append("┌─ RECOMMANDATION ───────────────────────────────────┐\n");
-        sb.append("│ ").append(rec.message.replace("\n", "\n│ ")).append("\n");
-        sb.append("└────────────────────────────────────────────────────┘\n\n");
+            sb.append("┌─ RECOMMANDATION ───────────────────────────────────┐\n");
+            sb.append("│ ").append(rec.getMessage().replace("\n", "\n│ ")).append("\n");
+            sb.append("└────────────────────────────────────────────────────┘\n\n");
         
-        sb.append("┌─ ANALYSE FINANCIÈRE ───────────────────────────────┐\n");
-        double coutCommande = prixAchatSim * rec.reorderQty;
-        double coutStockageTotal = prixStockSim * (p.getQuantite() + rec.reorderQty);
-        double profitPotentiel = (p.getPrixvente() - prixAchatSim) * rec.sold;
+            sb.append("┌─ ANALYSE FINANCIÈRE ───────────────────────────────┐\n");
+            double coutCommande = prixAchatSim * rec.reorderQty;
+            double coutStockageTotal = prixStockSim * (simule.getQuantite() + rec.reorderQty);
+            double profitPotentiel = (simule.getPrixvente() - prixAchatSim) * rec.sold;
         
-        sb.append(String.format("│ Coût de commande:       %.2f DA\n", coutCommande));
-        sb.append(String.format("│ Coût stockage après:    %.2f DA\n", coutStockageTotal));
-        sb.append(String.format("│ Profit potentiel:       %.2f DA\n", profitPotentiel));
-        sb.append(String.format("│ ROI estimé:             %.1f%%\n", 
-            coutCommande > 0 ? (profitPotentiel / coutCommande * 100) : 0));
-        sb.append("└────────────────────────────────────────────────────┘\n\n");
+            sb.append(String.format("│ Coût de commande:       %.2f DA\n", coutCommande));
+            sb.append(String.format("│ Coût stockage après:    %.2f DA\n", coutStockageTotal));
+            sb.append(String.format("│ Profit potentiel:       %.2f DA\n", profitPotentiel));
+            sb.append(String.format("│ ROI estimé:             %.1f%%\n", 
+                coutCommande > 0 ? (profitPotentiel / coutCommande * 100) : 0));
+            sb.append("└────────────────────────────────────────────────────┘\n\n");
         
-        sb.append("┌─ INDICATEURS CLÉS ─────────────────────────────────┐\n");
-        sb.append(String.format("│ EOQ (Economic Order Qty): %d unités\n", rec.eoq));
-        sb.append(String.format("│ Seuil auto calculé:       %d unités\n", rec.thresholdAuto));
-        sb.append(String.format("│ Besoin réappro:           %s\n", rec.needReorder ? "OUI (ALERTE)" : "NON (OK)"));
-        sb.append("└────────────────────────────────────────────────────┘\n");
+            sb.append("┌─ INDICATEURS CLÉS ─────────────────────────────────┐\n");
+            sb.append(String.format("│ EOQ (Economic Order Qty): %d unités\n", rec.eoq));
+            sb.append(String.format("│ Seuil auto calculé:       %d unités\n", rec.thresholdAuto));
+            sb.append(String.format("│ Besoin réappro:           %s\n", rec.needReorder ? "OUI (ALERTE)" : "NON (OK)"));
+            sb.append("└────────────────────────────────────────────────────┘\n");
 
-        resultArea.setText(sb.toString());
+            return sb.toString();
+        }, this::afficherTexte);
     }
     
+    /**
+     * Balayage d'une grille de scénarios autour des valeurs du produit
+     * Les résultats arrivent dans la table au fil du calcul ; le meilleur et
+     * le pire résultat (profit - stockage) sont surlignés.
+     */
     private void compareScenarios() {
-        int index = productCombo.getSelectedIndex();
-        if (index < 0) {
+        Produits p = getSelectedProduit();
+        if (p == null) {
             JOptionPane.showMessageDialog(this, "Sélectionnez un produit.", "Erreur", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        
-        Produits p = controller.getProduit(index);
+        int demande = (Integer) demandeSpinner.getValue();
+        double prixAchat = (Double) prixAchatSpinner.getValue();
+        double prixStock = (Double) prixStockSpinner.getValue();
+        double seuil = p.getSeuil();
+
+        // Grille par défaut : demande ×0.5 à ×2, prix ±20%, stockage ×0.5 à ×2, seuil ×0.5 à ×1.5
+        String[] axes = {"Demande", "Prix d'achat", "Coût stockage", "Seuil"};
+        double[][] defauts = {
+            {demande * 0.5, demande * 2.0, 7},
+            {prixAchat * 0.8, prixAchat * 1.2, 5},
+            {prixStock * 0.5, prixStock * 2.0, 5},
+            {seuil * 0.5, seuil * 1.5, 5}
+        };
+        JPanel grille = new JPanel(new GridLayout(axes.length + 1, 4, 5, 5));
+        grille.add(new JLabel("Axe"));
+        grille.add(new JLabel("Min"));
+        grille.add(new JLabel("Max"));
+        grille.add(new JLabel("Points"));
+        JSpinner[][] champs = new JSpinner[axes.length][3];
+        for (int a = 0; a < axes.length; a++) {
+            grille.add(new JLabel(axes[a] + ":"));
+            champs[a][0] = new JSpinner(new SpinnerNumberModel(defauts[a][0], 0.0, 1e9, 1.0));
+            champs[a][1] = new JSpinner(new SpinnerNumberModel(defauts[a][1], 0.0, 1e9, 1.0));
+            champs[a][2] = new JSpinner(new SpinnerNumberModel((int) defauts[a][2], 1, 200, 1));
+            for (JSpinner champ : champs[a]) {
+                grille.add(champ);
+            }
+        }
+        int choix = JOptionPane.showConfirmDialog(this, grille, "Grille de scénarios",
+                                                  JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (choix != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        BalayageScenarios.Axe[] grilleAxes = new BalayageScenarios.Axe[axes.length];
+        try {
+            for (int a = 0; a < axes.length; a++) {
+                grilleAxes[a] = new BalayageScenarios.Axe((Double) champs[a][0].getValue(),
+                        (Double) champs[a][1].getValue(), (Integer) champs[a][2].getValue());
+            }
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        Scenario simule = Scenario.de(p).avecPrixachat(prixAchat).avecPrixstock(prixStock).avecDemandeEstimee(demande);
+        BalayageScenarios balayage;
+        try {
+            balayage = controller.creerBalayage(simule, grilleAxes[0], grilleAxes[1], grilleAxes[2], grilleAxes[3]);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        lancerBalayage(balayage, p.getNom());
+    }
+
+    private void lancerBalayage(BalayageScenarios balayage, String nom) {
+        modeleBalayage.demarrer(balayage);
+        balayageStatus.setText("Balayage de " + balayage.taille() + " scénarios pour " + nom + "...");
+        resultLayout.show(resultCards, "grille");
+        long debut = System.nanoTime();
+        AtomicInteger faits = new AtomicInteger();
+
+        lancer("Balayage de " + balayage.taille() + " scénarios", suivi -> {
+            boolean complet = balayage.executer((d, f) -> {
+                if (suivi.isAnnule()) {
+                    balayage.annuler();
+                    return;
+                }
+                int n = faits.addAndGet(f - d);
+                suivi.avancer((int) (n * 1000L / balayage.taille()), n + " / " + balayage.taille() + " scénarios");
+                List<int[]> bloc = List.of(new int[]{d, f});
+                suivi.afficher(() -> modeleBalayage.ajouter(bloc));
+            });
+            if (!complet) {
+                suivi.afficher(() -> balayageStatus.setText("Balayage annulé (" + faits.get() + " scénarios calculés)"));
+                return null;
+            }
+            return (System.nanoTime() - debut) / 1_000_000;
+        }, ms -> balayageStatus.setText(String.format(
+                "%d scénarios pour %s en %d ms — vert: meilleur résultat, rouge: pire (profit - stockage)",
+                balayage.taille(), nom, ms)));
+    }
+
+    private void afficherSensibilite() {
+        if (getSelectedProduit() == null) {
+            JOptionPane.showMessageDialog(this, "Sélectionnez un produit.", "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        resultLayout.show(resultCards, "tornado");
+        majSensibilite();
+    }
+
+    /**
+     * Recalcule le tornado si il est affiché ; assez rapide pour suivre les spinners sur l'EDT
+     */
+    private void majSensibilite() {
+        if (tornadoPanel == null || !tornadoPanel.isVisible()) {
+            return;
+        }
+        Produits p = getSelectedProduit();
         if (p == null) {
-            JOptionPane.showMessageDialog(this, "Produit non trouvé.", "Erreur", JOptionPane.ERROR_MESSAGE);
+            tornado.afficher(null, null);
+            tornadoStatus.setText(" ");
             return;
         }
-        
-        // Scenarios prédéfinis
-        int[] demandes = {
-            (int)(p.getDemandeEstimee() * 0.5),  // Demande faible (-50%)
-            p.getDemandeEstimee(),               // Demande normale
-            (int)(p.getDemandeEstimee() * 1.5),  // Demande élevée (+50%)
-            (int)(p.getDemandeEstimee() * 2.0)   // Demande très élevée (+100%)
+        Scenario simule = Scenario.de(p).avecPrixachat((Double) prixAchatSpinner.getValue())
+                                  .avecPrixstock((Double) prixStockSpinner.getValue())
+                                  .avecDemandeEstimee((Integer) demandeSpinner.getValue());
+        long debut = System.nanoTime();
+        AnalyseSensibilite.Resultat r = sensibilite.analyser(simule);
+        long us = (System.nanoTime() - debut) / 1000;
+        tornado.afficher(r, (AnalyseSensibilite.Indicateur) indicateurCombo.getSelectedItem());
+        tornadoStatus.setText(String.format("%s — chaque paramètre à ±%.0f%% (%d points), calculé en %d µs",
+                p.getNom(), r.getVariation() * 100, r.getPas(), us));
+    }
+
+    /**
+     * Lance un calcul hors de l'EDT ; le calcul précédent encore en cours est annulé
+     */
+    private <T> void lancer(String titre, TacheFond.Travail<T> travail, Consumer<T> livraison) {
+        if (tacheEnCours != null) {
+            tacheEnCours.annuler();
+        }
+        tacheEnCours = TacheFond.lancer(this, titre, travail, livraison);
+    }
+
+    private void afficherTexte(String texte) {
+        resultArea.setText(texte);
+        resultLayout.show(resultCards, "texte");
+    }
+
+    /**
+     * Lignes de la table : points du balayage dans leur ordre d'arrivée
+     */
+    private static class ModeleBalayage extends AbstractTableModel {
+        private static final String[] COLONNES = {
+            "Demande", "Prix achat", "Coût stock.", "Seuil", "EOQ", "Commande",
+            "Coût commande", "Coût stockage", "Profit", "Résultat", "ROI %"
         };
-        
-        String[] scenarios = {"Demande Faible", "Demande Normale", "Demande Élevée", "Demande Très Élevée"};
-        
-        StringBuilder sb = new StringBuilder();
-        sb.append("╔════════════════════════════════════════════════════════╗\n");
-        sb.append("║          COMPARAISON DE SCÉNARIOS                      ║\n");
-        sb.append("╚════════════════════════════════════════════════════════╝\n\n");
-        sb.append("Produit: ").append(p.getNom()).append("\n");
-        sb.append("Stock actuel: ").append(p.getQuantite()).append(" unités\n\n");
-        
-        for (int i = 0; i < scenarios.length; i++) {
-            Produits.Recommendation rec = p.recommanderReapprovisionnement(demandes[i]);
-            
-            sb.append("┌─ ").append(scenarios[i].toUpperCase()).append(" (").append(demandes[i]).append(" unités) ─────────────\n");
-            sb.append(String.format("│ EOQ recommandé:     %d unités\n", rec.eoq));
-            sb.append(String.format("│ Quantité commande:  %d unités\n", rec.reorderQty));
-            sb.append(String.format("│ Coût commande:      %.2f DA\n", p.getPrixachat() * rec.reorderQty));
-            sb.append(String.format("│ Profit potentiel:   %.2f DA\n", (p.getPrixvente() - p.getPrixachat()) * rec.sold));
-            sb.append(String.format("│ Statut:             %s\n", rec.needReorder ? "RÉAPPRO NÉCESSAIRE" : "STOCK SUFFISANT"));
-            sb.append("└─────────────────────────────────────────────────────\n\n");
+        private BalayageScenarios balayage;
+        private int[] rangs = new int[0];
+        private int lignes;
+        private int meilleur = -1;
+        private int pire = -1;
+
+        void demarrer(BalayageScenarios b) {
+            balayage = b;
+            rangs = new int[b.taille()];
+            lignes = 0;
+            meilleur = -1;
+            pire = -1;
+            fireTableDataChanged();
+        }
+
+        void ajouter(List<int[]> blocs) {
+            int premiere = lignes;
+            int ancienMeilleur = meilleur;
+            int ancienPire = pire;
+            for (int[] bloc : blocs) {
+                for (int i = bloc[0]; i < bloc[1]; i++) {
+                    rangs[lignes++] = i;
+                    double r = balayage.getResultat(i);
+                    if (meilleur < 0 || r > balayage.getResultat(meilleur)) {
+                        meilleur = i;
+                    }
+                    if (pire < 0 || r < balayage.getResultat(pire)) {
+                        pire = i;
+                    }
+                }
+            }
+            if (lignes > premiere) {
+                fireTableRowsInserted(premiere, lignes - 1);
+            }
+            // Surlignage déplacé : redessiner les lignes déjà affichées
+            if (premiere > 0 && (meilleur != ancienMeilleur || pire != ancienPire)) {
+                fireTableRowsUpdated(0, premiere - 1);
+            }
+        }
+
+        boolean estMeilleur(int ligne) {
+            return rangs[ligne] == meilleur;
+        }
+
+        boolean estPire(int ligne) {
+            return rangs[ligne] == pire && pire != meilleur;
+        }
+
+        @Override
+        public int getRowCount() {
+            return lignes;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLONNES.length;
+        }
+
+        @Override
+        public String getColumnName(int colonne) {
+            return COLONNES[colonne];
+        }
+
+        @Override
+        public Class<?> getColumnClass(int colonne) {
+            return colonne == 0 || colonne == 4 || colonne == 5 ? Integer.class : Double.class;
+        }
+
+        @Override
+        public Object getValueAt(int ligne, int colonne) {
+            int i = rangs[ligne];
+            switch (colonne) {
+                case 0: return balayage.getDemande(i);
+                case 1: return arrondir(balayage.getPrixachat(i));
+                case 2: return arrondir(balayage.getPrixstock(i));
+                case 3: return arrondir(balayage.getSeuil(i));
+                case 4: return balayage.getEoq(i);
+                case 5: return balayage.getReorderQty(i);
+                case 6: return arrondir(balayage.getCoutCommande(i));
+                case 7: return arrondir(balayage.getCoutStockage(i));
+                case 8: return arrondir(balayage.getProfit(i));
+                case 9: return arrondir(balayage.getResultat(i));
+                default: return arrondir(balayage.getRoi(i) * 100);
+            }
+        }
+
+        private static double arrondir(double v) {
+            return Math.round(v * 100) / 100.0;
         }
-        
-        // Recommandation globale
-        sb.append("┌─ RECOMMANDATION STRATÉGIQUE ───────────────────────\n");
-        sb.append("│ Conseil: Surveillez particulièrement les scénarios\n");
-        sb.append("│ de demande élevée pour éviter les ruptures de stock.\n");
-        sb.append("│ Considérez un stock de sécurité supplémentaire si\n");
-        sb.append("│ la variabilité de la demande est importante.\n");
-        sb.append("└─────────────────────────────────────────────────────\n");
-        
-        resultArea.setText(sb.toString());
     }
-    
+
+    /**
+     * Surligne le meilleur (vert) et le pire (rouge) scénario
+     */
+    private static class RenduBalayage extends DefaultTableCellRenderer {
+        private static final Color MEILLEUR = new Color(198, 239, 206);
+        private static final Color PIRE = new Color(255, 199, 206);
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            setHorizontalAlignment(SwingConstants.RIGHT);
+            if (!isSelected) {
+                ModeleBalayage modele = (ModeleBalayage) table.getModel();
+                int ligne = table.convertRowIndexToModel(row);
+                setBackground(modele.estMeilleur(ligne) ? MEILLEUR
+                            : modele.estPire(ligne) ? PIRE : table.getBackground());
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Graphique tornado : une barre par paramètre, de sa valeur à -variation
+     * (bleu) à sa valeur à +variation (orange), autour de la valeur de base.
+     * Le cadre gris couvre le min et le max atteints sur toute la plage.
+     */
+    private static class GraphiqueTornado extends JPanel {
+        private static final Color BAS = new Color(100, 149, 237);
+        private static final Color HAUT = new Color(255, 152, 0);
+        private static final Color PLAGE = new Color(150, 150, 150);
+        private AnalyseSensibilite.Resultat resultat;
+        private AnalyseSensibilite.Indicateur indicateur;
+
+        GraphiqueTornado() {
+            setPreferredSize(new Dimension(500, 300));
+            setBackground(Color.WHITE);
+        }
+
+        void afficher(AnalyseSensibilite.Resultat resultat, AnalyseSensibilite.Indicateur indicateur) {
+            this.resultat = resultat;
+            this.indicateur = indicateur;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (resultat == null || indicateur == null) {
+                return;
+            }
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setFont(new Font("Arial", Font.PLAIN, 12));
+            FontMetrics fm = g2.getFontMetrics();
+
+            AnalyseSensibilite.Parametre[] ordre = resultat.classement(indicateur);
+            double base = resultat.getBase(indicateur);
+            double min = base;
+            double max = base;
+            for (AnalyseSensibilite.Parametre p : ordre) {
+                min = Math.min(min, resultat.getMin(p, indicateur));
+                max = Math.max(max, resultat.getMax(p, indicateur));
+            }
+            if (max - min < 1e-9) {
+                max = min + 1;
+            }
+
+            int gauche = 20;
+            for (AnalyseSensibilite.Parametre p : ordre) {
+                gauche = Math.max(gauche, fm.stringWidth(p.getLibelle()) + 20);
+            }
+            int droite = getWidth() - 20;
+            int haut = 30;
+            int bas = getHeight() - 40;
+            int hauteurBarre = Math.max(8, Math.min(40, (bas - haut) / ordre.length - 10));
+            double lo = min;
+            double echelle = (droite - gauche) / (max - min);
+
+            g2.setColor(Color.BLACK);
+            g2.drawString(indicateur.getLibelle() + String.format(" — base: %.2f", base), gauche, 18);
+
+            for (int k = 0; k < ordre.length; k++) {
+                AnalyseSensibilite.Parametre p = ordre[k];
+                int y = haut + k * (bas - haut) / ordre.length;
+                int xBase = gauche + (int) Math.round((base - lo) * echelle);
+                int xBas = gauche + (int) Math.round((resultat.getBas(p, indicateur) - lo) * echelle);
+                int xHaut = gauche + (int) Math.round((resultat.getHaut(p, indicateur) - lo) * echelle);
+                int xMin = gauche + (int) Math.round((resultat.getMin(p, indicateur) - lo) * echelle);
+                int xMax = gauche + (int) Math.round((resultat.getMax(p, indicateur) - lo) * echelle);
+
+                g2.setColor(BAS);
+                g2.fillRect(Math.min(xBase, xBas), y, Math.abs(xBas - xBase), hauteurBarre);
+                g2.setColor(HAUT);
+                g2.fillRect(Math.min(xBase, xHaut), y, Math.abs(xHaut - xBase), hauteurBarre);
+                g2.setColor(PLAGE);
+                g2.drawRect(xMin, y, Math.max(xMax - xMin, 1), hauteurBarre);
+
+                g2.setColor(Color.BLACK);
+                g2.drawString(p.getLibelle(), 10, y + hauteurBarre / 2 + fm.getAscent() / 2);
+                String amplitude = String.format("±%.2f", resultat.getAmplitude(p, indicateur) / 2);
+                int xTexte = Math.min(xMax + 5, droite - fm.stringWidth(amplitude));
+                g2.drawString(amplitude, xTexte, y + hauteurBarre / 2 + fm.getAscent() / 2);
+            }
+
+            // Ligne de base
+            int xBase = gauche + (int) Math.round((base - lo) * echelle);
+            g2.setColor(Color.DARK_GRAY);
+            g2.drawLine(xBase, haut - 5, xBase, bas);
+
+            // Légende
+            int yLegende = getHeight() - 15;
+            String pct = String.format("%.0f%%", resultat.getVariation() * 100);
+            g2.setColor(BAS);
+            g2.fillRect(gauche, yLegende - 10, 12, 12);
+            g2.setColor(Color.BLACK);
+            g2.drawString("paramètre -" + pct, gauche + 16, yLegende);
+            g2.setColor(HAUT);
+            g2.fillRect(gauche + 130, yLegende - 10, 12, 12);
+            g2.setColor(Color.BLACK);
+            g2.drawString("paramètre +" + pct, gauche + 146, yLegende);
+            g2.setColor(PLAGE);
+            g2.drawRect(gauche + 260, yLegende - 10, 12, 12);
+            g2.setColor(Color.BLACK);
+            g2.drawString("min - max sur la plage", gauche + 276, yLegende);
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Simulation Monte Carlo : la demande simulée est la moyenne de la loi choisie
+     */
+    private void runMonteCarlo() {
+        Produits p = getSelectedProduit();
+        if (p == null) {
+            JOptionPane.showMessageDialog(this, "Sélectionnez un produit.", "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int demandeSim = (Integer) demandeSpinner.getValue();
+        double prixAchatSim = (Double) prixAchatSpinner.getValue();
+        double prixStockSim = (Double) prixStockSpinner.getValue();
+        // Scénario immuable avec les prix simulés : le produit du catalogue n'est pas touché
+        Scenario simule = Scenario.de(p).avecPrixachat(prixAchatSim).avecPrixstock(prixStockSim)
+                                  .avecDemandeEstimee(demandeSim);
+        boolean poisson = loiCombo.getSelectedIndex() == 1;
+        SimulationMonteCarlo.LoiDemande loi = poisson
+                ? SimulationMonteCarlo.poisson(demandeSim)
+                : SimulationMonteCarlo.normale(demandeSim, demandeSim * 0.25);
+        long essais = 1_000_000;
+        lancer("Monte Carlo", suivi -> {
+            SimulationMonteCarlo.Resultat r = controller.simulerMonteCarlo(simule, loi, essais, 42, (faits, total) -> {
+                suivi.avancer((int) (faits * 1000 / total), String.format("%,d / %,d essais", faits, total));
+                return !suivi.isAnnule();
+            });
+            if (r == null) {
+                return null;
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("╔════════════════════════════════════════════════════════╗\n");
+            sb.append("║          SIMULATION MONTE CARLO                        ║\n");
+            sb.append("╚════════════════════════════════════════════════════════╝\n\n");
+            sb.append("Produit: ").append(simule.getNom()).append("\n");
+            sb.append("Stock actuel: ").append(r.getStock()).append(" unités\n");
+            sb.append(String.format("Demande: %s de moyenne %d (%,d essais)\n\n",
+                poisson ? "Poisson" : "normale, σ = 25%", demandeSim, r.getEssais()));
+
+            sb.append("┌─ RUPTURE ET SERVICE ───────────────────────────────┐\n");
+            sb.append(String.format("│ Probabilité de rupture:   %.2f%%\n", r.getProbabiliteRupture() * 100));
+            sb.append(String.format("│ Taux de service:          %.2f%%\n", r.getTauxService() * 100));
+            sb.append(String.format("│ Pénurie moyenne:          %.2f unités\n", r.getPenurieMoyenne()));
+            sb.append(String.format("│ Pénurie si rupture:       %.2f unités\n", r.getPenurieMoyenneSiRupture()));
+            sb.append(String.format("│ Pénurie P50 / P90 / P99:  %d / %d / %d unités\n",
+                r.getPenuriePercentile(50), r.getPenuriePercentile(90), r.getPenuriePercentile(99)));
+            sb.append("└────────────────────────────────────────────────────┘\n\n");
+
+            sb.append("┌─ PROFIT DE LA PÉRIODE ─────────────────────────────┐\n");
+            sb.append(String.format("│ Profit moyen:             %.2f DA\n", r.getProfitMoyen()));
+            sb.append(String.format("│ P5 (pessimiste):          %.2f DA\n", r.getProfitPercentile(5)));
+            sb.append(String.format("│ P50 (médian):             %.2f DA\n", r.getProfitPercentile(50)));
+            sb.append(String.format("│ P95 (optimiste):          %.2f DA\n", r.getProfitPercentile(95)));
+            sb.append("└────────────────────────────────────────────────────┘\n");
+
+            return sb.toString();
+        }, this::afficherTexte);
+    }
+
+    /**
+     * Simulation jour par jour sur un an : demande, commandes au seuil auto, livraisons
+     */
+    private void runSimulationAnnee() {
+        Produits p = getSelectedProduit();
+        if (p == null) {
+            JOptionPane.showMessageDialog(this, "Sélectionnez un produit.", "Erreur", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int demandeSim = (Integer) demandeSpinner.getValue();
+        int delai = (Integer) delaiSpinner.getValue();
+        Scenario simule = Scenario.de(p).avecPrixachat((Double) prixAchatSpinner.getValue())
+                                  .avecPrixstock((Double) prixStockSpinner.getValue())
+                                  .avecDemandeEstimee(demandeSim);
+        lancer("Simulation sur 12 mois", suivi -> {
+            SimulationStock.Trajectoire t = controller.simulerStock(simule,
+                    new SimulationStock.Parametres(365, delai, 30, true, 42), (jour, total) -> {
+                        suivi.avancer((int) (jour * 1000 / total), "Jour " + jour + " / " + total);
+                        return !suivi.isAnnule();
+                    });
+            if (t == null) {
+                return null;
+            }
+
+            StringBuilder sb = new StringBuilder();
+            sb.append("╔════════════════════════════════════════════════════════╗\n");
+            sb.append("║          SIMULATION SUR 12 MOIS                        ║\n");
+            sb.append("╚════════════════════════════════════════════════════════╝\n\n");
+            sb.append("Produit: ").append(simule.getNom()).append("\n");
+            sb.append(String.format("Demande: %d / mois (Poisson journalier), délai: %d jours\n\n", demandeSim, delai));
+
+            sb.append("┌─ ÉVOLUTION MENSUELLE ──────────────────────────────┐\n");
+            sb.append("│ Mois  Stock fin  Ventes  Perdues  Reçu\n");
+            for (int mois = 0; mois < 12; mois++) {
+                int debut = mois * 365 / 12;
+                int fin = (mois + 1) * 365 / 12;
+                int ventes = 0, perdues = 0, recu = 0;
+                for (int j = debut; j < fin; j++) {
+                    ventes += t.getVentes(j);
+                    perdues += t.getDemande(j) - t.getVentes(j);
+                    recu += t.getRecu(j);
+                }
+                sb.append(String.format("│ %4d  %9d  %6d  %7d  %4d\n", mois + 1, t.getStock(fin - 1), ventes, perdues, recu));
+            }
+            sb.append("└────────────────────────────────────────────────────┘\n\n");
+
+            sb.append("┌─ BILAN ANNUEL ─────────────────────────────────────┐\n");
+            sb.append(String.format("│ Commandes passées:        %d\n", t.getCommandes()));
+            sb.append(String.format("│ Jours de rupture:         %d\n", t.getJoursRupture()));
+            sb.append(String.format("│ Taux de service:          %.2f%%\n", t.getTauxService() * 100));
+            sb.append(String.format("│ Chiffre d'affaires:       %.2f DA\n", t.getChiffreAffaires()));
+            sb.append(String.format("│ Coût d'achat:             %.2f DA\n", t.getCoutAchat()));
+            sb.append(String.format("│ Coût de stockage:         %.2f DA\n", t.getCoutStockage()));
+            sb.append(String.format("│ Marge perdue (ruptures):  %.2f DA\n", t.getMargePerdue()));
+            sb.append(String.format("│ Profit:                   %.2f DA\n", t.getProfit()));
+            sb.append("└────────────────────────────────────────────────────┘\n");
+
+            return sb.toString();
+        }, this::afficherTexte);
+    }
+
     private void resetSimulation() {
+        if (tacheEnCours != null) {
+            tacheEnCours.annuler();
+        }
         int index = productCombo.getSelectedIndex();
         if (index >= 0) {
             updateSpinners();  // Remet les valeurs d'origine
         }
         
-        resultArea.setText("Paramètres réinitialisés. Configurez vos paramètres et lancez une simulation.\n\n" +
+        afficherTexte("Paramètres réinitialisés. Configurez vos paramètres et lancez une simulation.\n\n" +
                           "Fonctionnalités disponibles:\n" +
                           "- Simulation simple: Testez un scénario spécifique\n" +
-                          "- Comparaison: Analysez plusieurs scénarios simultanément\n" +
+                          "- Comparaison: Balayez une grille de scénarios (table triable)\n" +
+                          "- Monte Carlo: Probabilité de rupture et distribution du profit\n" +
+                          "- Simuler 1 an: Stock jour par jour avec délais de livraison\n" +
+                          "- Sensibilité: Tornado des paramètres, mis à jour en direct\n" +
                           "- Chaque simulation inclut l'analyse EOQ et les recommandations");
     }
     
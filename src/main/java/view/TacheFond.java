@@ -0,0 +1,146 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Travail long exécuté hors de l'EDT (SwingWorker)
+ * Une fenêtre de progression apparaît si le travail dure ; son bouton
+ * Annuler lève le drapeau d'annulation que le travail consulte. Le résultat
+ * est livré sur l'EDT, sauf s'il est null (travail abandonné) ou si la tâche
+ * a été annulée par annuler(). Une erreur est affichée dans une boîte de dialogue.
+ */
+public final class TacheFond<T> {
+
+    /**
+     * Suivi fourni au travail : progression, annulation, mises à jour intermédiaires
+     */
+    public interface Suivi {
+        /**
+         * Avancement en pour mille, avec une note (appel possible depuis n'importe quel thread)
+         */
+        void avancer(int pourMille, String note);
+
+        boolean isAnnule();
+
+        /**
+         * Exécute une mise à jour de l'affichage sur l'EDT, si la tâche n'est pas annulée
+         */
+        void afficher(Runnable miseAJour);
+    }
+
+    /**
+     * Travail exécuté en arrière-plan ; renvoie null pour ne rien livrer
+     */
+    public interface Travail<T> {
+        T executer(Suivi suivi) throws Exception;
+    }
+
+    private final Component parent;
+    private final ProgressMonitor monitor;
+    private final SwingWorker<T, Void> worker;
+    private final Timer surveillance;
+    private volatile boolean annule;
+    private volatile boolean abandonnee;        // annuler() : rien ne sera livré
+
+    private TacheFond(Component parent, String titre, Travail<T> travail, Consumer<T> livraison) {
+        this.parent = parent;
+        monitor = new ProgressMonitor(parent, titre, "", 0, 1000);
+        monitor.setMillisToDecideToPopup(300);
+        monitor.setMillisToPopup(500);
+        Suivi suivi = new Suivi() {
+            private volatile int dernier = -1;
+
+            @Override
+            public void avancer(int pourMille, String note) {
+                if (pourMille == dernier && note == null) {
+                    return;
+                }
+                dernier = pourMille;
+                SwingUtilities.invokeLater(() -> {
+                    if (!worker.isDone()) {
+                        monitor.setProgress(Math.min(Math.max(pourMille, 0), 999));
+                        if (note != null) {
+                            monitor.setNote(note);
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public boolean isAnnule() {
+                return annule;
+            }
+
+            @Override
+            public void afficher(Runnable miseAJour) {
+                SwingUtilities.invokeLater(() -> {
+                    if (!abandonnee) {
+                        miseAJour.run();
+                    }
+                });
+            }
+        };
+        worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return travail.executer(suivi);
+            }
+
+            @Override
+            protected void done() {
+                surveillance.stop();
+                monitor.close();
+                if (abandonnee || isCancelled()) {
+                    return;
+                }
+                try {
+                    T resultat = get();
+                    if (resultat != null) {
+                        livraison.accept(resultat);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    JOptionPane.showMessageDialog(TacheFond.this.parent, "Erreur: " + cause.getMessage(),
+                                                  "Erreur", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        // Le bouton Annuler de la fenêtre de progression n'est consultable que sur l'EDT
+        surveillance = new Timer(100, e -> {
+            if (monitor.isCanceled()) {
+                annule = true;
+            }
+        });
+    }
+
+    /**
+     * Lance un travail ; appelé depuis l'EDT
+     * @param livraison reçoit le résultat sur l'EDT
+     */
+    public static <T> TacheFond<T> lancer(Component parent, String titre, Travail<T> travail, Consumer<T> livraison) {
+        TacheFond<T> tache = new TacheFond<>(parent, titre, travail, livraison);
+        tache.surveillance.start();
+        tache.worker.execute();
+        return tache;
+    }
+
+    /**
+     * Annule la tâche : le travail voit isAnnule(), rien ne sera livré ni affiché
+     */
+    public void annuler() {
+        annule = true;
+        abandonnee = true;
+        worker.cancel(true);
+    }
+
+    public boolean isTerminee() {
+        return worker.isDone();
+    }
+}
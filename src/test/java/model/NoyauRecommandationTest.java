@@ -0,0 +1,225 @@
+/*
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Licenses/license-default.txt to change this license
+ * Click nbfs://nbhost/SystemFileSystem/Templates/Classes/Class.java to edit this template
+ */
+package model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Le noyau vectoriel, le noyau scalaire et Produits.recommanderReapprovisionnement
+ * doivent donner les mêmes résultats au bit près, y compris sur les valeurs
+ * limites (NaN, coûts <= 0, saturation des conversions) et les restes de bloc.
+ */
+class NoyauRecommandationTest {
+    private static final int SENTINELLE = 0x5EED;
+
+    private static final double[] DOUBLES_LIMITES = {
+        0.0, -0.0, -1.0, 1.0, 0.5, 1e-300, -1e-300, Double.NaN,
+        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MAX_VALUE, -Double.MAX_VALUE,
+        Double.MIN_VALUE, 2147483646.5, 2147483647.0, 2147483648.0, -2147483648.5,
+        9.3e18, -9.3e18, 1e20, -1e20, 4503599627370495.5
+    };
+
+    private static final int[] ENTIERS_LIMITES = {
+        0, 1, -1, 2, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1,
+        1 << 30, -(1 << 30), 1000, 999_999
+    };
+
+    /**
+     * Colonnes de test : valeurs courantes, avec une part de valeurs limites
+     */
+    private static final class Colonnes {
+        final int[] demande;
+        final int[] quantite;
+        final double[] seuil;
+        final double[] prixachat;
+        final double[] prixstock;
+
+        Colonnes(int n, long graine, double partLimites) {
+            SplittableRandom alea = new SplittableRandom(graine);
+            demande = new int[n];
+            quantite = new int[n];
+            seuil = new double[n];
+            prixachat = new double[n];
+            prixstock = new double[n];
+            for (int i = 0; i < n; i++) {
+                demande[i] = entier(alea, partLimites, 1000);
+                quantite[i] = entier(alea, partLimites, 1000);
+                seuil[i] = decimal(alea, partLimites, 500);
+                prixachat[i] = decimal(alea, partLimites, 100_000);
+                prixstock[i] = decimal(alea, partLimites, 1000);
+            }
+        }
+
+        private static int entier(SplittableRandom alea, double partLimites, int max) {
+            return alea.nextDouble() < partLimites
+                    ? ENTIERS_LIMITES[alea.nextInt(ENTIERS_LIMITES.length)]
+                    : alea.nextInt(max);
+        }
+
+        private static double decimal(SplittableRandom alea, double partLimites, double max) {
+            return alea.nextDouble() < partLimites
+                    ? DOUBLES_LIMITES[alea.nextInt(DOUBLES_LIMITES.length)]
+                    : alea.nextDouble(max);
+        }
+    }
+
+    /**
+     * Sorties d'un calcul, initialisées à une sentinelle pour vérifier [debut, fin)
+     */
+    private static final class Sorties {
+        final int[] sold;
+        final int[] shortage;
+        final boolean[] needReorder;
+        final int[] reorderQty;
+        final int[] thresholdAuto;
+        final int[] eoq;
+
+        Sorties(int n) {
+            sold = rempli(n);
+            shortage = rempli(n);
+            needReorder = new boolean[n];
+            reorderQty = rempli(n);
+            thresholdAuto = rempli(n);
+            eoq = rempli(n);
+        }
+
+        private static int[] rempli(int n) {
+            int[] t = new int[n];
+            Arrays.fill(t, SENTINELLE);
+            return t;
+        }
+    }
+
+    private static Sorties calculer(Colonnes c, int debut, int fin) {
+        Sorties s = new Sorties(c.demande.length);
+        NoyauRecommandation.calculer(c.demande, c.quantite, c.seuil, c.prixachat, c.prixstock, debut, fin,
+                                     s.sold, s.shortage, s.needReorder, s.reorderQty, s.thresholdAuto, s.eoq);
+        return s;
+    }
+
+    private static Sorties calculerScalaire(Colonnes c, int debut, int fin) {
+        Sorties s = new Sorties(c.demande.length);
+        NoyauRecommandation.calculerScalaire(c.demande, c.quantite, c.seuil, c.prixachat, c.prixstock, debut, fin,
+                                             s.sold, s.shortage, s.needReorder, s.reorderQty, s.thresholdAuto, s.eoq);
+        return s;
+    }
+
+    /**
+     * Compare deux calculs sur [debut, fin), et vérifie qu'ils n'ont rien écrit ailleurs
+     */
+    private static void verifierIdentiques(Colonnes c, Sorties attendu, Sorties obtenu, int debut, int fin) {
+        for (int i = 0; i < c.demande.length; i++) {
+            String ligne = ligne(c, i, debut, fin);
+            assertEquals(attendu.sold[i], obtenu.sold[i], "sold " + ligne);
+            assertEquals(attendu.shortage[i], obtenu.shortage[i], "shortage " + ligne);
+            assertEquals(attendu.needReorder[i], obtenu.needReorder[i], "needReorder " + ligne);
+            assertEquals(attendu.reorderQty[i], obtenu.reorderQty[i], "reorderQty " + ligne);
+            assertEquals(attendu.thresholdAuto[i], obtenu.thresholdAuto[i], "thresholdAuto " + ligne);
+            assertEquals(attendu.eoq[i], obtenu.eoq[i], "eoq " + ligne);
+        }
+    }
+
+    /**
+     * Compare un calcul en colonnes à Produits.recommanderReapprovisionnement, ligne par ligne
+     */
+    private static void verifierSelonProduits(Colonnes c, Sorties obtenu, int debut, int fin) {
+        Produits.Recommendation rec = new Produits.Recommendation();
+        for (int i = debut; i < fin; i++) {
+            Produits p = new Produits("P" + i, c.prixachat[i], 0, c.quantite[i], c.seuil[i], c.prixstock[i], 0);
+            p.recommanderReapprovisionnement(c.demande[i], rec);
+            String ligne = ligne(c, i, debut, fin);
+            assertEquals(rec.sold, obtenu.sold[i], "sold " + ligne);
+            assertEquals(rec.shortage, obtenu.shortage[i], "shortage " + ligne);
+            assertEquals(rec.needReorder, obtenu.needReorder[i], "needReorder " + ligne);
+            assertEquals(rec.reorderQty, obtenu.reorderQty[i], "reorderQty " + ligne);
+            assertEquals(rec.thresholdAuto, obtenu.thresholdAuto[i], "thresholdAuto " + ligne);
+            assertEquals(rec.eoq, obtenu.eoq[i], "eoq " + ligne);
+        }
+    }
+
+    private static String ligne(Colonnes c, int i, int debut, int fin) {
+        return "[" + i + " dans " + debut + ".." + fin + "] demande=" + c.demande[i] + " quantite=" + c.quantite[i]
+               + " seuil=" + c.seuil[i] + " prixachat=" + c.prixachat[i] + " prixstock=" + c.prixstock[i];
+    }
+
+    @Test
+    void scalaireIdentiqueAProduits() {
+        Colonnes c = new Colonnes(20_000, 1L, 0.2);
+        verifierSelonProduits(c, calculerScalaire(c, 0, c.demande.length), 0, c.demande.length);
+    }
+
+    @Test
+    void calculerIdentiqueAuScalaireSurColonnesAleatoires() {
+        for (long graine = 1; graine <= 20; graine++) {
+            Colonnes c = new Colonnes(10_007, graine, graine % 2 == 0 ? 0.0 : 0.3);
+            int n = c.demande.length;
+            Sorties obtenu = calculer(c, 0, n);
+            verifierIdentiques(c, calculerScalaire(c, 0, n), obtenu, 0, n);
+            verifierSelonProduits(c, obtenu, 0, n);
+        }
+    }
+
+    @Test
+    void calculerIdentiqueAuScalaireSurToutesLesValeursLimites() {
+        // Produit cartésien des valeurs limites des doubles, sur chaque colonne
+        int nd = DOUBLES_LIMITES.length;
+        int ni = ENTIERS_LIMITES.length;
+        int n = ni * ni * nd;
+        Colonnes c = new Colonnes(n * 3, 7L, 0.0);
+        int i = 0;
+        for (int a = 0; a < ni; a++) {
+            for (int b = 0; b < ni; b++) {
+                for (int k = 0; k < nd; k++) {
+                    double v = DOUBLES_LIMITES[k];
+                    double w = DOUBLES_LIMITES[(k + a + b) % nd];
+                    for (int colonne = 0; colonne < 3; colonne++, i++) {
+                        c.demande[i] = ENTIERS_LIMITES[a];
+                        c.quantite[i] = ENTIERS_LIMITES[b];
+                        c.seuil[i] = colonne == 0 ? v : w;
+                        c.prixachat[i] = colonne == 1 ? v : w;
+                        c.prixstock[i] = colonne == 2 ? v : w;
+                    }
+                }
+            }
+        }
+        Sorties obtenu = calculer(c, 0, i);
+        verifierIdentiques(c, calculerScalaire(c, 0, i), obtenu, 0, i);
+        verifierSelonProduits(c, obtenu, 0, i);
+    }
+
+    @Test
+    void calculerTraiteLesRestesEtLesDecalages() {
+        // Longueurs de 0 à plusieurs blocs, débuts non alignés : blocs complets puis reste scalaire
+        Colonnes c = new Colonnes(64, 3L, 0.3);
+        for (int debut = 0; debut < 9; debut++) {
+            for (int fin = debut; fin <= c.demande.length; fin++) {
+                Sorties obtenu = calculer(c, debut, fin);
+                verifierIdentiques(c, calculerScalaire(c, debut, fin), obtenu, debut, fin);
+            }
+        }
+    }
+
+    @Test
+    void noyauVectorielIdentiqueAuScalaire() {
+        // Appel direct du noyau vectoriel : seuls ses blocs complets sont comparés
+        assumeTrue(NoyauRecommandation.isVectoriel(), "module jdk.incubator.vector absent ou -Dvectoriel=false");
+        for (long graine = 1; graine <= 10; graine++) {
+            Colonnes c = new Colonnes(4099, graine, 0.4);
+            int n = c.demande.length;
+            Sorties obtenu = new Sorties(n);
+            int traites = NoyauRecommandationVectoriel.calculer(c.demande, c.quantite, c.seuil, c.prixachat,
+                    c.prixstock, 1, n, obtenu.sold, obtenu.shortage, obtenu.needReorder, obtenu.reorderQty,
+                    obtenu.thresholdAuto, obtenu.eoq);
+            assertTrue(traites > 1 && n - traites < 64, "éléments traités: " + traites);
+            verifierIdentiques(c, calculerScalaire(c, 1, traites), obtenu, 1, traites);
+        }
+    }
+}